@@ -38,19 +38,20 @@ CREATE TABLE `pojisteny` (
   `mesto` varchar(100) DEFAULT NULL,
   `ulice` varchar(120) DEFAULT NULL,
   `cislo_popisne` varchar(20) DEFAULT NULL,
-  `psc` varchar(10) DEFAULT NULL
+  `psc` varchar(10) DEFAULT NULL,
+  `razeni_klic` varbinary(1024) NOT NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
 -- Vypisuji data pro tabulku `pojisteny`
 --
 
-INSERT INTO `pojisteny` (`id`, `jmeno`, `prijmeni`, `telefon`, `vek`, `email`, `pohlavi`, `mesto`, `ulice`, `cislo_popisne`, `psc`) VALUES
-(7, 'Petr', 'Mráček', '+420 111 222 333', 35, 'p-mrak@gmail.com', 'muz', 'Drahanovice', 'Ludéřov', '58', '783 55'),
-(8, 'Eva ', 'Večeřová', '+420 111 222 333', 49, 'yes@no.cz', NULL, 'Drahanovice', 'Mrkvova', '75', '987 44'),
-(14, 'Lukáš', 'Večeřa', '+420 737 555 565', 29, 'zdar6810@gmail.com', NULL, 'Olomouc', 'Střížov', '78', '783 44'),
-(15, 'Petr', 'Petrovič', '///', 15, NULL, NULL, 'Litovel', 'Dolní', '51', '999 88'),
-(16, 'user', 'user', '888 777 444', 38, 'user@user.cz', NULL, 'Praha', 'Userova', '99', '222 22');
+INSERT INTO `pojisteny` (`id`, `jmeno`, `prijmeni`, `telefon`, `vek`, `email`, `pohlavi`, `mesto`, `ulice`, `cislo_popisne`, `psc`, `razeni_klic`) VALUES
+(7, 'Petr', 'Mráček', '+420 111 222 333', 35, 'p-mrak@gmail.com', 'muz', 'Drahanovice', 'Ludéřov', '58', '783 55', 0x006200670053005600590060000000010001000100880001000100010000000200010001000100010001000000650059006b00670000000100010001000100000002000100010001),
+(8, 'Eva ', 'Večeřová', '+420 111 222 333', 49, 'yes@no.cz', NULL, 'Drahanovice', 'Mrkvova', '75', '987 44', 0x006d00590056005900680064006d0053000000010001000100010001000100010001008800000002000100010001000100010001000100000059006d0053000000010001000100760000000200010001),
+(14, 'Lukáš', 'Večeřa', '+420 737 555 565', 29, 'zdar6810@gmail.com', NULL, 'Olomouc', 'Střížov', '78', '783 44', 0x006d005900560059006800530000000100010001000100010001000000020001000100010001000100000061006c00600053006a0000000100010001000100880001000000020001000100010001),
+(15, 'Petr', 'Petrovič', '///', 15, NULL, NULL, 'Litovel', 'Dolní', '51', '999 88', 0x00650059006b00670064006d005e0056000000010001000100010001000100010001000000020001000100010001000100010001000000650059006b00670000000100010001000100000002000100010001),
+(16, 'user', 'user', '888 777 444', 38, 'user@user.cz', NULL, 'Praha', 'Userova', '99', '222 22', 0x006c00690059006700000001000100010001000000010001000100010000006c0069005900670000000100010001000100000001000100010001);
 
 -- --------------------------------------------------------
 
@@ -103,6 +104,103 @@ INSERT INTO `pojistna_udalost` (`id`, `pojisteny_id`, `typ_pojisteni_id`, `datum
 
 -- --------------------------------------------------------
 
+--
+-- Struktura tabulky `reset_token`
+-- (tokeny pro obnovu hesla při app.reset.uloziste=db; ukládá se jen SHA-256 tokenu,
+--  prošlé maže ResetTokenyJdbc podle app.reset.uklid-cron)
+--
+
+CREATE TABLE `reset_token` (
+  `token_hash` char(64) NOT NULL,
+  `username` varchar(80) NOT NULL,
+  `username_norm` varchar(80) NOT NULL,
+  `vytvoren` datetime(3) NOT NULL,
+  `plati_do` datetime(3) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- --------------------------------------------------------
+
+--
+-- Struktura tabulky `rollup_pojistka_den`
+-- (průběžně udržovaný souhrn pro /reporty: začátky platnosti v den `den`,
+--  konce = pojistky, jejichž platnost skončila den předem; viz RollupReportu)
+--
+
+CREATE TABLE `rollup_pojistka_den` (
+  `den` date NOT NULL,
+  `nazev` varchar(100) NOT NULL,
+  `zacatky` int(11) NOT NULL DEFAULT 0,
+  `konce` int(11) NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+--
+-- Vypisuji data pro tabulku `rollup_pojistka_den`
+--
+
+INSERT INTO `rollup_pojistka_den` (`den`, `nazev`, `zacatky`, `konce`) VALUES
+('2025-08-21', 'Auto - Škoda', 1, 0),
+('2025-09-26', 'Životka - Family + ', 1, 0),
+('2025-10-02', 'Dům ', 1, 0),
+('2025-10-07', 'User\'s Family', 1, 0),
+('2026-10-03', 'Dům ', 0, 1),
+('2026-10-23', 'User\'s Family', 0, 1),
+('2027-10-22', 'Auto - Škoda', 0, 1),
+('2027-12-31', 'Životka - Family + ', 0, 1);
+
+-- --------------------------------------------------------
+
+--
+-- Struktura tabulky `rollup_udalost_den`
+-- (průběžně udržovaný souhrn pojistných událostí po dnech a stavech)
+--
+
+CREATE TABLE `rollup_udalost_den` (
+  `den` date NOT NULL,
+  `stav` enum('NOVA','RESENA','UZAVRENA') NOT NULL,
+  `pocet` int(11) NOT NULL DEFAULT 0,
+  `suma` decimal(14,2) NOT NULL DEFAULT 0.00
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+--
+-- Vypisuji data pro tabulku `rollup_udalost_den`
+--
+
+INSERT INTO `rollup_udalost_den` (`den`, `stav`, `pocet`, `suma`) VALUES
+('2025-09-26', 'RESENA', 1, 68300.00),
+('2025-10-03', 'NOVA', 1, 65200.00),
+('2025-10-07', 'RESENA', 1, 98421.00);
+
+-- --------------------------------------------------------
+
+--
+-- Struktura tabulky `SPRING_SESSION`
+-- (sdílené HTTP session – Spring Session JDBC; prošlé maže cleanup-cron)
+--
+
+CREATE TABLE `SPRING_SESSION` (
+  `PRIMARY_ID` char(36) NOT NULL,
+  `SESSION_ID` char(36) NOT NULL,
+  `CREATION_TIME` bigint(20) NOT NULL,
+  `LAST_ACCESS_TIME` bigint(20) NOT NULL,
+  `MAX_INACTIVE_INTERVAL` int(11) NOT NULL,
+  `EXPIRY_TIME` bigint(20) NOT NULL,
+  `PRINCIPAL_NAME` varchar(100) DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci ROW_FORMAT=DYNAMIC;
+
+-- --------------------------------------------------------
+
+--
+-- Struktura tabulky `SPRING_SESSION_ATTRIBUTES`
+--
+
+CREATE TABLE `SPRING_SESSION_ATTRIBUTES` (
+  `SESSION_PRIMARY_ID` char(36) NOT NULL,
+  `ATTRIBUTE_NAME` varchar(200) NOT NULL,
+  `ATTRIBUTE_BYTES` blob NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci ROW_FORMAT=DYNAMIC;
+
+-- --------------------------------------------------------
+
 --
 -- Struktura tabulky `typ_pojisteni`
 --
@@ -113,7 +211,8 @@ CREATE TABLE `typ_pojisteni` (
   `nazev` varchar(100) NOT NULL,
   `castka` decimal(12,2) NOT NULL,
   `platnost_do` date NOT NULL DEFAULT curdate(),
-  `platnost_od` date NOT NULL DEFAULT curdate()
+  `platnost_od` date NOT NULL DEFAULT curdate(),
+  CONSTRAINT `chk_typ_pojisteni_platnost` CHECK (`platnost_od` <= `platnost_do`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
@@ -135,6 +234,7 @@ INSERT INTO `typ_pojisteni` (`id`, `pojisteny_id`, `nazev`, `castka`, `platnost_
 CREATE TABLE `uzivatel` (
   `id` int(11) NOT NULL,
   `username` varchar(80) NOT NULL,
+  `username_norm` varchar(80) NOT NULL,
   `password_hash` varchar(100) NOT NULL,
   `enabled` tinyint(1) NOT NULL DEFAULT 1,
   `pojisteny_id` int(11) DEFAULT NULL
@@ -144,14 +244,14 @@ CREATE TABLE `uzivatel` (
 -- Vypisuji data pro tabulku `uzivatel`
 --
 
-INSERT INTO `uzivatel` (`id`, `username`, `password_hash`, `enabled`, `pojisteny_id`) VALUES
-(4, 'pepa', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, 7),
-(5, 'eva', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, 8),
-(8, 'petr', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, 7),
-(12, 'luka', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, NULL),
-(13, 'Luka2468', '{bcrypt}$2a$10$E50DeUX57VmFvKo4tI5NguRvUtgp7DfwW21yDwI.VxMmjssepESgK', 1, 14),
-(14, 'admin', '{bcrypt}$2a$10$qQttYxhKaiUbc6rlyYCKweA98JMp9OB12Q6AujHiXEcjxn9MPU6GS', 1, NULL),
-(15, 'user', '{bcrypt}$2a$10$4lGvMSlrfWdiVfrQRqit4eoovEEGuFCdG.SX5Q0EsBtouccWS4/JS', 1, 16);
+INSERT INTO `uzivatel` (`id`, `username`, `username_norm`, `password_hash`, `enabled`, `pojisteny_id`) VALUES
+(4, 'pepa', 'pepa', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, 7),
+(5, 'eva', 'eva', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, 8),
+(8, 'petr', 'petr', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, 7),
+(12, 'luka', 'luka', '{bcrypt}$2a$10$68X51UfAc4CfwfnceWZrjef6nqEk.YMAEbevoGi95Y9Ua8F6v8PjO', 1, NULL),
+(13, 'Luka2468', 'luka2468', '{bcrypt}$2a$10$E50DeUX57VmFvKo4tI5NguRvUtgp7DfwW21yDwI.VxMmjssepESgK', 1, 14),
+(14, 'admin', 'admin', '{bcrypt}$2a$10$qQttYxhKaiUbc6rlyYCKweA98JMp9OB12Q6AujHiXEcjxn9MPU6GS', 1, NULL),
+(15, 'user', 'user', '{bcrypt}$2a$10$4lGvMSlrfWdiVfrQRqit4eoovEEGuFCdG.SX5Q0EsBtouccWS4/JS', 1, 16);
 
 -- --------------------------------------------------------
 
@@ -184,7 +284,9 @@ INSERT INTO `uzivatel_role` (`uzivatel_id`, `role_name`) VALUES
 -- Indexy pro tabulku `pojisteny`
 --
 ALTER TABLE `pojisteny`
-  ADD PRIMARY KEY (`id`);
+  ADD PRIMARY KEY (`id`),
+  ADD KEY `idx_pojisteny_razeni` (`razeni_klic`,`id`),
+  ADD FULLTEXT KEY `ft_pojisteny_text` (`jmeno`,`prijmeni`,`mesto`);
 
 --
 -- Indexy pro tabulku `pojistka_osoba`
@@ -200,7 +302,45 @@ ALTER TABLE `pojistka_osoba`
 ALTER TABLE `pojistna_udalost`
   ADD PRIMARY KEY (`id`),
   ADD KEY `fk_ud_typ` (`typ_pojisteni_id`),
-  ADD KEY `idx_udalost_poj_datum` (`pojisteny_id`,`datum`);
+  ADD KEY `idx_udalost_poj_datum` (`pojisteny_id`,`datum`),
+  ADD KEY `idx_udalost_stav_datum` (`stav`,`datum`),
+  ADD KEY `idx_udalost_datum_id` (`datum`,`id`),
+  ADD FULLTEXT KEY `ft_udalost_popis` (`popis`);
+
+--
+-- Indexy pro tabulku `reset_token`
+--
+ALTER TABLE `reset_token`
+  ADD PRIMARY KEY (`token_hash`),
+  ADD KEY `idx_reset_token_uzivatel` (`username_norm`,`vytvoren`),
+  ADD KEY `idx_reset_token_plati_do` (`plati_do`);
+
+--
+-- Indexy pro tabulku `rollup_pojistka_den`
+--
+ALTER TABLE `rollup_pojistka_den`
+  ADD PRIMARY KEY (`den`,`nazev`);
+
+--
+-- Indexy pro tabulku `rollup_udalost_den`
+--
+ALTER TABLE `rollup_udalost_den`
+  ADD PRIMARY KEY (`den`,`stav`);
+
+--
+-- Indexy pro tabulku `SPRING_SESSION`
+--
+ALTER TABLE `SPRING_SESSION`
+  ADD PRIMARY KEY (`PRIMARY_ID`),
+  ADD UNIQUE KEY `SPRING_SESSION_IX1` (`SESSION_ID`),
+  ADD KEY `SPRING_SESSION_IX2` (`EXPIRY_TIME`),
+  ADD KEY `SPRING_SESSION_IX3` (`PRINCIPAL_NAME`);
+
+--
+-- Indexy pro tabulku `SPRING_SESSION_ATTRIBUTES`
+--
+ALTER TABLE `SPRING_SESSION_ATTRIBUTES`
+  ADD PRIMARY KEY (`SESSION_PRIMARY_ID`,`ATTRIBUTE_NAME`);
 
 --
 -- Indexy pro tabulku `typ_pojisteni`
@@ -216,6 +356,7 @@ ALTER TABLE `uzivatel`
   ADD PRIMARY KEY (`id`),
   ADD UNIQUE KEY `username` (`username`),
   ADD UNIQUE KEY `uq_uzivatel_username` (`username`),
+  ADD UNIQUE KEY `uq_uzivatel_username_norm` (`username_norm`),
   ADD KEY `fk_uzivatel_pojisteny_20250902` (`pojisteny_id`);
 
 --
@@ -270,6 +411,12 @@ ALTER TABLE `pojistna_udalost`
   ADD CONSTRAINT `fk_ud_poj` FOREIGN KEY (`pojisteny_id`) REFERENCES `pojisteny` (`id`) ON DELETE CASCADE,
   ADD CONSTRAINT `fk_ud_typ` FOREIGN KEY (`typ_pojisteni_id`) REFERENCES `typ_pojisteni` (`id`) ON DELETE SET NULL;
 
+--
+-- Omezení pro tabulku `SPRING_SESSION_ATTRIBUTES`
+--
+ALTER TABLE `SPRING_SESSION_ATTRIBUTES`
+  ADD CONSTRAINT `SPRING_SESSION_ATTRIBUTES_FK` FOREIGN KEY (`SESSION_PRIMARY_ID`) REFERENCES `SPRING_SESSION` (`PRIMARY_ID`) ON DELETE CASCADE;
+
 --
 -- Omezení pro tabulku `typ_pojisteni`
 --
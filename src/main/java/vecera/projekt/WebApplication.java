@@ -2,8 +2,10 @@ package vecera.projekt;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication // skenuje "vecera.projekt"
+@EnableScheduling      // noční přestavění souhrnů reportů (RollupReportu)
 public class WebApplication {
     public static void main(String[] args) {
 
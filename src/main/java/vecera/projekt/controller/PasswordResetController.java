@@ -8,18 +8,15 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import vecera.projekt.service.PasswordResetService;
+import vecera.projekt.service.ResetTokeny;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 /**
  * Zapomenuté heslo / obnova hesla (DEMO varianta bez e-mailu).
  *
  * Flow:
- * - GET/POST /forgot-password  → generuje jednorázový token (TTL 30 min) a ukáže odkaz ve flash zprávě
+ * - GET/POST /forgot-password  → generuje jednorázový token (TTL app.reset.ttl) a ukáže odkaz ve flash zprávě
  * - GET /reset-password?token  → formulář pro nové heslo
  * - POST /reset-password       → validace (min. délka, shoda), uložení (BCrypt) a zneplatnění tokenu
  *
@@ -28,23 +25,21 @@ import java.util.concurrent.ConcurrentHashMap;
  * - Z bezpečnostních důvodů nikde neprozrazuje existenci/neexistenci uživatele
  *
  * Pozn.:
- * - Tokeny se drží in-memory (ConcurrentHashMap) pouze pro DEMO.
- * - V produkci se posílá odkaz e-mailem a token se ukládá do DB.
+ * - Tokeny drží {@link ResetTokeny} – v paměti s vyřazováním prošlých, nebo v DB (app.reset.uloziste=db).
+ * - V produkci se posílá odkaz e-mailem.
  */
 
 @Controller
 public class PasswordResetController {
 
     private static final Logger log = LoggerFactory.getLogger(PasswordResetController.class);
-    private static final Duration TOKEN_TTL = Duration.ofMinutes(30);
-
-    // In-memory store tokenů (pro demo)
-    private final Map<String, ResetToken> tokens = new ConcurrentHashMap<>();
 
     private final PasswordResetService passwordResetService;
+    private final ResetTokeny tokeny;
 
-    public PasswordResetController(PasswordResetService passwordResetService) {
+    public PasswordResetController(PasswordResetService passwordResetService, ResetTokeny tokeny) {
         this.passwordResetService = passwordResetService;
+        this.tokeny = tokeny;
     }
 
     /* ===== KROK 1: Zadání username ===== */
@@ -57,8 +52,7 @@ public class PasswordResetController {
     @PostMapping("/forgot-password")
     public String processForgotPassword(@RequestParam("username") String username,
                                         RedirectAttributes ra) {
-        String token = UUID.randomUUID().toString();
-        tokens.put(token, new ResetToken(username, Instant.now().plus(TOKEN_TTL)));
+        String token = tokeny.vydej(username);
 
         // ABSOLUTNÍ URL
         String link = ServletUriComponentsBuilder.fromCurrentContextPath()
@@ -79,8 +73,7 @@ public class PasswordResetController {
     public String resetPasswordForm(@RequestParam("token") String token,
                                     Model model,
                                     RedirectAttributes ra) {
-        ResetToken rt = tokens.get(token);
-        if (rt == null || rt.isExpired()) {
+        if (tokeny.overUzivatele(token).isEmpty()) {
             ra.addFlashAttribute("toastError", "Odkaz pro obnovu je neplatný nebo vypršel.");
             return "redirect:/login";
         }
@@ -93,8 +86,7 @@ public class PasswordResetController {
                                        @RequestParam("password") String password,
                                        @RequestParam("confirm") String confirm,
                                        RedirectAttributes ra) {
-        ResetToken rt = tokens.get(token);
-        if (rt == null || rt.isExpired()) {
+        if (tokeny.overUzivatele(token).isEmpty()) {
             ra.addFlashAttribute("toastError", "Odkaz pro obnovu je neplatný nebo vypršel.");
             return "redirect:/login";
         }
@@ -109,10 +101,14 @@ public class PasswordResetController {
             return "redirect:/reset-password?token=" + token;
         }
 
-        boolean ok = passwordResetService.resetByUsername(rt.username(), password);
+        // jednorázový token – spotřebuje ho jen jeden z případných souběžných POSTů
+        Optional<String> username = tokeny.spotrebuj(token);
+        if (username.isEmpty()) {
+            ra.addFlashAttribute("toastError", "Odkaz pro obnovu je neplatný nebo vypršel.");
+            return "redirect:/login";
+        }
 
-        // jednorázový token
-        tokens.remove(token);
+        boolean ok = passwordResetService.resetByUsername(username.get(), password);
 
         if (!ok) {
             // Z bezpečnostních důvodů neprozrazujeme, zda user existuje.
@@ -122,9 +118,4 @@ public class PasswordResetController {
         }
         return "redirect:/login";
     }
-
-    /* ===== Pomocná třída ===== */
-    private record ResetToken(String username, Instant expiresAt) {
-        boolean isExpired() { return Instant.now().isAfter(expiresAt); }
-    }
 }
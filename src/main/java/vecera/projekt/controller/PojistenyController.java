@@ -3,6 +3,9 @@ package vecera.projekt.controller;
 import vecera.projekt.entity.Pojisteny;
 import vecera.projekt.entity.PojistenyDetail;
 import vecera.projekt.entity.RoleVPojistce;
+import vecera.projekt.index.PojistenyTrie;
+import vecera.projekt.records.OsobaNavrhDto;
+import vecera.projekt.records.Strana;
 import vecera.projekt.service.PojistnaUdalostService;
 import vecera.projekt.service.PojistkaOsobaService;
 import vecera.projekt.service.SpravcePojistenych;
@@ -19,13 +22,15 @@ import java.util.Optional;
  * Správa pojištěnců (CRUD) a jejich detailů.
 
  * Endpoints (typicky):
- * - GET  /pojistenci              → stránkovaný seznam (ADMIN)
+ * - GET  /pojistenci              → stránkovaný seznam (ADMIN; keyset kurzory ?po= / ?pred=, ?velikost=,
+ *                                    ?pribliznie=true → hledání příjmení s překlepy/bez diakritiky)
  * - GET  /pojistenci/novy         → formulář pro vytvoření (ADMIN)
  * - POST /pojistenci/novy         → uložení nového záznamu (ADMIN)
  * - GET  /pojistenci/detail/{id}  → detail pojištěnce (USER/ADMIN; USER vidí jen svůj)
  * - GET  /pojistenci/edit/{id}    → formulář pro editaci (ADMIN)
  * - POST /pojistenci/edit/{id}    → uložení změn (ADMIN)
  * - POST /pojistenci/delete/{id}  → smazání (ADMIN)
+ * - GET  /pojistenci/naseptavac    → JSON našeptávač osob (ADMIN; ?q=...&limit=...)
 
  * Práva:
  * - ADMIN: plný CRUD
@@ -44,27 +49,48 @@ public class PojistenyController {
     private final SpravcePojistenych spravce;
     private final PojistnaUdalostService udalostService;
     private final PojistkaOsobaService pojistkaOsobaService;
+    private final PojistenyTrie naseptavac;
 
     public PojistenyController(SpravcePojistenych spravce,
                                PojistnaUdalostService udalostService,
-                               PojistkaOsobaService pojistkaOsobaService) {
+                               PojistkaOsobaService pojistkaOsobaService,
+                               PojistenyTrie naseptavac) {
         this.spravce = spravce;
         this.udalostService = udalostService;
         this.pojistkaOsobaService = pojistkaOsobaService;
+        this.naseptavac = naseptavac;
     }
 
     // seznam všech – jen ADMIN
     @GetMapping({"", "/"})
     @PreAuthorize("hasRole('ADMIN')")
-    public String list(@RequestParam(value = "q", required = false) String q, Model model) {
-        var data = (q == null || q.isBlank())
-                ? spravce.vypisVsechny()
-                : spravce.hledejPojisteneho(q);
-        model.addAttribute("pojistenci", data);
+    public String list(@RequestParam(value = "q", required = false) String q,
+                       @RequestParam(value = "po", required = false) String po,
+                       @RequestParam(value = "pred", required = false) String pred,
+                       @RequestParam(value = "velikost", required = false) Integer velikost,
+                       @RequestParam(value = "pribliznie", defaultValue = "false") boolean pribliznie,
+                       Model model) {
+        var strana = (pribliznie && q != null && !q.isBlank())
+                ? new Strana<>(spravce.hledejPribliznie(q), null, null)
+                : spravce.strana(q, po, pred, velikost);
+        model.addAttribute("pojistenci", strana.polozky());
+        model.addAttribute("strana", strana);
+        model.addAttribute("velikost", velikost);
+        model.addAttribute("pribliznie", pribliznie);
         model.addAttribute("q", q);
         return "pojistenci/list";
     }
 
+    // našeptávač osob (JSON) – jen ADMIN; prefix bez diakritiky přes in-memory trie
+    @GetMapping(value = "/naseptavac", produces = "application/json")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public List<OsobaNavrhDto> naseptavac(@RequestParam("q") String q,
+                                          @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (q == null || q.isBlank()) return List.of();
+        return naseptavac.navrhni(q, Math.max(1, Math.min(limit, 50)));
+    }
+
     // přidání – jen ADMIN
     @GetMapping("/novy")
     @PreAuthorize("hasRole('ADMIN')")
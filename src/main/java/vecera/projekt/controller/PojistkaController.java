@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import vecera.projekt.entity.TypPojisteni;
 import vecera.projekt.service.PojistkaService;
 
@@ -66,8 +67,15 @@ public class PojistkaController {
     /** Vytvoření nové pojistky k pojištěnci */
     @PostMapping("/pridat-k-pojistenci/{pojistenyId}")
     public String vytvorKpojistenci(@PathVariable int pojistenyId,
-                                    @ModelAttribute TypPojisteni t) {
-        var saved = pojistkaService.createForPojisteny(pojistenyId, t);
+                                    @ModelAttribute TypPojisteni t,
+                                    RedirectAttributes ra) {
+        TypPojisteni saved;
+        try {
+            saved = pojistkaService.createForPojisteny(pojistenyId, t);
+        } catch (IllegalArgumentException e) { // např. platnost od > do
+            ra.addFlashAttribute("toastError", e.getMessage());
+            return "redirect:/pojistky/novy-k-pojistenci/" + pojistenyId;
+        }
         var pid = saved.getPojisteny() != null ? saved.getPojisteny().getId() : pojistenyId;
         return "redirect:/pojistenci/detail/" + pid;
     }
@@ -93,8 +101,13 @@ public class PojistkaController {
     @PostMapping("/edit/{id}")
     public String ulozEdit(@PathVariable int id,
                            @RequestParam(value = "pojistnikId", required = false) Integer pojistnikId,
-                           @ModelAttribute TypPojisteni t) {
-        pojistkaService.saveEdit(id, pojistnikId, t);
+                           @ModelAttribute TypPojisteni t,
+                           RedirectAttributes ra) {
+        try {
+            pojistkaService.saveEdit(id, pojistnikId, t);
+        } catch (IllegalArgumentException e) {
+            ra.addFlashAttribute("toastError", e.getMessage());
+        }
         return "redirect:/pojistky/edit/" + id;
     }
 
@@ -1,6 +1,8 @@
 package vecera.projekt.controller;
 
 import vecera.projekt.entity.PojistnaUdalost;
+import vecera.projekt.records.Strana;
+import vecera.projekt.records.UdalostRadekDto;
 import vecera.projekt.security.PrihlasenyUzivatel;
 import vecera.projekt.service.PojistnaUdalostService;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,9 +18,10 @@ import static org.springframework.http.HttpStatus.NOT_FOUND;
  * Správa pojistných událostí (CRUD) navázaných na pojistky/osoby.
 
  * Endpoints (typicky):
- * - GET  /udalosti                  → seznam událostí (USER/ADMIN; USER filtrované na jeho)
+ * - GET  /udalosti                  → seznam událostí po stránkách (USER/ADMIN; USER filtrované na jeho;
+ *                                      ?q= dotazovací jazyk, keyset kurzory ?po= / ?pred=, ?velikost=)
  * - GET  /udalosti/novy             → formulář pro vytvoření (ADMIN*)
- * - POST /udalosti/novy             → uložení (ADMIN*)
+ * - POST /udalosti/save             → uložení nové i upravené (ADMIN*)
  * - GET  /udalosti/detail/{id}      → detail události (USER/ADMIN; vlastnictví)
  * - GET  /udalosti/edit/{id}        → formulář pro editaci (ADMIN)
  * - POST /udalosti/edit/{id}        → uložení změn
@@ -53,6 +56,14 @@ public class PojistnaUdalostController {
         return "udalosti/detail";
     }
 
+    // NOVÁ – bez předvybrané osoby; osobu admin vybere našeptávačem ve formuláři
+    @GetMapping("/novy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public String novyForm(Model model) {
+        model.addAttribute("u", new PojistnaUdalost());
+        return "udalosti/form";
+    }
+
     // NOVÁ – k danému pojištěnci
     @GetMapping("/novy-k-pojistenci/{pojistenyId}")
     @PreAuthorize("@sec.canEditPojisteny(authentication, #pojistenyId)") // admin nebo vlastník
@@ -98,6 +109,9 @@ public class PojistnaUdalostController {
     @GetMapping({"", "/"})
     @PreAuthorize("isAuthenticated()")
     public String list(@RequestParam(value = "q", required = false) String q,
+                       @RequestParam(value = "po", required = false) String po,
+                       @RequestParam(value = "pred", required = false) String pred,
+                       @RequestParam(value = "velikost", required = false) Integer velikost,
                        Authentication auth,
                        Model model) {
 
@@ -106,16 +120,19 @@ public class PojistnaUdalostController {
         boolean admin = auth.getAuthorities().stream()
                 .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
 
+        Strana<UdalostRadekDto> strana;
         if (admin) {
-            var data = (q != null && !q.isBlank())
-                    ? udalostService.search(q)
-                    : udalostService.findAll();
-            model.addAttribute("udalosti", data);
+            strana = udalostService.strana(q, null, po, pred, velikost);
         } else {
             Integer myId = (auth.getPrincipal() instanceof PrihlasenyUzivatel up) ? up.getPojistenyId() : null;
-            model.addAttribute("udalosti", (myId != null) ? udalostService.findByPojisteny(myId) : java.util.List.of());
+            strana = (myId != null)
+                    ? udalostService.strana(q, myId, po, pred, velikost)
+                    : new Strana<>(java.util.List.of(), null, null);
         }
 
+        model.addAttribute("udalosti", strana.polozky());
+        model.addAttribute("strana", strana);
+        model.addAttribute("velikost", velikost);
         model.addAttribute("q", q);
         return "udalosti/list";
     }
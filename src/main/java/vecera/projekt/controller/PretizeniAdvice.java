@@ -0,0 +1,29 @@
+package vecera.projekt.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import vecera.projekt.security.OmezeneHashovani;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Přetížené hashování hesel v controllerech (registrace, reset hesla) → HTTP 503 s {@code Retry-After}.
+
+ * Pozn.:
+ * - Login tuto výjimku řeší sám (failure handler v SecurityConfig) – filtr běží před MVC.
+ */
+
+@ControllerAdvice
+public class PretizeniAdvice {
+
+    @ExceptionHandler(OmezeneHashovani.Pretizeni.class)
+    public ResponseEntity<String> pretizeni(OmezeneHashovani.Pretizeni e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(e.getMessage());
+    }
+}
@@ -1,20 +1,32 @@
 package vecera.projekt.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import vecera.projekt.index.HistogramSkod;
+import vecera.projekt.records.PlatnostKDatuDto;
+import vecera.projekt.service.DashboardLoader;
 import vecera.projekt.service.ReportService;
 
+import java.time.LocalDate;
+
 /**
  * Reportovací obrazovky (přehledy, agregace, filtrace).
 
  * Endpoints:
  * - GET /reporty        → přehled/dash (tabulky, grafy, filtry)
+ * - GET /reporty/platnost → JSON platnost pojistek k datu (ADMIN; ?datum=…&od=…&do=…, ISO data;
+ *                           výchozí datum = dnes, interval expirace = datum … datum + 30 dní)
 
  * Pozn.:
  * - Přístup typicky ADMIN
  * - Složitější dotazy drž v ReportService/ReportRepo (projekce/DTO).
+ * - Data načítá DashboardLoader – agregace běží souběžně (virtuální vlákna).
  */
 
 
@@ -22,15 +34,33 @@ import vecera.projekt.service.ReportService;
 @RequiredArgsConstructor
 public class ReportController {
 
-    private final ReportService reports;
+    private final DashboardLoader dashboard;
+    private final ReportService reportService;
 
     @GetMapping("/reporty")
     public String overview(Model model) {
-        model.addAttribute("snap", reports.snapshot());
-        model.addAttribute("aktivniTypy", reports.aktivniTypy());
-        model.addAttribute("mesicniNove", reports.mesicniNove());
-        model.addAttribute("skody", reports.skodyDleStavu());
-        model.addAttribute("mesta", reports.topMesta(10));
+        var d = dashboard.nacti();
+        model.addAttribute("snap", d.snap());
+        model.addAttribute("aktivniTypy", d.aktivniTypy());
+        model.addAttribute("mesicniNove", d.mesicniNove());
+        model.addAttribute("skody", d.skody());
+        model.addAttribute("mesta", d.mesta());
+        model.addAttribute("rozdeleni", d.rozdeleni());
+        model.addAttribute("pasma", HistogramSkod.POPISKY);
         return "reporty/index";
     }
+
+    @GetMapping(value = "/reporty/platnost", produces = "application/json")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public PlatnostKDatuDto platnost(
+            @RequestParam(value = "datum", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate datum,
+            @RequestParam(value = "od", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate od,
+            @RequestParam(value = "do", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate doVcetne) {
+        LocalDate d = datum != null ? datum : LocalDate.now();
+        LocalDate z = od != null ? od : d;
+        LocalDate k = doVcetne != null ? doVcetne : z.plusDays(30);
+        if (k.isBefore(z)) k = z;
+        return reportService.platnostKDatu(d, z, k);
+    }
 }
@@ -5,83 +5,153 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import vecera.projekt.records.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import vecera.projekt.index.HistogramSkod;
 import vecera.projekt.service.ReportService;
+import vecera.projekt.service.SurovyExport;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Export reportů do souboru (CSV/Excel/PDF).
 
  * Endpoints:
- * - GET /reporty/export        → stáhne CSV (Content-Disposition: attachment)
+ * - GET /reporty/export?typ=…            → stáhne CSV (Content-Disposition: attachment)
+ * - GET /reporty/export?typ=…&gzip=true  → totéž komprimované za běhu (.csv.gz)
+ * - typ=data-udalosti / data-pojistky / data-pojistenci → celé tabulky (jen ADMIN), viz {@link SurovyExport}
 
  * Pozn.:
 
  * - Parametry filtru validuje service; export běží mimo transakci, streamuje se.
+ * - Řádky se zapisují do odpovědi tak, jak přicházejí z DB ({@link StreamingResponseBody}) –
+ *   v paměti je jen buffer writeru, ne celý soubor; hlavička odchází hned (flush).
+ * - Zápis běží jako async požadavek – jeho timeout je {@code spring.mvc.async.request-timeout}
+ *   (nastavený pro exporty, výchozí ~30 s by velkou tabulku nestihl).
  */
 
 @Controller
 @RequiredArgsConstructor
 public class ReportExportController {
 
+    private static final int BUFFER = 8 * 1024;
+
     private final ReportService reports;
+    private final SurovyExport surovyExport;
 
-    @GetMapping(value = "/reporty/export", produces = "text/csv; charset=UTF-8")
-    public ResponseEntity<byte[]> exportCsv(@RequestParam("typ") String typ) {
-        StringBuilder sb = new StringBuilder();
-        // UTF-8 BOM pro Excel
-        sb.append('\uFEFF');
+    /** Zápis těla CSV (bez hlavičky souboru / BOM). */
+    @FunctionalInterface
+    private interface Radky {
+        void zapis(Writer w) throws IOException;
+    }
 
+    @GetMapping(value = "/reporty/export")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@RequestParam("typ") String typ,
+                                                           @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                           Authentication auth) {
         String filename = "report-" + typ + "-" + LocalDate.now() + ".csv";
 
-        switch (typ) {
-            case "aktivni-podle-typu" -> {
-                sb.append("typ;počet\n");
-                for (LabelValueDto r : reports.aktivniTypy()) {
-                    sb.append(esc(r.label())).append(';').append(r.value()).append('\n');
-                }
-            }
-            case "mesicni-nove" -> {
-                sb.append("měsíc;počet\n");
-                for (SeriesPoint r : reports.mesicniNove()) {
-                    sb.append(esc(r.period())).append(';').append(r.count()).append('\n');
-                }
-            }
-            case "skody-dle-stavu" -> {
-                sb.append("stav;počet;suma;průměr\n");
-                for (ClaimAggDto r : reports.skodyDleStavu()) {
-                    sb.append(esc(r.stav())).append(';')
-                            .append(r.pocet()).append(';')
-                            .append(r.suma()).append(';')
-                            .append(r.prumer()).append('\n');
-                }
-            }
-            case "top-mesta" -> {
-                sb.append("město;počet\n");
-                for (CityCountDto r : reports.topMesta(100)) {
-                    sb.append(esc(r.mesto())).append(';').append(r.pocet()).append('\n');
-                }
-            }
+        var tabulka = SurovyExport.Tabulka.podleKodu(typ);
+        Radky radky = tabulka.isPresent() ? surovaData(tabulka.get(), auth) : switch (typ) {
+            case "aktivni-podle-typu" -> w -> {
+                w.write("typ;počet\n");
+                reports.aktivniTypy(r -> radek(w, esc(r.label()) + ';' + r.value()));
+            };
+            case "mesicni-nove" -> w -> {
+                w.write("měsíc;počet\n");
+                reports.mesicniNove(r -> radek(w, esc(r.period()) + ';' + r.count()));
+            };
+            case "skody-dle-stavu" -> w -> {
+                w.write("stav;počet;suma;průměr\n");
+                reports.skodyDleStavu(r -> radek(w,
+                        esc(r.stav()) + ';' + r.pocet() + ';' + r.suma() + ';' + r.prumer()));
+            };
+            case "top-mesta" -> w -> {
+                w.write("město;počet\n");
+                reports.topMesta(100, r -> radek(w, esc(r.mesto()) + ';' + r.pocet()));
+            };
+            case "rozdeleni-skod" -> w -> {
+                w.write("skupina;název;počet;p50;p90;p99;"
+                        + HistogramSkod.POPISKY.stream().map(ReportExportController::esc).collect(Collectors.joining(";"))
+                        + "\n");
+                reports.rozdeleniSkod().forEach(r -> radek(w, esc(r.skupina()) + ';' + esc(r.nazev()) + ';' + r.pocet()
+                        + ';' + r.p50() + ';' + r.p90() + ';' + r.p99() + ';'
+                        + r.histogram().stream().map(String::valueOf).collect(Collectors.joining(";"))));
+            };
+            case "top-mesta-presne" -> w -> {
+                w.write("město;počet\n");
+                reports.topMestaPresne(100, r -> radek(w, esc(r.mesto()) + ';' + r.pocet()));
+            };
+            case "udalosti-po-rocich" -> w -> {
+                w.write("rok;počet\n");
+                reports.udalostiPoRocich().forEach(r -> radek(w, esc(r.label()) + ';' + r.value()));
+            };
+            case "skody-dle-mest" -> w -> {
+                w.write("město;počet;suma\n");
+                reports.skodyDleMest(100).forEach(r -> radek(w, esc(r.mesto()) + ';' + r.pocet() + ';' + r.suma()));
+            };
             default -> {
                 // neznámý typ → prázdný CSV s info
-                sb.append("info\nNeznámý typ exportu: ").append(esc(typ)).append('\n');
                 filename = "report-unknown-" + LocalDate.now() + ".csv";
+                yield w -> w.write("info\nNeznámý typ exportu: " + esc(typ) + "\n");
             }
-        }
+        };
 
-        byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+        StreamingResponseBody body = out -> {
+            OutputStream cil = gzip ? new GZIPOutputStream(out, BUFFER, true) : out;
+            Writer w = new BufferedWriter(new OutputStreamWriter(cil, StandardCharsets.UTF_8), BUFFER);
+            // UTF-8 BOM pro Excel + hlavička hned ven (time-to-first-byte nezávisí na počtu řádků)
+            w.write('\uFEFF');
+            w.flush();
+            try {
+                radky.zapis(w);
+            } catch (UncheckedIOException e) {
+                throw e.getCause(); // klient zavřel spojení uprostřed exportu
+            }
+            w.flush();
+            if (cil instanceof GZIPOutputStream g) g.finish();
+        };
+
+        MediaType typObsahu = gzip ? MediaType.parseMediaType("application/gzip")
+                                   : new MediaType("text", "csv", StandardCharsets.UTF_8);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + filename + (gzip ? ".gz" : "") + "\"")
+                .contentType(typObsahu)
                 .body(body);
     }
 
+    /** Celá tabulka řádek po řádku (JDBC cursor) – surová data obsahují osobní údaje, proto jen ADMIN. */
+    private Radky surovaData(SurovyExport.Tabulka tabulka, Authentication auth) {
+        boolean admin = auth.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (!admin) throw new AccessDeniedException("Export surových dat je jen pro administrátora");
+        return w -> surovyExport.export(tabulka, hodnoty -> radek(w,
+                hodnoty.stream().map(ReportExportController::esc).collect(Collectors.joining(";"))));
+    }
+
+    /** Zapíše jeden řádek; IOException zabalí, aby šla propagovat z {@code Consumer}. */
+    private static void radek(Writer w, String radek) {
+        try {
+            w.write(radek);
+            w.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private static String esc(String s) {
         if (s == null) return "";
         // jednoduchý escape: uvozovky + oddělovač ; → celé pole do uvozovek a zdvojit "
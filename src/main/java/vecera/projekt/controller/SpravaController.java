@@ -0,0 +1,70 @@
+package vecera.projekt.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import vecera.projekt.security.CacheUzivatelu;
+import vecera.projekt.security.OmezeneHashovani;
+import vecera.projekt.service.CacheHledani;
+import vecera.projekt.service.CacheReportu;
+
+import java.net.URI;
+
+/**
+ * Provozní (správcovské) endpointy – stav cache a interních struktur.
+
+ * Endpoints:
+ * - GET /sprava/cache   → počítadla cache hledání (zásahy/minutí/vyhození, váha) jako JSON
+ * - GET /sprava/reporty → počítadla cache reportů (zásahy, zastaralé, sdílené přepočty, TTL)
+ * - POST /sprava/reporty/obnov → zahodí cache reportů a vrátí na /reporty (čerstvá data)
+ * - GET /sprava/uzivatele → počítadla cache přihlášení (zásahy/minutí = login bez/s dotazem do DB)
+ * - GET /sprava/hesla     → hashovací pool (doba hashe, čekání ve frontě, odmítnutí pro přetížení)
+
+ * Pozn.:
+ * - Jen ADMIN (SecurityConfig + @PreAuthorize).
+ */
+
+@RestController
+@RequestMapping("/sprava")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class SpravaController {
+
+    private final CacheHledani cacheHledani;
+    private final CacheReportu cacheReportu;
+    private final CacheUzivatelu cacheUzivatelu;
+    private final OmezeneHashovani hashovani;
+
+    @GetMapping("/cache")
+    public CacheHledani.Statistika cache() {
+        return cacheHledani.statistika();
+    }
+
+    @GetMapping("/reporty")
+    public CacheReportu.Statistika reporty() {
+        return cacheReportu.statistika();
+    }
+
+    @GetMapping("/uzivatele")
+    public CacheUzivatelu.Statistika uzivatele() {
+        return cacheUzivatelu.statistika();
+    }
+
+    @GetMapping("/hesla")
+    public OmezeneHashovani.Statistika hesla() {
+        return hashovani.statistika();
+    }
+
+    @PostMapping("/reporty/obnov")
+    public ResponseEntity<Void> obnovReporty() {
+        cacheReportu.zneplatni();
+        URI reporty = ServletUriComponentsBuilder.fromCurrentContextPath().path("/reporty").build().toUri();
+        return ResponseEntity.status(HttpStatus.SEE_OTHER).location(reporty).build();
+    }
+}
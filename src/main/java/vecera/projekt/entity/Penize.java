@@ -0,0 +1,72 @@
+package vecera.projekt.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Peněžní částka v pevné řádové čárce – celé haléře v {@code long} (2 desetinná místa jako v DB).
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Kompaktní náhrada {@link BigDecimal} pro součty a průměry ve smyčkách (agregace reportů,
+ *       sloupcový sklad) – sčítání je {@code long + long}, žádná alokace na řádek.</li>
+ *   <li>Převod z/do {@link BigDecimal} na hranici (DB, formuláře, šablony); zaokrouhlení HALF_UP na haléře.</li>
+ *   <li>Přetečení ({@code ±9.2e16 Kč}) hlásí {@link ArithmeticException}, nic tiše nepřeteče.</li>
+ * </ul>
+ * Pozn.: Mapování na sloupec {@code DECIMAL(…,2)} řeší {@link PenizeConverter}.
+ */
+public record Penize(long haleru) implements Comparable<Penize> {
+
+    public static final Penize NULA = new Penize(0);
+
+    public static Penize zHaleru(long haleru) {
+        return haleru == 0 ? NULA : new Penize(haleru);
+    }
+
+    /** Z {@link BigDecimal} (např. {@code 1234.5} → 123450 haléřů); {@code null} → {@code null}. */
+    public static Penize z(BigDecimal castka) {
+        if (castka == null) return null;
+        BigDecimal v = castka.scale() == 2 ? castka : castka.setScale(2, RoundingMode.HALF_UP);
+        return zHaleru(v.unscaledValue().longValueExact());
+    }
+
+    public Penize plus(Penize p) {
+        return zHaleru(Math.addExact(haleru, p.haleru));
+    }
+
+    public Penize minus(Penize p) {
+        return zHaleru(Math.subtractExact(haleru, p.haleru));
+    }
+
+    public Penize krat(long n) {
+        return zHaleru(Math.multiplyExact(haleru, n));
+    }
+
+    /** Průměr součtu na {@code pocet} položek, zaokrouhlený HALF_UP na haléře (jako {@code BigDecimal}). */
+    public Penize deleno(long pocet) {
+        if (pocet <= 0) throw new ArithmeticException("Dělení počtem " + pocet);
+        long podil = haleru / pocet;
+        long zbytek = haleru % pocet;
+        if (Math.abs(zbytek) * 2 >= pocet) podil += Long.signum(haleru);
+        return zHaleru(podil);
+    }
+
+    public boolean jeNula() {
+        return haleru == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(haleru, 2);
+    }
+
+    @Override
+    public int compareTo(Penize o) {
+        return Long.compare(haleru, o.haleru);
+    }
+
+    /** Textová podoba jako v DB / CSV, např. {@code 1234.50}. */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
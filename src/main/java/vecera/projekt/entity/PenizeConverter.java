@@ -0,0 +1,24 @@
+package vecera.projekt.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * JPA konvertor {@link Penize} ↔ sloupec {@code DECIMAL(…,2)}.
+ * Není {@code autoApply} – použití se na atributu uvádí explicitně ({@code @Convert}).
+ */
+@Converter
+public class PenizeConverter implements AttributeConverter<Penize, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Penize p) {
+        return p == null ? null : p.toBigDecimal();
+    }
+
+    @Override
+    public Penize convertToEntityAttribute(BigDecimal castka) {
+        return Penize.z(castka);
+    }
+}
@@ -1,6 +1,7 @@
 package vecera.projekt.entity;
 
 import jakarta.persistence.*;
+import vecera.projekt.index.CeskeRazeni;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -8,7 +9,7 @@ import java.util.List;
 /**
  * Pojištěná osoba (tabulka `pojisteny`).
  * Sloupce dle SQL: id, jmeno, prijmeni, telefon, vek, email, pohlavi,
- * mesto, ulice, cislo_popisne, psc.
+ * mesto, ulice, cislo_popisne, psc, razeni_klic.
  */
 
 @Entity
@@ -59,6 +60,10 @@ public class Pojisteny {
     @Column(length = 10)
     private String psc;
 
+    /** Klíč českého řazení (příjmení → jméno), viz {@link CeskeRazeni}; dopočítává se při zápisu. */
+    @Column(name = "razeni_klic", length = 1024, nullable = false)
+    private byte[] razeniKlic;
+
     /** Jedna osoba může mít více pojistek (FK typ_pojisteni.pojisteny_id). */
     @OneToMany(mappedBy = "pojisteny", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<TypPojisteni> pojisteni = new ArrayList<>();
@@ -97,9 +102,19 @@ public class Pojisteny {
     public String getPsc() { return psc; }
     public void setPsc(String psc) { this.psc = psc; }
 
+    public byte[] getRazeniKlic() { return razeniKlic; }
+    public void setRazeniKlic(byte[] razeniKlic) { this.razeniKlic = razeniKlic; }
+
     public List<TypPojisteni> getPojisteni() { return pojisteni; }
     public void setPojisteni(List<TypPojisteni> pojisteni) { this.pojisteni = pojisteni; }
 
+    /** Před zápisem přepočítá klíč řazení z aktuálního příjmení/jména. */
+    @PrePersist
+    @PreUpdate
+    public void prepocitejRazeniKlic() {
+        this.razeniKlic = CeskeRazeni.klic(prijmeni, jmeno);
+    }
+
     // Pomocné metody pro oboustrannou vazbu
     public void addPojisteni(TypPojisteni p) {
         pojisteni.add(p);
@@ -39,9 +39,10 @@ public class PojistnaUdalost {
     @Column(nullable = false, length = 1000)
     private String popis;
 
-    // POZOR: v DB je "skoda" (ne "castka")
+    // POZOR: v DB je "skoda" (ne "castka"); v entitě jako Penize (haléře v long), ven BigDecimal kvůli formulářům
+    @Convert(converter = PenizeConverter.class)
     @Column(name = "skoda", nullable = false, precision = 12, scale = 2)
-    private BigDecimal skoda;
+    private Penize skoda;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 16)
@@ -67,8 +68,10 @@ public class PojistnaUdalost {
     public String getPopis() { return popis; }
     public void setPopis(String popis) { this.popis = popis; }
 
-    public BigDecimal getSkoda() { return skoda; }
-    public void setSkoda(BigDecimal skoda) { this.skoda = skoda; }
+    public BigDecimal getSkoda() { return skoda == null ? null : skoda.toBigDecimal(); }
+    public void setSkoda(BigDecimal skoda) { this.skoda = Penize.z(skoda); }
+
+    public Penize getSkodaPenize() { return skoda; }
 
     public StavUdalosti getStav() { return stav; }
     public void setStav(StavUdalosti stav) { this.stav = stav; }
@@ -1,6 +1,7 @@
 package vecera.projekt.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Check;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -18,6 +19,7 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "typ_pojisteni")
+@Check(name = "chk_typ_pojisteni_platnost", constraints = "platnost_od <= platnost_do")
 public class TypPojisteni {
 
     @Id
@@ -58,4 +60,17 @@ public class TypPojisteni {
 
     public LocalDate getPlatnostOd() { return platnostOd; }
     public void setPlatnostOd(LocalDate platnostOd) { this.platnostOd = platnostOd; }
+
+    /**
+     * Platnost je interval od–do včetně; obrácený (od &gt; do) by v souhrnech reportů
+     * ({@code rollup_pojistka_den}) ubíral aktivní pojistky. Služby volají před zápisem,
+     * callback je pojistka pro ostatní cesty (v DB navíc CHECK {@code chk_typ_pojisteni_platnost}).
+     */
+    @PrePersist
+    @PreUpdate
+    public void overPlatnost() {
+        if (platnostOd != null && platnostDo != null && platnostOd.isAfter(platnostDo)) {
+            throw new IllegalArgumentException("Platnost od nesmí být později než platnost do.");
+        }
+    }
 }
@@ -2,6 +2,7 @@ package vecera.projekt.entity;
 
 import jakarta.persistence.*;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -9,7 +10,9 @@ import java.util.Set;
 
  * Bezpečnost:
  * - heslo uloženo jako BCrypt hash (sloupec např. password_hash),
- * - role přes tabulku uzivatel_role (ROLE_USER / ROLE_ADMIN).
+ * - role přes tabulku uzivatel_role (ROLE_USER / ROLE_ADMIN),
+ * - username_norm = username bez okrajových mezer a malými písmeny (unikátní index) –
+ *   přihlášení hledá přes něj přesnou shodou místo {@code lower(username)}.
 
  * Pozn.:
  * - uživatel může být propojen na Pojisteny (např. pohlídání „mých dat“),
@@ -18,7 +21,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "uzivatel", uniqueConstraints = {
-        @UniqueConstraint(name = "uq_uzivatel_username", columnNames = "username")
+        @UniqueConstraint(name = "uq_uzivatel_username", columnNames = "username"),
+        @UniqueConstraint(name = "uq_uzivatel_username_norm", columnNames = "username_norm")
 })
 public class Uzivatel {
 
@@ -29,6 +33,9 @@ public class Uzivatel {
     @Column(nullable = false, unique = true, length = 80)
     private String username;
 
+    @Column(name = "username_norm", nullable = false, unique = true, length = 80)
+    private String usernameNorm;
+
     @Column(name = "password_hash", nullable = false, length = 100)
     private String passwordHash;
 
@@ -50,7 +57,12 @@ public class Uzivatel {
     public void setId(Integer id) { this.id = id; }
 
     public String getUsername() { return username; }
-    public void setUsername(String username) { this.username = username; }
+    public void setUsername(String username) {
+        this.username = username;
+        this.usernameNorm = normalizuj(username);
+    }
+
+    public String getUsernameNorm() { return usernameNorm; }
 
     public String getPasswordHash() { return passwordHash; }
     public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
@@ -64,6 +76,17 @@ public class Uzivatel {
     public Set<String> getRoleNames() { return roleNames; }
     public void setRoleNames(Set<String> roleNames) { this.roleNames = roleNames; }
 
+    /** Normalizovaný tvar jména pro vyhledání (trim + lower-case); {@code null} zůstává {@code null}. */
+    public static String normalizuj(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void synchronizujUsernameNorm() {
+        this.usernameNorm = normalizuj(username);
+    }
+
     // --- convenience/adapters ---
 
     /** Kompatibilní název pro kód, který očekává getPassword() / setPassword(). */
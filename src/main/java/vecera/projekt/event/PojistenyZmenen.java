@@ -0,0 +1,25 @@
+package vecera.projekt.event;
+
+import vecera.projekt.entity.Pojisteny;
+
+/**
+ * Událost „pojištěný byl uložen nebo smazán“.
+ *
+ * @param id         ID pojištěného
+ * @param pojisteny  uložený stav entity; {@code null} znamená, že záznam byl smazán
+ */
+
+public record PojistenyZmenen(int id, Pojisteny pojisteny) {
+
+    public static PojistenyZmenen ulozen(Pojisteny p) {
+        return new PojistenyZmenen(p.getId(), p);
+    }
+
+    public static PojistenyZmenen smazan(int id) {
+        return new PojistenyZmenen(id, null);
+    }
+
+    public boolean smazano() {
+        return pojisteny == null;
+    }
+}
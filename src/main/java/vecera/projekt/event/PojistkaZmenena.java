@@ -0,0 +1,10 @@
+package vecera.projekt.event;
+
+/**
+ * Událost „pojistka (typ pojištění) byla založena, upravena nebo smazána“ –
+ * včetně změn osob v pojistce a kaskádového mazání jejích událostí.
+ *
+ * @param id ID pojistky
+ */
+public record PojistkaZmenena(int id) {
+}
@@ -0,0 +1,12 @@
+package vecera.projekt.event;
+
+import java.util.Set;
+
+/**
+ * Událost „pojistná událost byla uložena nebo smazána“.
+ *
+ * @param id         ID pojistné události
+ * @param pojistenci pojištění, jejichž seznam událostí se změnil (vlastník před zápisem i po něm)
+ */
+public record UdalostZmenena(int id, Set<Integer> pojistenci) {
+}
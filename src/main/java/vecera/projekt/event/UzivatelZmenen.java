@@ -0,0 +1,9 @@
+package vecera.projekt.event;
+
+/**
+ * Událost „uživatelský účet byl založen nebo změněn“ (heslo, role, vazba na pojištěného).
+ *
+ * @param username uživatelské jméno účtu (v libovolné velikosti písmen)
+ */
+public record UzivatelZmenen(String username) {
+}
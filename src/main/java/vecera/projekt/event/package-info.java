@@ -0,0 +1,7 @@
+
+
+/**
+ * Aplikační události (Spring {@code ApplicationEvent} payloady) publikované service vrstvou
+ * po zápisech. Poslouchají je in-memory indexy a cache, aby zůstaly v souladu s DB.
+ */
+package vecera.projekt.event;
@@ -0,0 +1,121 @@
+package vecera.projekt.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BK-strom (Burkhard–Keller) nad řetězci s Levenshteinovou vzdáleností.
+ * <p>
+ * Každé slovo je uzel; potomci jsou zavěšeni podle vzdálenosti k rodiči. Při hledání
+ * do vzdálenosti {@code k} se díky trojúhelníkové nerovnosti procházejí jen potomci
+ * s hranou v intervalu {@code [d - k, d + k]} – pro malé {@code k} zhruba logaritmicky
+ * místo porovnání se všemi slovy.
+ * <p>
+ * Ke slovu se váže množina ID. Odebrání ID uzel nemaže (slouží dál jako rozcestník);
+ * prázdné uzly počítá {@link #getPrazdnych()} a vlastník strom při větším počtu přestaví.
+ * Třída není thread-safe – synchronizaci řeší volající.
+ */
+public class BkStrom {
+
+    private static final class Uzel {
+        final String slovo;
+        final Set<Integer> ids = new HashSet<>();
+        final Map<Integer, Uzel> deti = new HashMap<>();
+
+        Uzel(String slovo) { this.slovo = slovo; }
+    }
+
+    /** Nález: slovo, jeho vzdálenost od dotazu a ID navázaná na slovo. */
+    public record Shoda(String slovo, int vzdalenost, Set<Integer> ids) { }
+
+    private Uzel koren;
+    private final Map<String, Uzel> podleSlova = new HashMap<>();
+    private int prazdnych;
+
+    public void pridej(String slovo, int id) {
+        if (slovo == null || slovo.isEmpty()) return;
+        Uzel existujici = podleSlova.get(slovo);
+        if (existujici != null) {
+            if (existujici.ids.isEmpty()) prazdnych--;
+            existujici.ids.add(id);
+            return;
+        }
+        Uzel novy = new Uzel(slovo);
+        novy.ids.add(id);
+        podleSlova.put(slovo, novy);
+        if (koren == null) {
+            koren = novy;
+            return;
+        }
+        Uzel u = koren;
+        while (true) {
+            int d = levenshtein(slovo, u.slovo);
+            Uzel dite = u.deti.get(d);
+            if (dite == null) {
+                u.deti.put(d, novy);
+                return;
+            }
+            u = dite;
+        }
+    }
+
+    public void odeber(String slovo, int id) {
+        Uzel u = podleSlova.get(slovo);
+        if (u != null && u.ids.remove(id) && u.ids.isEmpty()) prazdnych++;
+    }
+
+    /** Slova do vzdálenosti {@code k} (jen uzly s aspoň jedním ID). */
+    public List<Shoda> hledej(String dotaz, int k) {
+        List<Shoda> out = new ArrayList<>();
+        if (koren == null || dotaz == null || dotaz.isEmpty()) return out;
+
+        Deque<Uzel> fronta = new ArrayDeque<>();
+        fronta.add(koren);
+        while (!fronta.isEmpty()) {
+            Uzel u = fronta.poll();
+            int d = levenshtein(dotaz, u.slovo);
+            if (d <= k && !u.ids.isEmpty()) out.add(new Shoda(u.slovo, d, Set.copyOf(u.ids)));
+            for (int hrana = Math.max(0, d - k); hrana <= d + k; hrana++) {
+                Uzel dite = u.deti.get(hrana);
+                if (dite != null) fronta.add(dite);
+            }
+        }
+        return out;
+    }
+
+    public int getUzlu() {
+        return podleSlova.size();
+    }
+
+    public int getPrazdnych() {
+        return prazdnych;
+    }
+
+    public void vycisti() {
+        koren = null;
+        podleSlova.clear();
+        prazdnych = 0;
+    }
+
+    /** Levenshteinova vzdálenost (DP se dvěma řádky). Pro BK-strom je potřeba přesná hodnota. */
+    static int levenshtein(String a, String b) {
+        int[] pred = new int[b.length() + 1];
+        int[] akt = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) pred[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            akt[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cena = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                akt[j] = Math.min(Math.min(akt[j - 1] + 1, pred[j] + 1), pred[j - 1] + cena);
+            }
+            int[] t = pred; pred = akt; akt = t;
+        }
+        return pred[b.length()];
+    }
+}
@@ -0,0 +1,42 @@
+package vecera.projekt.index;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Předpočítané klíče českého řazení (cs_CZ {@link Collator}) pro osoby.
+ * <p>
+ * Klíč = {@code CollationKey(prijmeni) ‖ 0x00 0x00 ‖ CollationKey(jmeno)} jako pole bajtů.
+ * Dva klíče stačí porovnat bajt po bajtu (unsigned) – výsledek odpovídá řazení
+ * „příjmení → jméno“ českým collatorem, ale bez plné kolace při každém porovnání.
+ * Stejné pořadí umí i DB nad sloupcem {@code VARBINARY} (memcmp).
+ * <p>
+ * Pozn.: {@link Collator} není thread-safe bez zámku, proto má každé vlákno vlastní instanci.
+ */
+public final class CeskeRazeni {
+
+    /** Česká locale (cs_CZ) – sdílí ji i ostatní místa, která formátují nebo řadí česky. */
+    public static final Locale CS = Locale.of("cs", "CZ");
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> Collator.getInstance(CS));
+    private static final byte[] ODDELOVAC = {0, 0};
+
+    /** Porovnání klíčů (unsigned lexikograficky); {@code null} klíč řadí na konec. */
+    public static final Comparator<byte[]> KLICE = Comparator.nullsLast(Arrays::compareUnsigned);
+
+    private CeskeRazeni() { }
+
+    /** Klíč pro řazení dle příjmení a jména (null → ""). */
+    public static byte[] klic(String prijmeni, String jmeno) {
+        Collator c = COLLATOR.get();
+        byte[] p = c.getCollationKey(prijmeni == null ? "" : prijmeni).toByteArray();
+        byte[] j = c.getCollationKey(jmeno == null ? "" : jmeno).toByteArray();
+
+        byte[] out = new byte[p.length + ODDELOVAC.length + j.length];
+        System.arraycopy(p, 0, out, 0, p.length);
+        System.arraycopy(ODDELOVAC, 0, out, p.length, ODDELOVAC.length);
+        System.arraycopy(j, 0, out, p.length + ODDELOVAC.length, j.length);
+        return out;
+    }
+}
@@ -0,0 +1,262 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.event.PojistkaZmenena;
+import vecera.projekt.event.UdalostZmenena;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index členství v pojistkách a vlastníků událostí pro kontroly práv ({@code @sec} v {@code @PreAuthorize}).
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Osoba → seřazené pole ID pojistek, kde je v libovolné roli ({@code pojistka_osoba});
+ *       „je členem?“ = binární hledání, bez SQL.</li>
+ *   <li>Událost → vlastník (ID pojištěného) a pojistka jako primitivní pole {@code int[]} indexovaná
+ *       ID události (0 = neexistuje).</li>
+ *   <li>Po commitu zápisu se dotčená část načte znovu z DB: {@link PojistkaZmenena} (členové pojistky,
+ *       u smazané pojistky i její události), {@link UdalostZmenena} (vlastník události),
+ *       {@link PojistenyZmenen} (smazání osoby maže kaskádou její členství i události).</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Osoba mívá jednotky pojistek – seřazené {@code int[]} je pro takto řídké množiny kompaktnější
+ *       než bitmapa přes celý rozsah ID.</li>
+ *   <li>Čtení běží pod read lockem souběžně; zápisy (vzácné) pod write lockem, dotazy do DB posluchačů
+ *       mimo zámek. Jen stavba čte DB pod zámkem, aby ji souběžná změna nepředběhla.</li>
+ *   <li>Dokud index není postavený ({@link #isPripraven()}), volající má použít cestu přes DB.</li>
+ * </ul>
+ */
+@Component
+public class ClenstviPojistek {
+
+    private static final Logger log = LoggerFactory.getLogger(ClenstviPojistek.class);
+
+    private static final int[] ZADNE = new int[0];
+
+    private final JdbcTemplate jdbc;
+    private final ReentrantReadWriteLock zamek = new ReentrantReadWriteLock();
+
+    private final Map<Integer, int[]> pojistkyOsoby = new HashMap<>();
+    private final Map<Integer, int[]> clenovePojistky = new HashMap<>();
+    private int[] vlastnikUdalosti = ZADNE;
+    private int[] pojistkaUdalosti = ZADNE;
+    private volatile boolean pripraven;
+
+    public ClenstviPojistek(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // ===== build / sync ======================================================
+
+    /**
+     * Postaví index z DB. Čtení běží už pod write lockem: změna commitnutá během stavby počká
+     * na zámek a aplikuje se po ní – jinak by ji starší snímek přepsal (např. vrátil odebrané
+     * členství a s ním i přístup).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void postav() {
+        zamek.writeLock().lock();
+        try {
+            Map<Integer, List<Integer>> clenove = new HashMap<>();
+            jdbc.query("SELECT DISTINCT pojistka_id, osoba_id FROM pojistka_osoba", (RowCallbackHandler) rs ->
+                    clenove.computeIfAbsent(rs.getInt(1), k -> new ArrayList<>()).add(rs.getInt(2)));
+
+            int maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM pojistna_udalost", Integer.class);
+            int[] vlastnik = new int[maxId + 1];
+            int[] pojistka = new int[maxId + 1];
+            jdbc.query("SELECT id, pojisteny_id, typ_pojisteni_id FROM pojistna_udalost", (RowCallbackHandler) rs -> {
+                int id = rs.getInt(1);
+                if (id >= vlastnik.length) return; // založená během načítání – dorazí událostí
+                vlastnik[id] = rs.getInt(2);
+                pojistka[id] = rs.getInt(3); // NULL → 0
+            });
+
+            pojistkyOsoby.clear();
+            clenovePojistky.clear();
+            clenove.forEach((pojistkaId, osoby) -> nastavCleny(pojistkaId, serad(osoby)));
+            vlastnikUdalosti = vlastnik;
+            pojistkaUdalosti = pojistka;
+            pripraven = true;
+            log.info("Index členství postaven: {} osob v {} pojistkách, {} slotů událostí",
+                    pojistkyOsoby.size(), clenovePojistky.size(), vlastnik.length);
+        } finally {
+            zamek.writeLock().unlock();
+        }
+    }
+
+    /** Změna pojistky / jejích osob; u smazané pojistky i její události (maže je service, jinak SET NULL). */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistkaZmenena e) {
+        int[] clenove = serad(jdbc.queryForList(
+                "SELECT DISTINCT osoba_id FROM pojistka_osoba WHERE pojistka_id = ?", Integer.class, e.id()));
+        boolean existuje = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM typ_pojisteni WHERE id = ?", Integer.class, e.id()) > 0;
+
+        List<Integer> udalosti = existuje ? List.of() : udalostiPojistky(e.id());
+        Map<Integer, Integer> vlastnici = udalosti.isEmpty() ? Map.of() : nactiVlastniky(udalosti);
+
+        zamek.writeLock().lock();
+        try {
+            nastavCleny(e.id(), clenove);
+            for (int id : udalosti) {
+                if (id >= vlastnikUdalosti.length || pojistkaUdalosti[id] != e.id()) continue;
+                vlastnikUdalosti[id] = vlastnici.getOrDefault(id, 0);
+                pojistkaUdalosti[id] = 0;
+            }
+        } finally {
+            zamek.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(UdalostZmenena e) {
+        List<int[]> radek = jdbc.query("SELECT pojisteny_id, typ_pojisteni_id FROM pojistna_udalost WHERE id = ?",
+                (rs, i) -> new int[]{rs.getInt(1), rs.getInt(2)}, e.id());
+        zamek.writeLock().lock();
+        try {
+            zajistiKapacitu(e.id());
+            vlastnikUdalosti[e.id()] = radek.isEmpty() ? 0 : radek.get(0)[0];
+            pojistkaUdalosti[e.id()] = radek.isEmpty() ? 0 : radek.get(0)[1];
+        } finally {
+            zamek.writeLock().unlock();
+        }
+    }
+
+    /** Smazání osoby maže kaskádou její členství i události. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistenyZmenen e) {
+        if (!e.smazano()) return;
+        zamek.writeLock().lock();
+        try {
+            for (int pojistkaId : pojistkyOsoby.getOrDefault(e.id(), ZADNE)) {
+                nastavCleny(pojistkaId, bez(clenovePojistky.getOrDefault(pojistkaId, ZADNE), e.id()));
+            }
+            for (int i = 0; i < vlastnikUdalosti.length; i++) {
+                if (vlastnikUdalosti[i] == e.id()) {
+                    vlastnikUdalosti[i] = 0;
+                    pojistkaUdalosti[i] = 0;
+                }
+            }
+        } finally {
+            zamek.writeLock().unlock();
+        }
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== dotaz =============================================================
+
+    /** Zda je osoba u pojistky evidována (libovolná role). */
+    public boolean jeClenem(int pojistkaId, int osobaId) {
+        zamek.readLock().lock();
+        try {
+            return Arrays.binarySearch(pojistkyOsoby.getOrDefault(osobaId, ZADNE), pojistkaId) >= 0;
+        } finally {
+            zamek.readLock().unlock();
+        }
+    }
+
+    /** ID pojištěného, kterému událost patří; {@code null}, pokud událost neexistuje. */
+    public Integer vlastnikUdalosti(int udalostId) {
+        zamek.readLock().lock();
+        try {
+            if (udalostId <= 0 || udalostId >= vlastnikUdalosti.length) return null;
+            int v = vlastnikUdalosti[udalostId];
+            return v == 0 ? null : v;
+        } finally {
+            zamek.readLock().unlock();
+        }
+    }
+
+    // ===== interní údržba (volat pod write lockem) ===========================
+
+    /** Nastaví členy pojistky a promítne rozdíl do polí jednotlivých osob. */
+    private void nastavCleny(int pojistkaId, int[] clenove) {
+        int[] puvodni = clenovePojistky.getOrDefault(pojistkaId, ZADNE);
+        for (int osobaId : puvodni) {
+            if (Arrays.binarySearch(clenove, osobaId) < 0) {
+                int[] zbytek = bez(pojistkyOsoby.getOrDefault(osobaId, ZADNE), pojistkaId);
+                if (zbytek.length == 0) pojistkyOsoby.remove(osobaId); else pojistkyOsoby.put(osobaId, zbytek);
+            }
+        }
+        for (int osobaId : clenove) {
+            if (Arrays.binarySearch(puvodni, osobaId) < 0) {
+                pojistkyOsoby.put(osobaId, s(pojistkyOsoby.getOrDefault(osobaId, ZADNE), pojistkaId));
+            }
+        }
+        if (clenove.length == 0) clenovePojistky.remove(pojistkaId); else clenovePojistky.put(pojistkaId, clenove);
+    }
+
+    private void zajistiKapacitu(int id) {
+        if (id < vlastnikUdalosti.length) return;
+        int n = Math.max(id + 1, vlastnikUdalosti.length + (vlastnikUdalosti.length >> 1) + 16);
+        vlastnikUdalosti = Arrays.copyOf(vlastnikUdalosti, n);
+        pojistkaUdalosti = Arrays.copyOf(pojistkaUdalosti, n);
+    }
+
+    // ===== helpers ===========================================================
+
+    private List<Integer> udalostiPojistky(int pojistkaId) {
+        zamek.readLock().lock();
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < pojistkaUdalosti.length; i++) {
+                if (pojistkaUdalosti[i] == pojistkaId) ids.add(i);
+            }
+            return ids;
+        } finally {
+            zamek.readLock().unlock();
+        }
+    }
+
+    /** Vlastníci událostí, které v DB ještě existují (smazané v mapě chybí). */
+    private Map<Integer, Integer> nactiVlastniky(List<Integer> ids) {
+        String otazniky = String.join(",", Collections.nCopies(ids.size(), "?"));
+        Map<Integer, Integer> out = new HashMap<>();
+        jdbc.query("SELECT id, pojisteny_id FROM pojistna_udalost WHERE id IN (" + otazniky + ")",
+                (RowCallbackHandler) rs -> out.put(rs.getInt(1), rs.getInt(2)), ids.toArray());
+        return out;
+    }
+
+    private static int[] serad(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+    }
+
+    private static int[] s(int[] a, int v) {
+        int i = Arrays.binarySearch(a, v);
+        if (i >= 0) return a;
+        i = -i - 1;
+        int[] out = new int[a.length + 1];
+        System.arraycopy(a, 0, out, 0, i);
+        out[i] = v;
+        System.arraycopy(a, i, out, i + 1, a.length - i);
+        return out;
+    }
+
+    private static int[] bez(int[] a, int v) {
+        int i = Arrays.binarySearch(a, v);
+        if (i < 0) return a;
+        int[] out = new int[a.length - 1];
+        System.arraycopy(a, 0, out, 0, i);
+        System.arraycopy(a, i + 1, out, i, a.length - i - 1);
+        return out;
+    }
+}
@@ -0,0 +1,91 @@
+package vecera.projekt.index;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch nad řetězci – přibližné četnosti v pevné paměti ({@code hloubka × sirka} čítačů).
+ * <p>
+ * Odhad nikdy nepodhodnocuje; s pravděpodobností aspoň {@code 1 - delta} nadhodnotí nejvýše
+ * o {@code epsilon · N} (N = součet všech četností). Z toho {@code sirka = ⌈e / epsilon⌉}
+ * a {@code hloubka = ⌈ln(1 / delta)⌉}.
+ * <p>
+ * Podporuje i odečítání (model „strict turnstile“ – četnost prvku nikdy neklesne pod nulu),
+ * proto bez „conservative update“, který by odečítání rozbil.
+ * Třída není thread-safe – synchronizaci řeší volající.
+ */
+public class CountMinSketch {
+
+    private final int sirka;
+    private final int hloubka;
+    private final long[][] citace;
+    private final long[] semena;
+    private long celkem;
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon a delta musí být v (0, 1): " + epsilon + ", " + delta);
+        }
+        this.sirka = (int) Math.ceil(Math.E / epsilon);
+        this.hloubka = (int) Math.ceil(Math.log(1 / delta));
+        this.citace = new long[hloubka][sirka];
+        this.semena = new long[hloubka];
+        long s = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < hloubka; i++) {
+            s = smichej(s + i);
+            semena[i] = s;
+        }
+    }
+
+    /** Přičte {@code o} (může být záporné) k četnosti {@code klic}. */
+    public void pricti(String klic, long o) {
+        long h = hash(klic);
+        for (int i = 0; i < hloubka; i++) citace[i][sloupec(h, i)] += o;
+        celkem += o;
+    }
+
+    /** Odhad četnosti (horní mez). */
+    public long odhad(String klic) {
+        long h = hash(klic);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < hloubka; i++) min = Math.min(min, citace[i][sloupec(h, i)]);
+        return Math.max(0, min);
+    }
+
+    public void vycisti() {
+        for (long[] radek : citace) Arrays.fill(radek, 0);
+        celkem = 0;
+    }
+
+    public long getCelkem() {
+        return celkem;
+    }
+
+    public int getSirka() {
+        return sirka;
+    }
+
+    public int getHloubka() {
+        return hloubka;
+    }
+
+    private int sloupec(long h, int radek) {
+        return (int) Long.remainderUnsigned(smichej(h ^ semena[radek]), sirka);
+    }
+
+    /** 64bit FNV-1a přes znaky. */
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Finalizér SplitMix64 – rozprostře bity, aby řádky sketche byly (téměř) nezávislé. */
+    private static long smichej(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,116 @@
+package vecera.projekt.index;
+
+import vecera.projekt.entity.Penize;
+
+import java.util.List;
+
+/**
+ * Slučitelný sketch rozložení částek (škod) – kvantily s relativní chybou a pevný histogram pásem.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Logaritmické koše jako DDSketch: částka {@code x} haléřů padne do koše {@code ⌈log_γ x⌉},
+ *       {@code γ = (1 + α) / (1 - α)}; vrácený kvantil se od skutečné hodnoty liší nejvýše o {@code α}
+ *       (relativně). Paměť je pevná ({@value #KOSU} čítačů), nezávislá na počtu škod.</li>
+ *   <li>Přesné počty v pásmech {@link #HRANICE} (histogram pro dashboard a export).</li>
+ *   <li>Přidání i odebrání hodnoty (úprava / smazání události) je O(1); dva sketche se stejnou
+ *       přesností jde sloučit sečtením košů ({@link #pricti(HistogramSkod)}).</li>
+ * </ul>
+ * Pozn.: Na rozdíl od t-digestu umí odebírat – proto je vhodný pro průběžnou údržbu při zápisech.
+ * Třída není thread-safe – synchronizaci řeší volající.
+ */
+public class HistogramSkod {
+
+    /** Dolní hranice pásem histogramu v haléřích (0, 10 tis., 50 tis., 100 tis., 500 tis., 1 mil. Kč). */
+    public static final long[] HRANICE = {0L, 1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L, 100_000_000L};
+
+    /** Popisky pásem {@link #HRANICE} (stejné pořadí). */
+    public static final List<String> POPISKY =
+            List.of("do 10 tis.", "10–50 tis.", "50–100 tis.", "100–500 tis.", "0,5–1 mil.", "nad 1 mil.");
+
+    /** Počet logaritmických košů – pokryje celý rozsah {@code long} i pro α = 0,5 %. */
+    static final int KOSU = 4400;
+
+    private final double alfa;
+    private final double gamma;
+    private final double logGamma;
+    private final long[] kose;
+    private final long[] pasma = new long[HRANICE.length];
+    private long nul;
+    private long pocet;
+
+    /** @param alfa relativní přesnost kvantilů (např. {@code 0.01} = 1 %), v intervalu [0,005; 0,5) */
+    public HistogramSkod(double alfa) {
+        if (alfa < 0.005 || alfa >= 0.5) throw new IllegalArgumentException("Přesnost mimo [0.005, 0.5): " + alfa);
+        this.alfa = alfa;
+        this.gamma = (1 + alfa) / (1 - alfa);
+        this.logGamma = Math.log(gamma);
+        this.kose = new long[KOSU];
+    }
+
+    /** Přidá ({@code o = 1}) nebo odebere ({@code o = -1}) částku v haléřích. Záporné částky bere jako 0. */
+    public void pridej(long haleru, int o) {
+        if (haleru <= 0) {
+            nul += o;
+        } else {
+            kose[kos(haleru)] += o;
+        }
+        pasma[pasmo(haleru)] += o;
+        pocet += o;
+    }
+
+    /** Sloučení – přičte koše a pásma jiného sketche se stejnou přesností. */
+    public void pricti(HistogramSkod jiny) {
+        if (jiny.alfa != alfa) throw new IllegalArgumentException("Sketche s různou přesností nelze sloučit");
+        for (int i = 0; i < KOSU; i++) kose[i] += jiny.kose[i];
+        for (int i = 0; i < pasma.length; i++) pasma[i] += jiny.pasma[i];
+        nul += jiny.nul;
+        pocet += jiny.pocet;
+    }
+
+    public HistogramSkod kopie() {
+        HistogramSkod k = new HistogramSkod(alfa);
+        k.pricti(this);
+        return k;
+    }
+
+    public long getPocet() {
+        return pocet;
+    }
+
+    /** Kvantil {@code q} ∈ [0, 1] (např. 0.9 = p90); prázdný sketch → {@link Penize#NULA}. */
+    public Penize kvantil(double q) {
+        if (pocet <= 0) return Penize.NULA;
+        long poradi = (long) Math.floor(Math.max(0, Math.min(1, q)) * (pocet - 1));
+        if (poradi < nul) return Penize.NULA;
+        long kumulativne = nul;
+        for (int i = 0; i < KOSU; i++) {
+            kumulativne += kose[i];
+            if (kumulativne > poradi) return Penize.zHaleru(hodnota(i));
+        }
+        return Penize.zHaleru(hodnota(KOSU - 1));
+    }
+
+    /** Počty v pásmech {@link #HRANICE} (kopie). */
+    public long[] pasma() {
+        return pasma.clone();
+    }
+
+    // ===== helpers ===========================================================
+
+    private int kos(long haleru) {
+        int k = (int) Math.ceil(Math.log(haleru) / logGamma);
+        return Math.min(Math.max(k, 0), KOSU - 1);
+    }
+
+    /** Reprezentant koše – střed intervalu (γ^(k-1), γ^k] v relativní míře. */
+    private long hodnota(int kos) {
+        return Math.round(2 * Math.pow(gamma, kos) / (gamma + 1));
+    }
+
+    private static int pasmo(long haleru) {
+        int i = HRANICE.length - 1;
+        while (i > 0 && haleru < HRANICE[i]) i--;
+        return i;
+    }
+}
@@ -0,0 +1,283 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.event.PojistkaZmenena;
+import vecera.projekt.records.LabelValueDto;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index platnosti pojistek – „aktivní k datu“, „expirované k datu“ a „expirují v intervalu“ pro libovolné datum.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Drží seřazená pole začátků ({@code platnost_od}) a konců ({@code platnost_do}, spolu s ID pojistky)
+ *       jako epoch day – celkem i zvlášť pro každý název pojistky.</li>
+ *   <li>Aktivní k datu D = #(od ≤ D) − #(do &lt; D), expirované = #(do &lt; D) – dvě binární hledání, O(log n);
+ *       po názvech O(T · log n) pro T názvů. Expirující v [D1, D2] = souvislý úsek pole konců.</li>
+ *   <li>Copy-on-write: čtenáři pracují s neměnným snímkem bez zámku; zápis (po commitu – události
+ *       {@link PojistkaZmenena}, {@link PojistenyZmenen}) vyrobí nová pole vložením / vyjmutím hodnoty
+ *       ({@code System.arraycopy}, O(n)) a snímek atomicky vymění.</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Dokud index není postavený ({@link #isPripraven()}), volající má použít cestu přes DB.</li>
+ *   <li>Pojistka s obrácenou platností (od &gt; do) se do indexu nevkládá – nikdy není aktivní a její
+ *       konec před začátkem by počet aktivních stáhl pod nulu. Zápisy ji odmítají a DB má CHECK
+ *       {@code chk_typ_pojisteni_platnost}; tohle je pojistka pro starší schéma bez něj.</li>
+ * </ul>
+ */
+@Component
+public class PlatnostPojistek {
+
+    private static final Logger log = LoggerFactory.getLogger(PlatnostPojistek.class);
+
+    private static final String SQL_POJISTKY =
+            "SELECT t.id, t.pojisteny_id, t.nazev, t.platnost_od, t.platnost_do FROM typ_pojisteni t";
+
+    private final JdbcTemplate jdbc;
+
+    /** Platnost jedné pojistky (dny jako epoch day). */
+    private record Pojistka(int id, int pojistenyId, String nazev, int od, int doVcetne) {
+
+        static Pojistka z(ResultSet rs) throws SQLException {
+            return new Pojistka(rs.getInt(1), rs.getInt(2), rs.getString(3).trim(),
+                    (int) rs.getObject(4, LocalDate.class).toEpochDay(),
+                    (int) rs.getObject(5, LocalDate.class).toEpochDay());
+        }
+
+        long konec() {
+            return klic(doVcetne, id);
+        }
+
+        boolean obracena() {
+            return od > doVcetne;
+        }
+    }
+
+    /** Seřazené začátky a konce (konec = {@code do << 32 | id}, řadí se podle data a pak ID). */
+    private record Pole(int[] starty, long[] konce) {
+
+        static final Pole PRAZDNE = new Pole(new int[0], new long[0]);
+
+        Pole s(Pojistka p) {
+            return new Pole(vloz(starty, p.od()), vloz(konce, p.konec()));
+        }
+
+        Pole bez(Pojistka p) {
+            return new Pole(vyjmi(starty, p.od()), vyjmi(konce, p.konec()));
+        }
+
+        long aktivni(int den) {
+            return horniMez(starty, den) - dolniMez(konce, klic(den, 0));
+        }
+
+        long expirovane(int den) {
+            return dolniMez(konce, klic(den, 0));
+        }
+    }
+
+    /** Neměnný snímek indexu. */
+    private record Snimek(Pole vse, Map<String, Pole> podleNazvu) { }
+
+    private final Map<Integer, Pojistka> pojistky = new HashMap<>();
+    private volatile Snimek snimek = new Snimek(Pole.PRAZDNE, Map.of());
+    private volatile boolean pripraven;
+
+    public PlatnostPojistek(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // ===== build / sync ======================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void postav() {
+        pojistky.clear();
+        int[] obracenych = {0};
+        jdbc.query(SQL_POJISTKY, (RowCallbackHandler) rs -> {
+            Pojistka p = Pojistka.z(rs);
+            if (p.obracena()) obracenych[0]++;
+            else pojistky.put(p.id(), p);
+        });
+        if (obracenych[0] > 0) log.warn("Index platnosti vynechal {} pojistek s platností od > do", obracenych[0]);
+
+        Map<String, List<Pojistka>> skupiny = new HashMap<>();
+        for (Pojistka p : pojistky.values()) skupiny.computeIfAbsent(p.nazev(), k -> new ArrayList<>()).add(p);
+        Map<String, Pole> podleNazvu = new HashMap<>();
+        skupiny.forEach((nazev, seznam) -> podleNazvu.put(nazev, serad(seznam)));
+        snimek = new Snimek(serad(pojistky.values()), podleNazvu);
+        pripraven = true;
+        log.info("Index platnosti pojistek postaven: {} pojistek, {} názvů", pojistky.size(), podleNazvu.size());
+    }
+
+    /** Po commitu změny pojistky ji znovu načte z DB (chybí = smazaná). */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistkaZmenena e) {
+        List<Pojistka> nactena = jdbc.query(SQL_POJISTKY + " WHERE t.id = ?", (rs, i) -> Pojistka.z(rs), e.id());
+        synchronized (this) {
+            odeber(e.id());
+            if (!nactena.isEmpty() && !nactena.get(0).obracena()) pridej(nactena.get(0));
+        }
+    }
+
+    /** Smazání osoby maže kaskádou i její pojistky. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void naZmenu(PojistenyZmenen e) {
+        if (!e.smazano()) return;
+        List<Integer> jejich = pojistky.values().stream()
+                .filter(p -> p.pojistenyId() == e.id()).map(Pojistka::id).toList();
+        jejich.forEach(this::odeber);
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== dotaz =============================================================
+
+    /** Počet pojistek aktivních k datu ({@code od ≤ datum ≤ do}). */
+    public long aktivni(LocalDate datum) {
+        return snimek.vse().aktivni((int) datum.toEpochDay());
+    }
+
+    /** Počet pojistek, jejichž platnost skončila před datem. */
+    public long expirovane(LocalDate datum) {
+        return snimek.vse().expirovane((int) datum.toEpochDay());
+    }
+
+    /** Aktivní pojistky k datu podle názvu (jen nenulové, nejvíc první). */
+    public List<LabelValueDto> aktivniPodleNazvu(LocalDate datum) {
+        int den = (int) datum.toEpochDay();
+        List<LabelValueDto> out = new ArrayList<>();
+        snimek.podleNazvu().forEach((nazev, pole) -> {
+            long n = pole.aktivni(den);
+            if (n > 0) out.add(new LabelValueDto(nazev, n));
+        });
+        out.sort(Comparator.comparingLong(LabelValueDto::value).reversed().thenComparing(LabelValueDto::label));
+        return out;
+    }
+
+    /** ID pojistek s koncem platnosti v {@code [od, doVcetne]}, seřazená podle data konce. */
+    public List<Integer> expirujici(LocalDate od, LocalDate doVcetne) {
+        long[] konce = snimek.vse().konce();
+        int z = dolniMez(konce, klic((int) od.toEpochDay(), 0));
+        int po = dolniMez(konce, klic((int) doVcetne.toEpochDay() + 1, 0));
+        List<Integer> ids = new ArrayList<>(Math.max(0, po - z));
+        for (int i = z; i < po; i++) ids.add((int) konce[i]);
+        return ids;
+    }
+
+    // ===== interní údržba (volat pod zámkem) =================================
+
+    private void pridej(Pojistka p) {
+        pojistky.put(p.id(), p);
+        Snimek s = snimek;
+        Map<String, Pole> podleNazvu = new HashMap<>(s.podleNazvu());
+        podleNazvu.put(p.nazev(), podleNazvu.getOrDefault(p.nazev(), Pole.PRAZDNE).s(p));
+        snimek = new Snimek(s.vse().s(p), podleNazvu);
+    }
+
+    private void odeber(int id) {
+        Pojistka p = pojistky.remove(id);
+        if (p == null) return;
+        Snimek s = snimek;
+        Map<String, Pole> podleNazvu = new HashMap<>(s.podleNazvu());
+        Pole zbytek = podleNazvu.get(p.nazev()).bez(p);
+        if (zbytek.starty().length == 0) podleNazvu.remove(p.nazev());
+        else podleNazvu.put(p.nazev(), zbytek);
+        snimek = new Snimek(s.vse().bez(p), podleNazvu);
+    }
+
+    private static Pole serad(Iterable<Pojistka> seznam) {
+        List<Pojistka> l = new ArrayList<>();
+        seznam.forEach(l::add);
+        int[] starty = new int[l.size()];
+        long[] konce = new long[l.size()];
+        for (int i = 0; i < l.size(); i++) {
+            starty[i] = l.get(i).od();
+            konce[i] = l.get(i).konec();
+        }
+        Arrays.sort(starty);
+        Arrays.sort(konce);
+        return new Pole(starty, konce);
+    }
+
+    // ===== helpers ===========================================================
+
+    /** Klíč konce: den v horních 32 bitech (se znaménkem), ID v dolních – řadí podle dne, pak ID. */
+    private static long klic(int den, int id) {
+        return ((long) den << 32) | (id & 0xFFFF_FFFFL);
+    }
+
+    /** Počet prvků {@code ≤ hodnota}. */
+    private static int horniMez(int[] a, int hodnota) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= hodnota) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Počet prvků {@code < hodnota}. */
+    private static int dolniMez(long[] a, long hodnota) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < hodnota) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int[] vloz(int[] a, int v) {
+        int i = horniMez(a, v);
+        int[] out = new int[a.length + 1];
+        System.arraycopy(a, 0, out, 0, i);
+        out[i] = v;
+        System.arraycopy(a, i, out, i + 1, a.length - i);
+        return out;
+    }
+
+    private static long[] vloz(long[] a, long v) {
+        int i = dolniMez(a, v);
+        long[] out = new long[a.length + 1];
+        System.arraycopy(a, 0, out, 0, i);
+        out[i] = v;
+        System.arraycopy(a, i, out, i + 1, a.length - i);
+        return out;
+    }
+
+    private static int[] vyjmi(int[] a, int v) {
+        int i = horniMez(a, v) - 1; // libovolný výskyt stejné hodnoty – jsou zaměnitelné
+        if (i < 0 || a[i] != v) return a;
+        int[] out = new int[a.length - 1];
+        System.arraycopy(a, 0, out, 0, i);
+        System.arraycopy(a, i + 1, out, i, a.length - i - 1);
+        return out;
+    }
+
+    private static long[] vyjmi(long[] a, long v) {
+        int i = dolniMez(a, v);
+        if (i >= a.length || a[i] != v) return a;
+        long[] out = new long[a.length - 1];
+        System.arraycopy(a, 0, out, 0, i);
+        System.arraycopy(a, i + 1, out, i, a.length - i - 1);
+        return out;
+    }
+}
@@ -0,0 +1,158 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.repository.PojistenyRepo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Přibližné (fuzzy) hledání pojištěných podle příjmení – bez diakritiky a s překlepy.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Drží {@link BkStrom} nad složenými příjmeními ({@link Texty#slozit}), takže „novak“
+ *       najde „Novák“ (vzdálenost 0) a „nvak“ / „novk“ také (vzdálenost 1).</li>
+ *   <li>Výsledky řadí podle vzdálenosti, pak česky (příjmení → jméno, {@link CeskeRazeni}) a podle ID.</li>
+ *   <li>Po commitu zápisu (událost {@link PojistenyZmenen}) osobu přeindexuje; když v BK-stromu
+ *       přibude moc prázdných uzlů po mazání, strom se přestaví.</li>
+ * </ul>
+ * <p>
+ * Pozn.: Souběh řeší {@link ReentrantReadWriteLock} jako u ostatních indexů – dotazy běží paralelně
+ * pod read lockem, stavba a změny pod write lockem.
+ */
+@Component
+public class PojistenyFuzzyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PojistenyFuzzyIndex.class);
+
+    /** Maximální povolená vzdálenost (vyšší už vrací spíš šum a prochází velkou část stromu). */
+    public static final int MAX_VZDALENOST = 2;
+
+    private final PojistenyRepo pojistenyRepo;
+
+    private final BkStrom strom = new BkStrom();
+    private final Map<Integer, Osoba> osoby = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean pripraven;
+
+    public PojistenyFuzzyIndex(PojistenyRepo pojistenyRepo) {
+        this.pojistenyRepo = pojistenyRepo;
+    }
+
+    /** Složená slova příjmení + klíč českého řazení (předpočítaný v entitě, viz {@link Pojisteny#getRazeniKlic}). */
+    private record Osoba(int id, List<String> slova, byte[] klic) {
+
+        static Osoba z(Pojisteny p) {
+            List<String> slova = new ArrayList<>();
+            for (String s : Texty.slozit(p.getPrijmeni()).split("[\\s\\-]+")) {
+                if (!s.isEmpty()) slova.add(s);
+            }
+            byte[] klic = p.getRazeniKlic() != null ? p.getRazeniKlic() : CeskeRazeni.klic(p.getPrijmeni(), p.getJmeno());
+            return new Osoba(p.getId(), slova, klic);
+        }
+    }
+
+    private record Nalez(Osoba osoba, int vzdalenost) { }
+
+    private static final Comparator<Nalez> PORADI = Comparator.comparingInt(Nalez::vzdalenost)
+            .thenComparing(n -> n.osoba().klic(), CeskeRazeni.KLICE)
+            .thenComparingInt(n -> n.osoba().id());
+
+    // ===== build / sync ======================================================
+
+    /** Načte osoby už pod write lockem – změna commitnutá během stavby se aplikuje až po ní. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void postav() {
+        lock.writeLock().lock();
+        try {
+            osoby.clear();
+            for (Pojisteny p : pojistenyRepo.findAll()) {
+                if (p.getId() != null) osoby.put(p.getId(), Osoba.z(p));
+            }
+            prestavStrom();
+            pripraven = true;
+            log.info("BK-strom příjmení postaven: {} osob, {} slov", osoby.size(), strom.getUzlu());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE) // před zneplatněním CacheHledani
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistenyZmenen e) {
+        lock.writeLock().lock();
+        try {
+            Osoba stara = osoby.remove(e.id());
+            if (stara != null) {
+                for (String s : stara.slova()) strom.odeber(s, stara.id());
+            }
+            if (!e.smazano()) {
+                Osoba nova = Osoba.z(e.pojisteny());
+                osoby.put(nova.id(), nova);
+                for (String s : nova.slova()) strom.pridej(s, nova.id());
+            }
+            // mazání nechává prázdné uzly – když jich je většina, vyplatí se strom postavit znovu
+            if (strom.getPrazdnych() > 64 && strom.getPrazdnych() * 2 > strom.getUzlu()) prestavStrom();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== dotaz =============================================================
+
+    /**
+     * ID pojištěných, jejichž (některé) příjmení je od slova dotazu vzdálené nejvýše {@code maxVzdalenost}.
+     * Víceslovný dotaz hledá každé slovo zvlášť a u osoby bere nejlepší shodu.
+     *
+     * @param maxVzdalenost {@code null} = podle délky slova (do 4 znaků 1, jinak 2); omezeno na 0–{@value #MAX_VZDALENOST}
+     */
+    public List<Integer> hledej(String q, Integer maxVzdalenost) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Nalez> nejlepsi = new HashMap<>();
+            for (String slovo : Texty.slozit(q).split("[\\s\\-]+")) {
+                if (slovo.isEmpty()) continue;
+                int k = maxVzdalenost != null ? maxVzdalenost : (slovo.length() <= 4 ? 1 : 2);
+                k = Math.max(0, Math.min(k, MAX_VZDALENOST));
+
+                for (BkStrom.Shoda s : strom.hledej(slovo, k)) {
+                    for (Integer id : s.ids()) {
+                        Osoba o = osoby.get(id);
+                        if (o == null) continue;
+                        nejlepsi.merge(id, new Nalez(o, s.vzdalenost()),
+                                (a, b) -> a.vzdalenost() <= b.vzdalenost() ? a : b);
+                    }
+                }
+            }
+            return nejlepsi.values().stream().sorted(PORADI).map(n -> n.osoba().id()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Volat pod write lockem. */
+    private void prestavStrom() {
+        strom.vycisti();
+        for (Osoba o : osoby.values()) {
+            for (String s : o.slova()) strom.pridej(s, o.id());
+        }
+    }
+}
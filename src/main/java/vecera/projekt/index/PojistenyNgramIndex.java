@@ -0,0 +1,258 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.repository.PojistenyRepo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Rezidentní trigramový (n-gram) invertovaný index nad pojištěnými.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Při startu načte všechny pojištěné a rozloží jméno, příjmení a město na trigramy,
+ *       telefon (jen číslice) zvlášť na číselné trigramy.</li>
+ *   <li>Hledání „obsahuje“ zúží kandidáty průnikem posting listů a kandidáty ověří
+ *       stejnou sémantikou jako původní filtr v {@code SpravcePojistenych} – bez dotazu do DB.</li>
+ *   <li>Po commitu zápisu (událost {@link PojistenyZmenen}) záznam přeindexuje / odebere.</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Výsledek je seřazený česky (příjmení → jméno → ID) podle klíčů z {@link CeskeRazeni},
+ *       předpočítaných při indexaci – řazení je jen porovnání bajtů.</li>
+ *   <li>Dotaz kratší než {@value #N} znaky trigramy zúžit neumí – projde se jen paměťová mapa záznamů.</li>
+ *   <li>Dokud index není postavený ({@link #isPripraven()}), volající má použít cestu přes DB.</li>
+ * </ul>
+ */
+@Component
+public class PojistenyNgramIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PojistenyNgramIndex.class);
+
+    /** Délka n-gramu. */
+    static final int N = 3;
+
+    private final PojistenyRepo pojistenyRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Zaznam> zaznamy = new HashMap<>();
+    private final Map<String, Set<Integer>> textoveGramy = new HashMap<>();
+    private final Map<String, Set<Integer>> telefonniGramy = new HashMap<>();
+    private volatile boolean pripraven;
+
+    public PojistenyNgramIndex(PojistenyRepo pojistenyRepo) {
+        this.pojistenyRepo = pojistenyRepo;
+    }
+
+    /** Indexovaná (normalizovaná) podoba pojištěného. */
+    private record Zaznam(int id, String jmeno, String prijmeni, String mesto, String telefon, byte[] klic) {
+
+        static Zaznam z(Pojisteny p) {
+            return new Zaznam(p.getId(), safeLower(p.getJmeno()), safeLower(p.getPrijmeni()),
+                    safeLower(p.getMesto()), onlyDigits(p.getTelefon()),
+                    CeskeRazeni.klic(p.getPrijmeni(), p.getJmeno()));
+        }
+
+        Set<String> textoveGramy() {
+            Set<String> g = new HashSet<>();
+            gramy(jmeno, g);
+            gramy(prijmeni, g);
+            gramy(mesto, g);
+            return g;
+        }
+
+        Set<String> telefonniGramy() {
+            Set<String> g = new HashSet<>();
+            gramy(telefon, g);
+            return g;
+        }
+
+        /** Stejná sémantika jako původní stream filtr (contains nad lower-case / číslicemi). */
+        boolean odpovida(String needle, String digits) {
+            boolean matchName = jmeno.contains(needle) || prijmeni.contains(needle);
+            boolean matchCity = mesto.contains(needle);
+            boolean matchPhone = !digits.isEmpty() && telefon.contains(digits);
+            return matchName || matchCity || matchPhone;
+        }
+    }
+
+    // ===== build / sync ======================================================
+
+    /**
+     * Načte všechny pojištěné a postaví index. Čtení z DB běží už pod write lockem: změna commitnutá
+     * během stavby počká na zámek a aplikuje se až po ní – jinak by ji {@code clear()} a starší
+     * snímek přepsaly.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void postav() {
+        long start = System.nanoTime();
+        List<Pojisteny> vsichni;
+
+        lock.writeLock().lock();
+        try {
+            vsichni = pojistenyRepo.findAll();
+            zaznamy.clear();
+            textoveGramy.clear();
+            telefonniGramy.clear();
+            for (Pojisteny p : vsichni) {
+                if (p.getId() != null) vloz(Zaznam.z(p));
+            }
+            pripraven = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("N-gram index pojištěných postaven: {} záznamů, {} trigramů, {} ms",
+                vsichni.size(), textoveGramy.size() + telefonniGramy.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Po commitu (nebo hned, pokud zápis neběží v transakci) přeindexuje změněný záznam. */
+    @Order(Ordered.HIGHEST_PRECEDENCE) // před zneplatněním CacheHledani
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistenyZmenen e) {
+        lock.writeLock().lock();
+        try {
+            odeber(e.id());
+            if (!e.smazano()) vloz(Zaznam.z(e.pojisteny()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== dotaz =============================================================
+
+    /** Pořadí záznamů: klíč českého řazení → ID. */
+    private static final Comparator<Zaznam> PORADI =
+            Comparator.comparing(Zaznam::klic, CeskeRazeni.KLICE).thenComparingInt(Zaznam::id);
+
+    /**
+     * Vrátí ID pojištěných, jejichž jméno/příjmení/město obsahuje {@code needle}
+     * nebo telefon obsahuje {@code digits}, v českém pořadí (příjmení → jméno → ID).
+     *
+     * @param needle lower-case dotaz (oříznutý)
+     * @param digits jen číslice z dotazu (může být prázdné)
+     */
+    public List<Integer> hledej(String needle, String digits) {
+        return hledej(needle, digits, null, 0, true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Keyset varianta {@link #hledej(String, String)}: nejvýše {@code limit} shod za kurzorem
+     * ({@code dopredu}) nebo před ním. Při kroku zpět jsou ID v obráceném pořadí (nejbližší ke kurzoru první).
+     *
+     * @param kurzorKlic klíč řazení kurzoru; {@code null} = od začátku
+     * @param kurzorId   ID kurzoru (druhá složka klíče)
+     */
+    public List<Integer> hledej(String needle, String digits, byte[] kurzorKlic, int kurzorId,
+                                boolean dopredu, int limit) {
+        Zaznam kurzor = kurzorKlic == null ? null : new Zaznam(kurzorId, "", "", "", "", kurzorKlic);
+        Comparator<Zaznam> poradi = dopredu ? PORADI : PORADI.reversed();
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> kandidati = new HashSet<>();
+            kandidati(needle, textoveGramy, kandidati);
+            if (!digits.isEmpty()) kandidati(digits, telefonniGramy, kandidati);
+
+            List<Zaznam> shody = new ArrayList<>();
+            for (Integer id : kandidati) {
+                Zaznam z = zaznamy.get(id);
+                if (z == null || !z.odpovida(needle, digits)) continue;
+                if (kurzor != null && poradi.compare(z, kurzor) <= 0) continue;
+                shody.add(z);
+            }
+            shody.sort(poradi);
+            return shody.stream().limit(limit).map(Zaznam::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Přidá do {@code out} kandidáty pro daný řetězec – průnik posting listů, nebo vše pro krátký dotaz. */
+    private void kandidati(String s, Map<String, Set<Integer>> gramy, Set<Integer> out) {
+        if (s.length() < N) {
+            out.addAll(zaznamy.keySet());
+            return;
+        }
+        Set<String> hledane = new HashSet<>();
+        gramy(s, hledane);
+
+        List<Set<Integer>> postingy = new ArrayList<>(hledane.size());
+        for (String g : hledane) {
+            Set<Integer> p = gramy.get(g);
+            if (p == null) return; // některý trigram nikde není → žádná shoda
+            postingy.add(p);
+        }
+        postingy.sort(Comparator.comparingInt(Set::size));
+
+        Set<Integer> nejmensi = postingy.get(0);
+        for (Integer id : nejmensi) {
+            boolean vsude = true;
+            for (int i = 1; i < postingy.size() && vsude; i++) {
+                vsude = postingy.get(i).contains(id);
+            }
+            if (vsude) out.add(id);
+        }
+    }
+
+    // ===== interní údržba (volat pod write lockem) ===========================
+
+    private void vloz(Zaznam z) {
+        zaznamy.put(z.id(), z);
+        for (String g : z.textoveGramy()) textoveGramy.computeIfAbsent(g, k -> new HashSet<>()).add(z.id());
+        for (String g : z.telefonniGramy()) telefonniGramy.computeIfAbsent(g, k -> new HashSet<>()).add(z.id());
+    }
+
+    private void odeber(int id) {
+        Zaznam z = zaznamy.remove(id);
+        if (z == null) return;
+        vyjmi(z.textoveGramy(), id, textoveGramy);
+        vyjmi(z.telefonniGramy(), id, telefonniGramy);
+    }
+
+    private static void vyjmi(Set<String> klice, int id, Map<String, Set<Integer>> gramy) {
+        for (String g : klice) {
+            Set<Integer> p = gramy.get(g);
+            if (p != null && p.remove(id) && p.isEmpty()) gramy.remove(g);
+        }
+    }
+
+    // ===== helpers ===========================================================
+
+    private static void gramy(String s, Set<String> out) {
+        for (int i = 0; i + N <= s.length(); i++) {
+            out.add(s.substring(i, i + N));
+        }
+    }
+
+    /** Vrátí jen číslice z řetězce (null → ""). */
+    private static String onlyDigits(String s) {
+        if (s == null) return "";
+        return s.replaceAll("[^0-9]", "");
+    }
+
+    /** lower-case s ošetřením null (null → ""). */
+    private static String safeLower(String s) {
+        return s == null ? "" : s.toLowerCase();
+    }
+}
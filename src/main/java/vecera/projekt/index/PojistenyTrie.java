@@ -0,0 +1,216 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.records.OsobaNavrhDto;
+import vecera.projekt.repository.PojistenyRepo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefixový strom (trie) pro našeptávač osob.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Indexuje složená slova (bez diakritiky, lower-case – viz {@link Texty}) z příjmení a jména
+ *       a číslice telefonu (celé i bez předvolby +420).</li>
+ *   <li>{@link #navrhni(String, int)} najde uzel prefixu a projde podstrom do hloubky
+ *       (abecedně, kratší slova první) – skončí po {@code limit} osobách nebo po vyčerpání
+ *       časového rozpočtu {@code app.naseptavac.rozpocet-ms}.</li>
+ *   <li>Víceslovný dotaz („nov jan“): nejdelší slovo jde přes trie, ostatní musí být prefixem
+ *       některého slova osoby.</li>
+ *   <li>Po commitu zápisu (událost {@link PojistenyZmenen}) osobu přeindexuje / odebere.</li>
+ * </ul>
+ */
+@Component
+public class PojistenyTrie {
+
+    private static final Logger log = LoggerFactory.getLogger(PojistenyTrie.class);
+
+    private final PojistenyRepo pojistenyRepo;
+    private final long rozpocetNanos;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Uzel koren = new Uzel();
+    private final Map<Integer, Osoba> osoby = new HashMap<>();
+    private volatile boolean pripraven;
+
+    public PojistenyTrie(PojistenyRepo pojistenyRepo,
+                         @Value("${app.naseptavac.rozpocet-ms:5}") long rozpocetMs) {
+        this.pojistenyRepo = pojistenyRepo;
+        this.rozpocetNanos = TimeUnit.MILLISECONDS.toNanos(rozpocetMs);
+    }
+
+    private static final class Uzel {
+        final TreeMap<Character, Uzel> deti = new TreeMap<>();
+        final Set<Integer> ids = new TreeSet<>();
+    }
+
+    /** Osoba v indexu: data pro odpověď + slova, pod kterými je zavěšená. */
+    private record Osoba(OsobaNavrhDto dto, List<String> slova) {
+
+        static Osoba z(Pojisteny p) {
+            List<String> slova = new ArrayList<>();
+            for (String s : (Texty.slozit(p.getPrijmeni()) + " " + Texty.slozit(p.getJmeno())).split("[\\s\\-]+")) {
+                if (!s.isEmpty()) slova.add(s);
+            }
+            String tel = Texty.cislice(p.getTelefon());
+            if (!tel.isEmpty()) {
+                slova.add(tel);
+                if (tel.startsWith("00420")) slova.add(tel.substring(5));
+                else if (tel.startsWith("420") && tel.length() > 9) slova.add(tel.substring(3));
+            }
+            var dto = new OsobaNavrhDto(p.getId(), p.getJmeno(), p.getPrijmeni(), p.getMesto(), p.getTelefon());
+            return new Osoba(dto, slova);
+        }
+
+        boolean maSlovoSPrefixem(String prefix) {
+            for (String s : slova) if (s.startsWith(prefix)) return true;
+            return false;
+        }
+    }
+
+    // ===== build / sync ======================================================
+
+    /** Načte osoby už pod write lockem – změna commitnutá během stavby se aplikuje až po ní. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void postav() {
+        List<Pojisteny> vsichni;
+        lock.writeLock().lock();
+        try {
+            vsichni = pojistenyRepo.findAll();
+            koren.deti.clear();
+            koren.ids.clear();
+            osoby.clear();
+            for (Pojisteny p : vsichni) {
+                if (p.getId() != null) vloz(Osoba.z(p));
+            }
+            pripraven = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Trie našeptávače postaven: {} osob", vsichni.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistenyZmenen e) {
+        lock.writeLock().lock();
+        try {
+            odeber(e.id());
+            if (!e.smazano()) vloz(Osoba.z(e.pojisteny()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== dotaz =============================================================
+
+    /**
+     * Nejvýše {@code limit} osob, jejichž slovo začíná dotazem (bez ohledu na diakritiku/velikost písmen).
+     * Při vyčerpání časového rozpočtu vrátí to, co stihl najít.
+     */
+    public List<OsobaNavrhDto> navrhni(String q, int limit) {
+        long konec = System.nanoTime() + rozpocetNanos;
+
+        String cisla = Texty.cislice(q);
+        String slozeny = Texty.slozit(q);
+        boolean jenCisla = !cisla.isEmpty() && slozeny.replaceAll("[\\s+\\-/()]", "").equals(cisla);
+
+        List<String> tokeny = new ArrayList<>();
+        if (jenCisla) {
+            tokeny.add(cisla);
+        } else {
+            for (String s : slozeny.split("[\\s\\-]+")) if (!s.isEmpty()) tokeny.add(s);
+        }
+        if (tokeny.isEmpty() || limit <= 0) return List.of();
+        tokeny.sort(Comparator.comparingInt(String::length).reversed());
+        String hlavni = tokeny.get(0);
+        List<String> filtry = tokeny.subList(1, tokeny.size());
+
+        lock.readLock().lock();
+        try {
+            Uzel start = najdi(hlavni);
+            if (start == null) return List.of();
+
+            Set<Integer> nalezeno = new LinkedHashSet<>();
+            Deque<Uzel> zasobnik = new ArrayDeque<>();
+            zasobnik.push(start);
+            while (!zasobnik.isEmpty() && nalezeno.size() < limit && System.nanoTime() < konec) {
+                Uzel u = zasobnik.pop();
+                for (Integer id : u.ids) {
+                    Osoba o = osoby.get(id);
+                    if (o != null && filtry.stream().allMatch(o::maSlovoSPrefixem)) {
+                        nalezeno.add(id);
+                        if (nalezeno.size() >= limit) break;
+                    }
+                }
+                // pre-order, abecedně → na zásobník pozpátku
+                for (Uzel d : u.deti.descendingMap().values()) zasobnik.push(d);
+            }
+            return nalezeno.stream().map(id -> osoby.get(id).dto()).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Uzel najdi(String prefix) {
+        Uzel u = koren;
+        for (int i = 0; i < prefix.length() && u != null; i++) {
+            u = u.deti.get(prefix.charAt(i));
+        }
+        return u;
+    }
+
+    // ===== interní údržba (volat pod write lockem) ===========================
+
+    private void vloz(Osoba o) {
+        osoby.put(o.dto().id(), o);
+        for (String slovo : o.slova()) {
+            Uzel u = koren;
+            for (int i = 0; i < slovo.length(); i++) {
+                u = u.deti.computeIfAbsent(slovo.charAt(i), c -> new Uzel());
+            }
+            u.ids.add(o.dto().id());
+        }
+    }
+
+    private void odeber(int id) {
+        Osoba o = osoby.remove(id);
+        if (o == null) return;
+        for (String slovo : o.slova()) odeber(koren, slovo, 0, id);
+    }
+
+    /** Odebere ID ze slova a cestou zpět prořeže prázdné uzly. Vrací true, pokud je uzel prázdný. */
+    private static boolean odeber(Uzel u, String slovo, int i, int id) {
+        if (i == slovo.length()) {
+            u.ids.remove(id);
+        } else {
+            Uzel d = u.deti.get(slovo.charAt(i));
+            if (d != null && odeber(d, slovo, i + 1, id)) u.deti.remove(slovo.charAt(i));
+        }
+        return u.ids.isEmpty() && u.deti.isEmpty();
+    }
+}
@@ -0,0 +1,546 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.entity.Penize;
+import vecera.projekt.entity.StavUdalosti;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.event.PojistkaZmenena;
+import vecera.projekt.event.UdalostZmenena;
+
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sloupcová kopie pojistných událostí mimo haldu (direct buffery) pro agregace reportů bez dotazu do DB.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Sloupce: den ({@code datum} jako epoch day), škoda v haléřích ({@code long}, viz {@link Penize}), stav ({@code byte}),
+ *       ID pojištěného a pojistky ({@code int}, bez pojistky {@code -1}); řádek = slot.</li>
+ *   <li>Join pole {@code pojisteny_id → kód města} (slovník měst) pro agregace po městech.</li>
+ *   <li>Rozložení škod ({@link HistogramSkod} – kvantily a pásma) po stavech a po typech pojistek
+ *       (název pojistky; kód typu je sloupec slotu) – udržuje se při každém vložení / přepsání / smazání
+ *       slotu, dotaz tak nic neřadí ani neprochází.</li>
+ *   <li>Agregace (podle stavu, roku, města, součet za období) jsou primitivní smyčky nad sloty,
+ *       rozdělené na bloky po {@value #PRAH} řádcích a počítané přes fork/join na všech jádrech.</li>
+ *   <li>Po commitu zápisu (události {@link UdalostZmenena}, {@link PojistkaZmenena}, {@link PojistenyZmenen})
+ *       se dotčené řádky znovu načtou z DB – uložení přepíše slot / přidá nový, smazání slot označí.</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Smazané sloty mají stav {@code -1}; když jich je většina, sloupce se setřesou.</li>
+ *   <li>Pojistka → ID jejích událostí je zvlášť v mapě (ID, ne sloty – setřesení je nemění), změna
+ *       pojistky tak nepročítá všechny sloty; dotčené události se přenačtou jedním {@code IN (…)} dotazem.</li>
+ *   <li>Dokud není sklad načtený ({@link #isPripraven()}), volající má použít cestu přes DB.</li>
+ * </ul>
+ */
+@Component
+public class SloupcoveUdalosti {
+
+    private static final Logger log = LoggerFactory.getLogger(SloupcoveUdalosti.class);
+
+    /** Pod tuto velikost bloku se už nedělí (režie fork/join by převážila). */
+    static final int PRAH = 1 << 16;
+
+    private static final byte SMAZANO = -1;
+    private static final StavUdalosti[] STAVY = StavUdalosti.values();
+
+    /** Roky, které umí agregace po rocích rozlišit (mimo rozsah se řádek nezapočte). */
+    private static final int ROK_OD = 1900;
+    private static final int ROK_DO = 2200;
+    private static final int[] ZACATKY_ROKU = new int[ROK_DO - ROK_OD + 1];
+
+    static {
+        for (int r = ROK_OD; r <= ROK_DO; r++) {
+            ZACATKY_ROKU[r - ROK_OD] = (int) LocalDate.of(r, 1, 1).toEpochDay();
+        }
+    }
+
+    /** Kolik ID nejvýš jde do jednoho {@code WHERE u.id IN (…)} při přenačtení. */
+    private static final int DAVKA_PRENACTENI = 1000;
+
+    private static final String SQL_UDALOSTI = """
+            SELECT u.id, u.datum, u.skoda, u.stav, u.pojisteny_id, u.typ_pojisteni_id, t.nazev
+            FROM pojistna_udalost u
+            LEFT JOIN typ_pojisteni t ON t.id = u.typ_pojisteni_id""";
+
+    private final JdbcTemplate jdbc;
+    private final int fetchSize;
+    private final double presnost;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Sloupce sloupce = new Sloupce(1024);
+    private final Map<Integer, Integer> slotPodleId = new HashMap<>();
+    private final Map<Integer, Set<Integer>> udalostiPojistky = new HashMap<>();
+    private int smazanych;
+
+    private IntBuffer mestoPojisteneho = primo(1024).asIntBuffer();
+    private final List<String> mesta = new ArrayList<>(List.of(""));
+    private final Map<String, Integer> kodMesta = new HashMap<>(Map.of("", 0));
+
+    private final List<String> typy = new ArrayList<>(List.of(""));
+    private final Map<String, Integer> kodTypu = new HashMap<>(Map.of("", 0));
+    private final HistogramSkod[] histogramStavu = new HistogramSkod[STAVY.length];
+    private final List<HistogramSkod> histogramTypu = new ArrayList<>();
+
+    private volatile boolean pripraven;
+
+    public SloupcoveUdalosti(JdbcTemplate jdbc, @Value("${app.export.fetch-size:1000}") int fetchSize,
+                             @Value("${app.reporty.histogram.presnost:0.01}") double presnost) {
+        this.jdbc = jdbc;
+        this.fetchSize = fetchSize;
+        this.presnost = presnost;
+        vycistiHistogramy();
+    }
+
+    /** Sloupce jednoho „snímku“ – direct buffery s pevnou kapacitou, při zaplnění se zdvojnásobí. */
+    private static final class Sloupce {
+        final int kapacita;
+        final IntBuffer id;
+        final IntBuffer den;
+        final LongBuffer skoda;
+        final ByteBuffer stav;
+        final IntBuffer pojisteny;
+        final IntBuffer pojistka;
+        final IntBuffer typ;
+        int radku;
+
+        Sloupce(int kapacita) {
+            this.kapacita = kapacita;
+            this.id = primo(kapacita * 4L).asIntBuffer();
+            this.den = primo(kapacita * 4L).asIntBuffer();
+            this.skoda = primo(kapacita * 8L).asLongBuffer();
+            this.stav = primo(kapacita);
+            this.pojisteny = primo(kapacita * 4L).asIntBuffer();
+            this.pojistka = primo(kapacita * 4L).asIntBuffer();
+            this.typ = primo(kapacita * 4L).asIntBuffer();
+        }
+
+        void zapis(int slot, int idUdalosti, int d, long haleru, byte s, int pojistenyId, int pojistkaId, int kodTypu) {
+            id.put(slot, idUdalosti);
+            den.put(slot, d);
+            skoda.put(slot, haleru);
+            stav.put(slot, s);
+            pojisteny.put(slot, pojistenyId);
+            pojistka.put(slot, pojistkaId);
+            typ.put(slot, kodTypu);
+        }
+
+        void kopiruj(int z, Sloupce cil, int kam) {
+            cil.zapis(kam, id.get(z), den.get(z), skoda.get(z), stav.get(z), pojisteny.get(z), pojistka.get(z),
+                    typ.get(z));
+        }
+    }
+
+    // ===== build / sync ======================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void postav() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            sloupce = new Sloupce(1024);
+            slotPodleId.clear();
+            udalostiPojistky.clear();
+            smazanych = 0;
+            vycistiHistogramy();
+            jdbc.query(con -> {
+                var ps = con.prepareStatement("SELECT p.id, p.mesto FROM pojisteny p",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, (RowCallbackHandler) rs -> nastavMesto(rs.getInt(1), rs.getString(2)));
+            jdbc.query(con -> {
+                var ps = con.prepareStatement(SQL_UDALOSTI, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, (RowCallbackHandler) rs -> vloz(Radek.z(rs)));
+            pripraven = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Sloupcový sklad událostí načten: {} řádků, {} měst, {} ms",
+                sloupce.radku, mesta.size() - 1, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(UdalostZmenena e) {
+        prenacti(List.of(e.id()));
+    }
+
+    /** Pojistka: smazání maže její události, nebo jim nuluje {@code typ_pojisteni_id} – přenačteme je. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistkaZmenena e) {
+        List<Integer> ids;
+        lock.readLock().lock();
+        try {
+            ids = new ArrayList<>(udalostiPojistky.getOrDefault(e.id(), Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!ids.isEmpty()) prenacti(ids);
+    }
+
+    /** Osoba: změna města do join pole; smazání kaskádou maže i její události. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistenyZmenen e) {
+        lock.writeLock().lock();
+        try {
+            if (!e.smazano()) {
+                nastavMesto(e.id(), e.pojisteny().getMesto());
+                return;
+            }
+            nastavMesto(e.id(), null);
+            Sloupce s = sloupce;
+            for (int i = 0; i < s.radku; i++) {
+                if (s.stav.get(i) != SMAZANO && s.pojisteny.get(i) == e.id()) smaz(s.id.get(i));
+            }
+            setresPokudTreba();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== agregace ==========================================================
+
+    /** Počet a součet škod podle stavu (index = {@link StavUdalosti#ordinal()}). */
+    public record PoStavech(long[] pocet, Penize[] suma) { }
+
+    /** Počet a součet škod pro jednu skupinu (rok, město). */
+    public record Skupina(String klic, long pocet, Penize suma) { }
+
+    public PoStavech poStavech() {
+        int n = STAVY.length;
+        long[] v = agreguj(2 * n, (s, od, po, out) -> {
+            for (int i = od; i < po; i++) {
+                int st = s.stav.get(i);
+                if (st < 0) continue;
+                out[st]++;
+                out[n + st] += s.skoda.get(i);
+            }
+        });
+        long[] pocet = new long[n];
+        Penize[] suma = new Penize[n];
+        for (int i = 0; i < n; i++) {
+            pocet[i] = v[i];
+            suma[i] = Penize.zHaleru(v[n + i]);
+        }
+        return new PoStavech(pocet, suma);
+    }
+
+    /** Součet škod s datem v intervalu {@code [od, doVyjma)}. */
+    public Penize sumaZaObdobi(LocalDate od, LocalDate doVyjma) {
+        int dOd = (int) od.toEpochDay();
+        int dDo = (int) doVyjma.toEpochDay();
+        long[] v = agreguj(1, (s, z, po, out) -> {
+            for (int i = z; i < po; i++) {
+                int d = s.den.get(i);
+                if (d >= dOd && d < dDo && s.stav.get(i) != SMAZANO) out[0] += s.skoda.get(i);
+            }
+        });
+        return Penize.zHaleru(v[0]);
+    }
+
+    /** Počet a součet škod po rocích (vzestupně, jen roky s událostmi). */
+    public List<Skupina> poRocich() {
+        int n = ZACATKY_ROKU.length;
+        long[] v = agreguj(2 * n, (s, od, po, out) -> {
+            for (int i = od; i < po; i++) {
+                if (s.stav.get(i) == SMAZANO) continue;
+                int r = rok(s.den.get(i));
+                if (r < 0) continue;
+                out[r]++;
+                out[n + r] += s.skoda.get(i);
+            }
+        });
+        List<Skupina> out = new ArrayList<>();
+        for (int r = 0; r < n; r++) {
+            if (v[r] > 0) out.add(new Skupina(String.valueOf(ROK_OD + r), v[r], Penize.zHaleru(v[n + r])));
+        }
+        return out;
+    }
+
+    /** Počet a součet škod podle města pojištěného, sestupně podle počtu; nejvýše {@code limit} měst. */
+    public List<Skupina> poMestech(int limit) {
+        lock.readLock().lock();
+        try {
+            int n = mesta.size();
+            IntBuffer join = mestoPojisteneho;
+            long[] v = agreguj(2 * n, (s, od, po, out) -> {
+                for (int i = od; i < po; i++) {
+                    if (s.stav.get(i) == SMAZANO) continue;
+                    int p = s.pojisteny.get(i);
+                    int m = p >= 0 && p < join.capacity() ? join.get(p) : 0;
+                    out[m]++;
+                    out[n + m] += s.skoda.get(i);
+                }
+            });
+            List<Skupina> out = new ArrayList<>();
+            for (int m = 1; m < n; m++) { // 0 = bez města
+                if (v[m] > 0) out.add(new Skupina(mesta.get(m), v[m], Penize.zHaleru(v[n + m])));
+            }
+            out.sort((a, b) -> Long.compare(b.pocet(), a.pocet()));
+            return out.size() > limit ? out.subList(0, limit) : out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Rozložení škod jedné skupiny (kopie sketche – volající s ní může pracovat bez zámku). */
+    public record Rozdeleni(String skupina, String klic, HistogramSkod histogram) { }
+
+    /**
+     * Rozložení škod: celkem (sloučené stavy), po stavech a po typech pojistek (nejčastější první);
+     * jen neprázdné skupiny. Cena nezávisí na počtu událostí – jen na počtu skupin.
+     */
+    public List<Rozdeleni> rozdeleni() {
+        lock.readLock().lock();
+        try {
+            List<Rozdeleni> out = new ArrayList<>();
+            HistogramSkod celkem = new HistogramSkod(presnost);
+            for (HistogramSkod h : histogramStavu) celkem.pricti(h);
+            if (celkem.getPocet() > 0) out.add(new Rozdeleni("celkem", "", celkem));
+            for (StavUdalosti st : STAVY) {
+                HistogramSkod h = histogramStavu[st.ordinal()];
+                if (h.getPocet() > 0) out.add(new Rozdeleni("stav", st.name(), h.kopie()));
+            }
+            List<Rozdeleni> poTypech = new ArrayList<>();
+            for (int k = 0; k < typy.size(); k++) {
+                HistogramSkod h = histogramTypu.get(k);
+                if (h.getPocet() > 0) {
+                    poTypech.add(new Rozdeleni("typ", k == 0 ? "(bez pojistky)" : typy.get(k), h.kopie()));
+                }
+            }
+            poTypech.sort((x, y) -> Long.compare(y.histogram().getPocet(), x.histogram().getPocet()));
+            out.addAll(poTypech);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Tělo agregace nad sloty {@code [od, po)} – přičítá do {@code out}. */
+    @FunctionalInterface
+    private interface Blok {
+        void projdi(Sloupce s, int od, int po, long[] out);
+    }
+
+    /** Rozdělí sloty na bloky, spočítá je fork/joinem a mezivýsledky sečte po prvcích. */
+    private long[] agreguj(int delka, Blok blok) {
+        lock.readLock().lock();
+        try {
+            Sloupce s = sloupce;
+            return ForkJoinPool.commonPool().invoke(new Ulozka(s, 0, s.radku, delka, blok));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Ulozka extends RecursiveTask<long[]> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // úloha se nikdy neserializuje (RecursiveTask je Serializable jen formálně)
+        private final transient Sloupce s;
+        private final int od;
+        private final int po;
+        private final int delka;
+        private final transient Blok blok;
+
+        Ulozka(Sloupce s, int od, int po, int delka, Blok blok) {
+            this.s = s;
+            this.od = od;
+            this.po = po;
+            this.delka = delka;
+            this.blok = blok;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (po - od <= PRAH) {
+                long[] out = new long[delka];
+                blok.projdi(s, od, po, out);
+                return out;
+            }
+            int stred = (od + po) >>> 1;
+            Ulozka levy = new Ulozka(s, od, stred, delka, blok);
+            levy.fork();
+            long[] pravy = new Ulozka(s, stred, po, delka, blok).compute();
+            long[] out = levy.join();
+            for (int i = 0; i < delka; i++) out[i] += pravy[i];
+            return out;
+        }
+    }
+
+    // ===== interní údržba ====================================================
+
+    /** Řádek {@link #SQL_UDALOSTI} převedený na hodnoty sloupců ({@code typ} = název pojistky, bez ní ""). */
+    private record Radek(int id, int den, long haleru, byte stav, int pojistenyId, int pojistkaId, String typ) {
+
+        static Radek z(ResultSet rs) throws SQLException {
+            int pojistkaId = rs.getInt(6);
+            if (rs.wasNull()) pojistkaId = -1;
+            return new Radek(rs.getInt(1),
+                    (int) rs.getObject(2, LocalDate.class).toEpochDay(),
+                    Penize.z(rs.getBigDecimal(3)).haleru(),
+                    (byte) StavUdalosti.valueOf(rs.getString(4)).ordinal(),
+                    rs.getInt(5),
+                    pojistkaId,
+                    rs.getString(7) == null ? "" : rs.getString(7).trim());
+        }
+    }
+
+    /**
+     * Znovu načte dané události z DB (chybějící = smazané) a přepíše jejich sloty; dotazy běží mimo zámek,
+     * po dávkách {@value #DAVKA_PRENACTENI} ID v jednom {@code IN (…)}.
+     */
+    private void prenacti(List<Integer> ids) {
+        Map<Integer, Radek> nactene = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += DAVKA_PRENACTENI) {
+            List<Integer> davka = ids.subList(i, Math.min(ids.size(), i + DAVKA_PRENACTENI));
+            String otazniky = String.join(",", Collections.nCopies(davka.size(), "?"));
+            jdbc.query(SQL_UDALOSTI + " WHERE u.id IN (" + otazniky + ")",
+                    (RowCallbackHandler) rs -> nactene.put(rs.getInt(1), Radek.z(rs)), davka.toArray());
+        }
+        lock.writeLock().lock();
+        try {
+            for (Integer id : ids) {
+                Radek r = nactene.get(id);
+                if (r != null) vloz(r); else smaz(id);
+            }
+            setresPokudTreba();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Vloží nový / přepíše existující řádek (volat pod write lockem). */
+    private void vloz(Radek r) {
+        Integer slot = slotPodleId.get(r.id());
+        if (slot == null) {
+            if (sloupce.radku == sloupce.kapacita) sloupce = zkopiruj(sloupce.kapacita * 2);
+            slot = sloupce.radku++;
+            slotPodleId.put(r.id(), slot);
+        } else {
+            histogramy(slot, -1);
+            odeberZPojistky(sloupce.pojistka.get(slot), r.id());
+        }
+        if (r.pojistkaId() >= 0) udalostiPojistky.computeIfAbsent(r.pojistkaId(), k -> new HashSet<>()).add(r.id());
+        sloupce.zapis(slot, r.id(), r.den(), r.haleru(), r.stav(), r.pojistenyId(), r.pojistkaId(), kodTypu(r.typ()));
+        histogramy(slot, 1);
+    }
+
+    private void smaz(int id) {
+        Integer slot = slotPodleId.remove(id);
+        if (slot == null) return;
+        histogramy(slot, -1);
+        odeberZPojistky(sloupce.pojistka.get(slot), id);
+        sloupce.stav.put(slot, SMAZANO);
+        smazanych++;
+    }
+
+    private void odeberZPojistky(int pojistkaId, int idUdalosti) {
+        Set<Integer> ids = udalostiPojistky.get(pojistkaId);
+        if (ids != null && ids.remove(idUdalosti) && ids.isEmpty()) udalostiPojistky.remove(pojistkaId);
+    }
+
+    /** Přičte / odečte škodu živého slotu do histogramu jeho stavu a typu pojistky. */
+    private void histogramy(int slot, int o) {
+        long haleru = sloupce.skoda.get(slot);
+        histogramStavu[sloupce.stav.get(slot)].pridej(haleru, o);
+        histogramTypu.get(sloupce.typ.get(slot)).pridej(haleru, o);
+    }
+
+    private int kodTypu(String typ) {
+        return kodTypu.computeIfAbsent(typ, k -> {
+            typy.add(k);
+            histogramTypu.add(new HistogramSkod(presnost));
+            return typy.size() - 1;
+        });
+    }
+
+    private void vycistiHistogramy() {
+        for (int i = 0; i < histogramStavu.length; i++) histogramStavu[i] = new HistogramSkod(presnost);
+        histogramTypu.clear();
+        for (int i = 0; i < typy.size(); i++) histogramTypu.add(new HistogramSkod(presnost));
+    }
+
+    /** Když je smazaná většina slotů, přesune živé řádky do nových sloupců (bez děr). */
+    private void setresPokudTreba() {
+        if (smazanych < 1024 || smazanych * 2 < sloupce.radku) return;
+        sloupce = zkopiruj(Math.max(1024, Integer.highestOneBit(Math.max(1, sloupce.radku - smazanych)) * 2));
+    }
+
+    /** Zkopíruje živé řádky do sloupců s kapacitou {@code kapacita} a přečísluje sloty. */
+    private Sloupce zkopiruj(int kapacita) {
+        Sloupce stare = sloupce;
+        Sloupce nove = new Sloupce(kapacita);
+        slotPodleId.clear();
+        for (int i = 0; i < stare.radku; i++) {
+            if (stare.stav.get(i) == SMAZANO) continue;
+            int slot = nove.radku++;
+            stare.kopiruj(i, nove, slot);
+            slotPodleId.put(nove.id.get(slot), slot);
+        }
+        smazanych = 0;
+        return nove;
+    }
+
+    private void nastavMesto(int pojistenyId, String mesto) {
+        if (pojistenyId < 0) return;
+        if (pojistenyId >= mestoPojisteneho.capacity()) {
+            IntBuffer vetsi = primo(Math.max(pojistenyId + 1L, mestoPojisteneho.capacity() * 2L) * 4).asIntBuffer();
+            for (int i = 0; i < mestoPojisteneho.capacity(); i++) vetsi.put(i, mestoPojisteneho.get(i));
+            mestoPojisteneho = vetsi;
+        }
+        String m = mesto == null ? "" : mesto.trim();
+        int kod = kodMesta.computeIfAbsent(m, k -> {
+            mesta.add(k);
+            return mesta.size() - 1;
+        });
+        mestoPojisteneho.put(pojistenyId, kod);
+    }
+
+    /** Index roku v {@link #ZACATKY_ROKU} pro epoch day, mimo rozsah {@code -1}. */
+    private static int rok(int den) {
+        int lo = 0, hi = ZACATKY_ROKU.length - 1;
+        if (den < ZACATKY_ROKU[0]) return -1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (ZACATKY_ROKU[mid] <= den) lo = mid; else hi = mid - 1;
+        }
+        return lo == ZACATKY_ROKU.length - 1 ? -1 : lo;
+    }
+
+    private static ByteBuffer primo(long bajtu) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(bajtu)).order(ByteOrder.nativeOrder());
+    }
+}
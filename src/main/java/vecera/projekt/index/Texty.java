@@ -0,0 +1,32 @@
+package vecera.projekt.index;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizace textu pro vyhledávací indexy.
+ * <p>
+ * „Složení“ = bez diakritiky a v lower-case ({@code "Nováková" → "novakova"}),
+ * aby hledání „novak“ našlo „Novák“.
+ */
+public final class Texty {
+
+    private static final Pattern DIAKRITIKA = Pattern.compile("\\p{M}+");
+    private static final Pattern NECISLICE = Pattern.compile("[^0-9]");
+
+    private Texty() { }
+
+    /** Bez diakritiky + lower-case (null → ""). */
+    public static String slozit(String s) {
+        if (s == null || s.isEmpty()) return "";
+        String nfd = Normalizer.normalize(s, Normalizer.Form.NFD);
+        return DIAKRITIKA.matcher(nfd).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /** Jen číslice (null → ""). */
+    public static String cislice(String s) {
+        if (s == null) return "";
+        return NECISLICE.matcher(s).replaceAll("");
+    }
+}
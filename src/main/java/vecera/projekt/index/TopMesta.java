@@ -0,0 +1,151 @@
+package vecera.projekt.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.records.CityCountDto;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Přibližné „top města“ (heavy hitters) podle počtu pojištěných – bez {@code GROUP BY} nad celou tabulkou.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Četnosti měst drží {@link CountMinSketch} s chybou {@code app.reporty.mesta.epsilon}
+ *       a pravděpodobností selhání {@code app.reporty.mesta.delta}.</li>
+ *   <li>Kandidáty na top-K drží omezená mapa ({@code app.reporty.mesta.kandidatu}); při plné mapě
+ *       nový kandidát vytlačí ten s nejmenším odhadem, pokud ho přerostl.</li>
+ *   <li>Po commitu zápisu osoby ({@link PojistenyZmenen}) odečte původní město a přičte nové.</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Města se porovnávají bez ohledu na velikost písmen a okrajové mezery (jako {@code GROUP BY}
+ *       nad {@code utf8mb4_general_ci}); zobrazí se podoba, ve které přišlo naposledy. Tu drží jen
+ *       kandidát – s vyřazením z kandidátů (nebo poklesem odhadu na 0) zmizí i ona.</li>
+ *   <li>Kvůli odečítání si pamatuje město každé osoby (ID → klíč) – řádově méně než celé entity.</li>
+ *   <li>Přesné pořadí pro audit dává dál SQL ({@code ReportRepo.topMesta}).</li>
+ * </ul>
+ */
+@Component
+public class TopMesta {
+
+    private static final Logger log = LoggerFactory.getLogger(TopMesta.class);
+
+    private final JdbcTemplate jdbc;
+    private final CountMinSketch sketch;
+    private final int kandidatu;
+
+    private final Map<Integer, String> mestoOsoby = new HashMap<>();
+    private final Map<String, Kandidat> kandidati = new HashMap<>();
+    private volatile boolean pripraven;
+
+    private static final class Kandidat {
+        long odhad;
+        String nazev;
+    }
+
+    public TopMesta(JdbcTemplate jdbc,
+                    @Value("${app.reporty.mesta.epsilon:0.001}") double epsilon,
+                    @Value("${app.reporty.mesta.delta:0.01}") double delta,
+                    @Value("${app.reporty.mesta.kandidatu:500}") int kandidatu) {
+        this.jdbc = jdbc;
+        this.sketch = new CountMinSketch(epsilon, delta);
+        this.kandidatu = Math.max(1, kandidatu);
+    }
+
+    // ===== build / sync ======================================================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void postav() {
+        sketch.vycisti();
+        mestoOsoby.clear();
+        kandidati.clear();
+        jdbc.query("SELECT p.id, p.mesto FROM pojisteny p",
+                (RowCallbackHandler) rs -> nastav(rs.getInt(1), rs.getString(2)));
+        pripraven = true;
+        log.info("Top města (Count-Min {}×{}): {} osob, {} kandidátů",
+                sketch.getHloubka(), sketch.getSirka(), mestoOsoby.size(), kandidati.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void naZmenu(PojistenyZmenen e) {
+        nastav(e.id(), e.smazano() ? null : e.pojisteny().getMesto());
+    }
+
+    public boolean isPripraven() {
+        return pripraven;
+    }
+
+    // ===== dotaz =============================================================
+
+    /** Nejvýše {@code limit} měst s nejvyšším odhadem počtu pojištěných (odhad ≥ skutečnost). */
+    public synchronized List<CityCountDto> top(int limit) {
+        // odhady kandidátů mohly od poslední změny narůst kolizemi s jinými městy
+        for (var e : kandidati.entrySet()) e.getValue().odhad = sketch.odhad(e.getKey());
+        return kandidati.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Kandidat> k) -> k.getValue().odhad).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(k -> new CityCountDto(k.getValue().nazev, k.getValue().odhad))
+                .toList();
+    }
+
+    // ===== interní údržba (volat pod zámkem) =================================
+
+    private void nastav(int idOsoby, String mesto) {
+        String klic = klic(mesto);
+        String puvodni = klic == null ? mestoOsoby.remove(idOsoby) : mestoOsoby.put(idOsoby, klic);
+        if (klic != null && klic.equals(puvodni)) {
+            Kandidat k = kandidati.get(klic);
+            if (k != null) k.nazev = mesto.trim(); // jen jiná velikost písmen / mezery
+            return;
+        }
+        if (puvodni != null) zmen(puvodni, null, -1);
+        if (klic != null) zmen(klic, mesto.trim(), 1);
+    }
+
+    /** @param nazev zobrazovaný název při přičtení; při odečtení {@code null} (kandidát si nechá svůj) */
+    private void zmen(String klic, String nazev, long o) {
+        sketch.pricti(klic, o);
+        long odhad = sketch.odhad(klic);
+
+        Kandidat k = kandidati.get(klic);
+        if (k != null) {
+            k.odhad = odhad;
+            if (nazev != null) k.nazev = nazev;
+            if (odhad == 0) kandidati.remove(klic);
+            return;
+        }
+        if (odhad == 0 || nazev == null) return; // odečtení nového kandidáta nepřidává
+        if (kandidati.size() >= kandidatu) {
+            Map.Entry<String, Kandidat> nejmensi = null;
+            for (var e : kandidati.entrySet()) {
+                if (nejmensi == null || e.getValue().odhad < nejmensi.getValue().odhad) nejmensi = e;
+            }
+            if (nejmensi.getValue().odhad >= odhad) return;
+            kandidati.remove(nejmensi.getKey());
+        }
+        k = new Kandidat();
+        k.odhad = odhad;
+        k.nazev = nazev;
+        kandidati.put(klic, k);
+    }
+
+    /** Klíč města: bez okrajových mezer, malými písmeny; prázdné → {@code null} (nepočítá se). */
+    private static String klic(String mesto) {
+        if (mesto == null || mesto.isBlank()) return null;
+        return mesto.trim().toLowerCase(Locale.ROOT);
+    }
+}
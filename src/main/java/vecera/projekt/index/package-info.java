@@ -0,0 +1,8 @@
+
+
+/**
+ * Rezidentní (in-memory) indexy nad daty z DB pro rychlé vyhledávání a agregace.
+ * Staví se při startu aplikace a udržují se aktuální přes události z balíčku
+ * {@code vecera.projekt.event}.
+ */
+package vecera.projekt.index;
@@ -0,0 +1,23 @@
+package vecera.projekt.records;
+
+import java.util.List;
+
+/**
+ * Všechna data stránky {@code /reporty} najednou (výstup {@code DashboardLoader}).
+ *
+ * @param snap         sumarizační snímek (počty, suma škod YTD)
+ * @param aktivniTypy  aktivní pojistky podle typu
+ * @param mesicniNove  nové pojistky po měsících
+ * @param skody        škody podle stavu
+ * @param mesta        top města podle počtu pojištěných
+ * @param rozdeleni    rozložení škod (kvantily, histogram) celkem / po stavech / po typech
+ */
+
+public record DashboardDto(
+        SnapshotDto snap,
+        List<LabelValueDto> aktivniTypy,
+        List<SeriesPoint> mesicniNove,
+        List<ClaimAggDto> skody,
+        List<CityCountDto> mesta,
+        List<RozdeleniSkodDto> rozdeleni
+) {}
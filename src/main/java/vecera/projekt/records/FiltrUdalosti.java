@@ -0,0 +1,41 @@
+package vecera.projekt.records;
+
+import vecera.projekt.entity.StavUdalosti;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Zkompilovaný filtr pojistných událostí (výsledek parseru dotazu, viz {@code DotazUdalosti}).
+ * Všechny složky jsou volitelné; {@code null} / prázdná množina = bez omezení.
+ *
+ * @param pojistenyId jen události daného pojištěného (rozsah viditelnosti uživatele)
+ * @param stavy     povolené stavy (IN)
+ * @param skodaMin  minimální škoda včetně
+ * @param skodaMax  maximální škoda včetně
+ * @param od        datum od (včetně)
+ * @param doVyjma   datum do (vyjma) – interval je {@code <od, doVyjma)}
+ * @param text      hledaný text v popisu
+ */
+public record FiltrUdalosti(Integer pojistenyId,
+                            Set<StavUdalosti> stavy,
+                            BigDecimal skodaMin,
+                            BigDecimal skodaMax,
+                            LocalDate od,
+                            LocalDate doVyjma,
+                            String text) {
+
+    /** Filtr bez podmínek (všechny události). */
+    public static final FiltrUdalosti VSE = new FiltrUdalosti(null, null, null, null, null, null, null);
+
+    /** Kopie filtru omezená na události jednoho pojištěného. */
+    public FiltrUdalosti sPojistenym(Integer id) {
+        return new FiltrUdalosti(id, stavy, skodaMin, skodaMax, od, doVyjma, text);
+    }
+
+    public boolean prazdny() {
+        return pojistenyId == null && (stavy == null || stavy.isEmpty()) && skodaMin == null && skodaMax == null
+                && od == null && doVyjma == null && (text == null || text.isBlank());
+    }
+}
@@ -0,0 +1,13 @@
+package vecera.projekt.records;
+
+import java.math.BigDecimal;
+
+/**
+ * Pojistné události podle města pojištěného.
+ *
+ * @param mesto název města
+ * @param pocet počet událostí pojištěných z města
+ * @param suma  součet škod (BigDecimal)
+ */
+
+public record MestoSkodyDto(String mesto, long pocet, BigDecimal suma) {}
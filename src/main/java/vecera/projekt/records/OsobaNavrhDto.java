@@ -0,0 +1,13 @@
+package vecera.projekt.records;
+
+/**
+ * Položka našeptávače osob (JSON pro výběr osoby ve formulářích).
+ *
+ * @param id       ID pojištěného
+ * @param jmeno    jméno
+ * @param prijmeni příjmení
+ * @param mesto    město (může být {@code null})
+ * @param telefon  telefon
+ */
+
+public record OsobaNavrhDto(int id, String jmeno, String prijmeni, String mesto, String telefon) { }
@@ -0,0 +1,19 @@
+package vecera.projekt.records;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Stav platnosti pojistek k libovolnému datu (audit, zpětné dotazy).
+ *
+ * @param datum      datum, ke kterému se počítá
+ * @param aktivni    počet pojistek s {@code platnost_od ≤ datum ≤ platnost_do}
+ * @param expirovane počet pojistek s {@code platnost_do < datum}
+ * @param podleTypu  aktivní pojistky podle názvu (nejčastější první)
+ * @param expirujiOd začátek intervalu konců platnosti (včetně)
+ * @param expirujiDo konec intervalu konců platnosti (včetně)
+ * @param expiruji   ID pojistek, jejichž platnost končí v intervalu, seřazená podle data konce
+ */
+
+public record PlatnostKDatuDto(LocalDate datum, long aktivni, long expirovane, List<LabelValueDto> podleTypu,
+                               LocalDate expirujiOd, LocalDate expirujiDo, List<Integer> expiruji) {}
@@ -0,0 +1,20 @@
+package vecera.projekt.records;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Rozložení výše škod jedné skupiny událostí (kvantily + histogram pásem).
+ *
+ * @param skupina   druh skupiny – {@code celkem} / {@code stav} / {@code typ}
+ * @param nazev     stav události nebo název pojistky (u {@code celkem} prázdné)
+ * @param pocet     počet událostí ve skupině
+ * @param p50       medián škody (relativní chyba dle {@code app.reporty.histogram.presnost})
+ * @param p90       90. percentil
+ * @param p99       99. percentil
+ * @param histogram počty v pásmech (pořadí jako popisky {@code HistogramSkod.POPISKY})
+ */
+
+public record RozdeleniSkodDto(String skupina, String nazev, long pocet,
+                               BigDecimal p50, BigDecimal p90, BigDecimal p99,
+                               List<Long> histogram) {}
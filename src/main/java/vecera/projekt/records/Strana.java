@@ -0,0 +1,41 @@
+package vecera.projekt.records;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Jedna stránka výsledků při keyset (seek) stránkování.
+ *
+ * @param polozky   položky stránky v zobrazovaném pořadí
+ * @param dalsi     kurzor pro další stránku ({@code null} = poslední stránka)
+ * @param predchozi kurzor pro předchozí stránku ({@code null} = první stránka)
+ * @param <T>       typ položky
+ */
+
+public record Strana<T>(List<T> polozky, String dalsi, String predchozi) {
+
+    /**
+     * Sestaví stránku z výsledku dotazu, který načetl o jeden řádek víc než {@code velikost}.
+     *
+     * @param nacteno   řádky v pořadí dotazu (při kroku zpět tedy obráceně)
+     * @param velikost  požadovaná velikost stránky
+     * @param dopredu   {@code true} = krok vpřed / první stránka, {@code false} = krok zpět
+     * @param sKurzorem zda dotaz navazoval na kurzor (false = první stránka)
+     * @param kurzor    převod položky na kurzor
+     */
+    public static <T> Strana<T> z(List<T> nacteno, int velikost, boolean dopredu, boolean sKurzorem,
+                                  Function<T, String> kurzor) {
+        boolean dalsiExistuje = nacteno.size() > velikost;
+        List<T> polozky = new ArrayList<>(nacteno.subList(0, Math.min(velikost, nacteno.size())));
+        if (!dopredu) Collections.reverse(polozky);
+        if (polozky.isEmpty()) return new Strana<>(List.of(), null, null);
+
+        String prvni = kurzor.apply(polozky.get(0));
+        String posledni = kurzor.apply(polozky.get(polozky.size() - 1));
+        return dopredu
+                ? new Strana<>(polozky, dalsiExistuje ? posledni : null, sKurzorem ? prvni : null)
+                : new Strana<>(polozky, posledni, dalsiExistuje ? prvni : null);
+    }
+}
@@ -0,0 +1,26 @@
+package vecera.projekt.records;
+
+import vecera.projekt.entity.StavUdalosti;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Řádek seznamu pojistných událostí – událost + jméno pojištěného + název pojistky,
+ * načtené jedním dotazem (bez LAZY vazeb, bezpečné i mimo transakci).
+ *
+ * @param id            ID události
+ * @param datum         datum události
+ * @param popis         popis
+ * @param skoda         výše škody
+ * @param stav          stav události
+ * @param pojistenyId   ID pojištěného
+ * @param jmeno         jméno pojištěného
+ * @param prijmeni      příjmení pojištěného
+ * @param pojistkaId    ID pojistky (může být {@code null})
+ * @param pojistkaNazev název pojistky (může být {@code null})
+ */
+
+public record UdalostRadekDto(Integer id, LocalDate datum, String popis, BigDecimal skoda, StavUdalosti stav,
+                              Integer pojistenyId, String jmeno, String prijmeni,
+                              Integer pojistkaId, String pojistkaNazev) {}
@@ -1,8 +1,10 @@
 package vecera.projekt.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.Pojisteny;
 
 import java.util.List;
@@ -12,7 +14,9 @@ import java.util.List;
 
  * Účel:
  * - standardní CRUD a odvozené dotazy nad pojištěnými,
- * - fulltextové vyhledávání podle ID / jména / příjmení.
+ * - fulltextové vyhledávání podle ID / jména / příjmení,
+ * - FULLTEXT hledání (MATCH ... AGAINST) seřazené podle relevance,
+ * - keyset stránkování v českém pořadí (razeni_klic, id) – hluboká stránka stojí stejně jako první.
  */
 
 public interface PojistenyRepo extends JpaRepository<Pojisteny, Integer> {
@@ -21,6 +25,30 @@ public interface PojistenyRepo extends JpaRepository<Pojisteny, Integer> {
 
     List<Pojisteny> findByPrijmeniIgnoreCaseOrderByJmenoAsc(String prijmeni);
 
+    /** Všichni pojištění v českém pořadí (bajtové porovnání předpočítaného klíče). */
+    List<Pojisteny> findAllByOrderByRazeniKlicAscIdAsc();
+
+    /** Jméno řádku bez klíče řazení (jen pro dopočet klíče). */
+    interface BezRazenihoKlice {
+        Integer getId();
+        String getPrijmeni();
+        String getJmeno();
+    }
+
+    /**
+     * Dávka řádků bez klíče řazení – jen v DB, kde sloupec ještě připouští NULL (starší schéma).
+     * Vrací projekci, ne entity: dopočet neplní persistence context.
+     */
+    @Query(value = "SELECT id, prijmeni, jmeno FROM pojisteny WHERE razeni_klic IS NULL LIMIT :limit",
+           nativeQuery = true)
+    List<BezRazenihoKlice> findBezRazenihoKlice(@Param("limit") int limit);
+
+    /** Doplní klíč řazení jednomu řádku (vlastní krátká transakce). */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE pojisteny SET razeni_klic = :klic WHERE id = :id", nativeQuery = true)
+    int updateRazeniKlic(@Param("id") int id, @Param("klic") byte[] klic);
+
     /**
      * Fulltextové vyhledávání (bez telefonu — přidáme až potvrdíme pole).
      */
@@ -31,7 +59,93 @@ public interface PojistenyRepo extends JpaRepository<Pojisteny, Integer> {
                cast(p.id as string) like concat('%', :q, '%')
             or lower(p.jmeno)       like lower(concat('%', :q, '%'))
             or lower(p.prijmeni)    like lower(concat('%', :q, '%'))
-        order by p.prijmeni, p.jmeno, p.id
+        order by p.razeniKlic, p.id
         """)
     List<Pojisteny> search(@Param("q") String q);
+
+    /**
+     * FULLTEXT hledání nad indexem {@code ft_pojisteny_text} (jmeno, prijmeni, mesto).
+     * {@code :q} je boolean-mode výraz (viz {@code FulltextHledani}); řazení dle relevance.
+     */
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        WHERE MATCH(p.jmeno, p.prijmeni, p.mesto) AGAINST (:q IN BOOLEAN MODE)
+        ORDER BY MATCH(p.jmeno, p.prijmeni, p.mesto) AGAINST (:q IN BOOLEAN MODE) DESC,
+                 p.razeni_klic, p.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> searchFulltext(@Param("q") String q, @Param("limit") int limit);
+
+    // ===== keyset (seek) stránkování podle (razeni_klic, id) =====
+    // Hledací varianty porovnávají stejná pole jako PojistenyNgramIndex (jméno, příjmení, město,
+    // číslice telefonu), aby výsledek nezávisel na tom, zda je index už postavený.
+    // Podmínka "razeni_klic >= :klic" je navíc kvůli rozsahovému čtení indexu idx_pojisteny_razeni.
+
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        ORDER BY p.razeni_klic, p.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> prvniStrana(@Param("limit") int limit);
+
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        WHERE p.razeni_klic >= :klic
+          AND (p.razeni_klic > :klic OR p.id > :id)
+        ORDER BY p.razeni_klic, p.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> stranaPo(@Param("klic") byte[] klic, @Param("id") int id, @Param("limit") int limit);
+
+    /** Krok zpět – vrací v obráceném pořadí (volající otočí). */
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        WHERE p.razeni_klic <= :klic
+          AND (p.razeni_klic < :klic OR p.id < :id)
+        ORDER BY p.razeni_klic DESC, p.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> stranaPred(@Param("klic") byte[] klic, @Param("id") int id, @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        WHERE (LOWER(p.jmeno)     LIKE LOWER(CONCAT('%', :q, '%'))
+            OR LOWER(p.prijmeni)  LIKE LOWER(CONCAT('%', :q, '%'))
+            OR LOWER(p.mesto)     LIKE LOWER(CONCAT('%', :q, '%'))
+            OR (:cislice <> '' AND REGEXP_REPLACE(p.telefon, '[^0-9]', '') LIKE CONCAT('%', :cislice, '%')))
+        ORDER BY p.razeni_klic, p.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> searchPrvniStrana(@Param("q") String q, @Param("cislice") String cislice,
+                                      @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        WHERE (LOWER(p.jmeno)     LIKE LOWER(CONCAT('%', :q, '%'))
+            OR LOWER(p.prijmeni)  LIKE LOWER(CONCAT('%', :q, '%'))
+            OR LOWER(p.mesto)     LIKE LOWER(CONCAT('%', :q, '%'))
+            OR (:cislice <> '' AND REGEXP_REPLACE(p.telefon, '[^0-9]', '') LIKE CONCAT('%', :cislice, '%')))
+          AND p.razeni_klic >= :klic
+          AND (p.razeni_klic > :klic OR p.id > :id)
+        ORDER BY p.razeni_klic, p.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> searchStranaPo(@Param("q") String q, @Param("cislice") String cislice,
+                                   @Param("klic") byte[] klic,
+                                   @Param("id") int id, @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT * FROM pojisteny p
+        WHERE (LOWER(p.jmeno)     LIKE LOWER(CONCAT('%', :q, '%'))
+            OR LOWER(p.prijmeni)  LIKE LOWER(CONCAT('%', :q, '%'))
+            OR LOWER(p.mesto)     LIKE LOWER(CONCAT('%', :q, '%'))
+            OR (:cislice <> '' AND REGEXP_REPLACE(p.telefon, '[^0-9]', '') LIKE CONCAT('%', :cislice, '%')))
+          AND p.razeni_klic <= :klic
+          AND (p.razeni_klic < :klic OR p.id < :id)
+        ORDER BY p.razeni_klic DESC, p.id DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Pojisteny> searchStranaPred(@Param("q") String q, @Param("cislice") String cislice,
+                                     @Param("klic") byte[] klic,
+                                     @Param("id") int id, @Param("limit") int limit);
 }
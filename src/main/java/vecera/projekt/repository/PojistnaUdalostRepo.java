@@ -1,42 +1,41 @@
 package vecera.projekt.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import vecera.projekt.entity.PojistnaUdalost;
 
-import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repozitář pro entitu {@link PojistnaUdalost}.
  *
  * Účel:
  * - CRUD nad pojistnými událostmi,
- * - přehledy/filtrace pro UI (řazení, vyhledávání),
- * - cílené dotazy podle typu pojistky apod.
+ * - přehledy pro UI (řazení),
+ * - cílené dotazy podle typu pojistky apod.,
+ * - výpisy a hledání po stránkách (keyset) z dotazovacího jazyka ({@link PojistnaUdalostRepoCustom}).
  */
-public interface PojistnaUdalostRepo extends JpaRepository<PojistnaUdalost, Integer> {
+public interface PojistnaUdalostRepo extends JpaRepository<PojistnaUdalost, Integer>, PojistnaUdalostRepoCustom {
 
     void deleteByTypPojisteniId(Integer typPojisteniId);
 
-    // přehledy – seřazené novější první
-    List<PojistnaUdalost> findAllByOrderByDatumDescIdDesc();
+    /** Jen vlastník události (kontrola práv) – bez načítání celé entity. */
+    @Query(value = "SELECT pojisteny_id FROM pojistna_udalost WHERE id = :id", nativeQuery = true)
+    Optional<Integer> findPojistenyIdById(@Param("id") int id);
+
+    /** Detail události i s pojištěným a pojistkou (jeden SELECT s JOINy, šablona nesahá na LAZY proxy). */
+    @EntityGraph(attributePaths = {"pojisteny", "typPojisteni"})
+    Optional<PojistnaUdalost> findWithVazbyById(Integer id);
 
+    // přehledy – seřazené novější první
     List<PojistnaUdalost> findByPojisteny_IdOrderByDatumDescIdDesc(Integer pojistenyId);
 
     // alias pro controller (pojistkaId → události)
     List<PojistnaUdalost> findByTypPojisteni_IdOrderByDatumDesc(Integer typPojisteniId);
 
-    // fulltext v popisu (case-insensitive)
-    @Query("""
-           select u
-           from PojistnaUdalost u
-           where lower(u.popis) like lower(concat('%', :q, '%'))
-           order by u.datum desc, u.id desc
-           """)
-    List<PojistnaUdalost> searchByText(@Param("q") String q);
-
     @Query("""
        select u
        from PojistnaUdalost u
@@ -44,23 +43,4 @@ public interface PojistnaUdalostRepo extends JpaRepository<PojistnaUdalost, Inte
        order by u.datum desc, u.id desc
        """)
     List<PojistnaUdalost> findByTypPojisteniIdOrderByDatumDesc(@Param("id") int id);
-
-    /** Přesný den (datum je LocalDate). */
-    @Query("""
-        select u
-        from PojistnaUdalost u
-        where u.datum = :d
-        order by u.datum desc, u.id desc
-        """)
-    List<PojistnaUdalost> findByDay(@Param("d") LocalDate d);
-
-    /** Interval dat (typicky měsíc): <from, to). */
-    @Query("""
-        select u
-        from PojistnaUdalost u
-        where u.datum >= :from and u.datum < :to
-        order by u.datum desc, u.id desc
-        """)
-    List<PojistnaUdalost> findByDateRange(@Param("from") LocalDate from,
-                                          @Param("to")   LocalDate to);
 }
@@ -0,0 +1,28 @@
+package vecera.projekt.repository;
+
+import vecera.projekt.records.FiltrUdalosti;
+import vecera.projekt.records.UdalostRadekDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Vlastní (ručně psané) dotazy nad pojistnými událostmi – dynamicky skládané z {@link FiltrUdalosti}.
+ * Implementace: {@link PojistnaUdalostRepoImpl} (Spring Data ji najde podle přípony {@code Impl}).
+ */
+public interface PojistnaUdalostRepoCustom {
+
+    /**
+     * Jeden SQL dotaz se všemi zadanými podmínkami (jen ty, které ve filtru jsou), nejvýše {@code limit} řádků
+     * jako projekce {@link UdalostRadekDto} (včetně jména pojištěného a názvu pojistky).
+     * Bez fulltextu keyset (seek) podle {@code (datum DESC, id DESC)}: krok vpřed vrací starší události
+     * za kurzorem, krok zpět novější před ním (v obráceném pořadí – nejbližší ke kurzoru první).
+     *
+     * @param fulltext    boolean-mode výraz pro {@code MATCH(popis)}; {@code null} = text přes LIKE.
+     *                    S fulltextem se řadí podle relevance a kurzor se ignoruje.
+     * @param kurzorDatum datum kurzoru; {@code null} = od začátku
+     * @param kurzorId    ID kurzoru (druhá složka klíče)
+     */
+    List<UdalostRadekDto> hledej(FiltrUdalosti filtr, String fulltext,
+                                 LocalDate kurzorDatum, int kurzorId, boolean dopredu, int limit);
+}
@@ -0,0 +1,116 @@
+package vecera.projekt.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import vecera.projekt.entity.StavUdalosti;
+import vecera.projekt.records.FiltrUdalosti;
+import vecera.projekt.records.UdalostRadekDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Skládá nativní SQL z {@link FiltrUdalosti}.
+ * <p>
+ * Pozn.:
+ * <ul>
+ *   <li>Podmínky jsou jen jednoduché sargovatelné predikáty nad sloupci ({@code stav IN}, rozsahy
+ *       {@code datum}/{@code skoda}) – MariaDB tak může použít {@code idx_udalost_stav_datum},
+ *       {@code idx_udalost_poj_datum} nebo {@code idx_udalost_datum_id}.</li>
+ *   <li>Stránkování je keyset podle {@code (datum, id)} – cena stránky nezávisí na její hloubce
+ *       a do paměti se nikdy nenačte víc než {@code limit} řádků.</li>
+ *   <li>Hodnoty jdou výhradně přes parametry, do SQL se skládají jen pevné fragmenty.</li>
+ *   <li>S fulltextem se řadí podle relevance, jinak novější první.</li>
+ *   <li>Výsledek je projekce {@link UdalostRadekDto} – jméno pojištěného a název pojistky přijdou
+ *       v tomtéž dotazu přes JOIN, takže stránka N událostí je vždy jeden SELECT (žádné N+1).</li>
+ * </ul>
+ */
+public class PojistnaUdalostRepoImpl implements PojistnaUdalostRepoCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UdalostRadekDto> hledej(FiltrUdalosti f, String fulltext,
+                                        LocalDate kurzorDatum, int kurzorId, boolean dopredu, int limit) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (f.pojistenyId() != null) {
+            where.add("u.pojisteny_id = :pojistenyId");
+            params.put("pojistenyId", f.pojistenyId());
+        }
+        if (f.stavy() != null && !f.stavy().isEmpty()) {
+            where.add("u.stav IN (:stavy)");
+            params.put("stavy", f.stavy().stream().map(StavUdalosti::name).toList());
+        }
+        if (f.od() != null) {
+            where.add("u.datum >= :od");
+            params.put("od", f.od());
+        }
+        if (f.doVyjma() != null) {
+            where.add("u.datum < :doVyjma");
+            params.put("doVyjma", f.doVyjma());
+        }
+        if (f.skodaMin() != null) {
+            where.add("u.skoda >= :skodaMin");
+            params.put("skodaMin", f.skodaMin());
+        }
+        if (f.skodaMax() != null) {
+            where.add("u.skoda <= :skodaMax");
+            params.put("skodaMax", f.skodaMax());
+        }
+
+        String order = dopredu ? "u.datum DESC, u.id DESC" : "u.datum ASC, u.id ASC";
+        if (fulltext == null && kurzorDatum != null) {
+            where.add(dopredu
+                    ? "(u.datum < :kDatum OR (u.datum = :kDatum AND u.id < :kId))"
+                    : "(u.datum > :kDatum OR (u.datum = :kDatum AND u.id > :kId))");
+            params.put("kDatum", kurzorDatum);
+            params.put("kId", kurzorId);
+        }
+        if (fulltext != null) {
+            where.add("MATCH(u.popis) AGAINST (:ft IN BOOLEAN MODE)");
+            order = "MATCH(u.popis) AGAINST (:ft IN BOOLEAN MODE) DESC, u.datum DESC, u.id DESC";
+            params.put("ft", fulltext);
+        } else if (f.text() != null && !f.text().isBlank()) {
+            where.add("LOWER(u.popis) LIKE LOWER(CONCAT('%', :text, '%'))");
+            params.put("text", f.text());
+        }
+
+        String sql = "SELECT u.id, u.datum, u.popis, u.skoda, u.stav, u.pojisteny_id,"
+                + " p.jmeno, p.prijmeni, u.typ_pojisteni_id, t.nazev"
+                + " FROM pojistna_udalost u"
+                + " JOIN pojisteny p ON p.id = u.pojisteny_id"
+                + " LEFT JOIN typ_pojisteni t ON t.id = u.typ_pojisteni_id"
+                + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + " ORDER BY " + order
+                + " LIMIT :limit";
+
+        NativeQuery<Object[]> q = em.createNativeQuery(sql).unwrap(NativeQuery.class);
+        q.addScalar("id", Integer.class)
+                .addScalar("datum", LocalDate.class)
+                .addScalar("popis", String.class)
+                .addScalar("skoda", BigDecimal.class)
+                .addScalar("stav", String.class)
+                .addScalar("pojisteny_id", Integer.class)
+                .addScalar("jmeno", String.class)
+                .addScalar("prijmeni", String.class)
+                .addScalar("typ_pojisteni_id", Integer.class)
+                .addScalar("nazev", String.class);
+        params.forEach(q::setParameter);
+        q.setParameter("limit", limit);
+
+        return q.getResultList().stream()
+                .map(r -> new UdalostRadekDto((Integer) r[0], (LocalDate) r[1], (String) r[2], (BigDecimal) r[3],
+                        StavUdalosti.valueOf((String) r[4]), (Integer) r[5], (String) r[6], (String) r[7],
+                        (Integer) r[8], (String) r[9]))
+                .toList();
+    }
+}
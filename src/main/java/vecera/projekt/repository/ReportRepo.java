@@ -5,14 +5,20 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import vecera.projekt.entity.Pojisteny;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repozitář pro reportovací a agregační dotazy (read-only).
 
  * Účel:
  * - agregace a projekce pro dashboardy a exporty (CityCount, ClaimAgg, SeriesPoint, Snapshot),
- * - kombinace JPQL a native SQL podle potřeby výkonu a dostupných funkcí.
+ * - kombinace JPQL a native SQL podle potřeby výkonu a dostupných funkcí,
+ * - řádkové agregace vrací {@link Stream} (kurzor nad ResultSetem) – volající je musí
+ *   číst v transakci a zavřít (try-with-resources); export je tak posílá rovnou do odpovědi,
+ * - pojistky a škody se čtou ze souhrnných tabulek {@code rollup_*} (viz {@code RollupRepo}) –
+ *   desítky až stovky řádků místo celých {@code typ_pojisteni} / {@code pojistna_udalost}.
 
  * Pozn.:
  * - neslouží ke změnám dat; zapisovací logika je v běžných repozitářích,
@@ -24,66 +30,118 @@ public interface ReportRepo extends JpaRepository<Pojisteny, Integer> {
     public interface MonthCountRow { String getPeriod(); Long getCount(); }
     public interface StavStatsRow { String getStav(); Long getPocet(); BigDecimal getSuma(); BigDecimal getPrumer(); }
     public interface MestoCountRow { String getMesto(); Long getPocet(); }
+    public interface MestoSkodyRow { String getMesto(); Long getPocet(); BigDecimal getSuma(); }
+    public interface SnapshotRow { Long getPocetPojistenych(); Long getAktivni(); Long getExpirovane(); BigDecimal getSumaYtd(); }
 
     // Snapshot
     @Query(value = "SELECT COUNT(*) FROM pojisteny", nativeQuery = true)
     long countPojistenych();
 
+    // Aktivní k dnešku = začátky do dneška − konce do dneška (konec = den po platnost_do)
     @Query(value = """
-        SELECT COUNT(*)
-        FROM typ_pojisteni t
-        WHERE (t.platnost_od IS NULL OR t.platnost_od <= CURRENT_DATE())
-          AND (t.platnost_do IS NULL OR t.platnost_do >= CURRENT_DATE())
+        SELECT COALESCE(SUM(r.zacatky) - SUM(r.konce),0)
+        FROM rollup_pojistka_den r
+        WHERE r.den <= CURRENT_DATE()
         """, nativeQuery = true)
     long countPojisteniAktivni();
 
     @Query(value = """
-        SELECT COUNT(*)
-        FROM typ_pojisteni t
-        WHERE (t.platnost_do IS NOT NULL AND t.platnost_do < CURRENT_DATE())
+        SELECT COALESCE(SUM(r.konce),0)
+        FROM rollup_pojistka_den r
+        WHERE r.den <= CURRENT_DATE()
         """, nativeQuery = true)
     long countPojisteniExpirovane();
 
     @Query(value = """
-        SELECT COALESCE(SUM(u.skoda),0)
-        FROM pojistna_udalost u
-        WHERE YEAR(u.datum) = YEAR(CURRENT_DATE())
+        SELECT COALESCE(SUM(r.suma),0)
+        FROM rollup_udalost_den r
+        WHERE r.den >= MAKEDATE(YEAR(CURRENT_DATE()), 1)
+          AND r.den <  MAKEDATE(YEAR(CURRENT_DATE()) + 1, 1)
         """, nativeQuery = true)
     BigDecimal sumaSkodYTD();
 
+    /** Snapshot jedním dotazem (jeden round trip místo čtyř; stejné podmínky jako dotazy výše). */
+    @Query(value = """
+        SELECT (SELECT COUNT(*) FROM pojisteny) AS pocetPojistenych,
+               COALESCE(t.zacatky - t.konce,0) AS aktivni,
+               COALESCE(t.konce,0) AS expirovane,
+               (SELECT COALESCE(SUM(r.suma),0)
+                  FROM rollup_udalost_den r
+                 WHERE r.den >= MAKEDATE(YEAR(CURRENT_DATE()), 1)
+                   AND r.den <  MAKEDATE(YEAR(CURRENT_DATE()) + 1, 1)) AS sumaYtd
+        FROM (SELECT SUM(r.zacatky) AS zacatky, SUM(r.konce) AS konce
+              FROM rollup_pojistka_den r
+              WHERE r.den <= CURRENT_DATE()) t
+        """, nativeQuery = true)
+    SnapshotRow snapshotJednimDotazem();
+
     // Aktivní pojistky podle typu (label/value)
     @Query(value = """
-        SELECT t.nazev AS label, COUNT(*) AS value
-        FROM typ_pojisteni t
-        WHERE (t.platnost_od IS NULL OR t.platnost_od <= CURRENT_DATE())
-          AND (t.platnost_do IS NULL OR t.platnost_do >= CURRENT_DATE())
-        GROUP BY t.nazev
+        SELECT r.nazev AS label, SUM(r.zacatky) - SUM(r.konce) AS value
+        FROM rollup_pojistka_den r
+        WHERE r.den <= CURRENT_DATE()
+        GROUP BY r.nazev
+        HAVING value > 0
         ORDER BY value DESC
         """, nativeQuery = true)
-    List<LabelValue> aktivniTypy();
+    Stream<LabelValue> aktivniTypy();
+
+    // Platnost k libovolnému datu (audit) – záloha, dokud není postavený index PlatnostPojistek
+    @Query(value = """
+        SELECT COALESCE(SUM(r.zacatky) - SUM(r.konce),0)
+        FROM rollup_pojistka_den r
+        WHERE r.den <= :datum
+        """, nativeQuery = true)
+    long countPojisteniAktivniK(@Param("datum") LocalDate datum);
+
+    @Query(value = """
+        SELECT COALESCE(SUM(r.konce),0)
+        FROM rollup_pojistka_den r
+        WHERE r.den <= :datum
+        """, nativeQuery = true)
+    long countPojisteniExpirovaneK(@Param("datum") LocalDate datum);
+
+    @Query(value = """
+        SELECT r.nazev AS label, SUM(r.zacatky) - SUM(r.konce) AS value
+        FROM rollup_pojistka_den r
+        WHERE r.den <= :datum
+        GROUP BY r.nazev
+        HAVING value > 0
+        ORDER BY value DESC
+        """, nativeQuery = true)
+    List<LabelValue> aktivniTypyK(@Param("datum") LocalDate datum);
 
-    // Měsíční trend nových pojistek
     @Query(value = """
-        SELECT DATE_FORMAT(t.platnost_od, '%Y-%m') AS period,
-               COUNT(*) AS count
+        SELECT t.id
         FROM typ_pojisteni t
-        WHERE t.platnost_od IS NOT NULL
-        GROUP BY DATE_FORMAT(t.platnost_od, '%Y-%m')
+        WHERE t.platnost_do BETWEEN :od AND :do
+        ORDER BY t.platnost_do, t.id
+        """, nativeQuery = true)
+    List<Integer> expirujiciPojistky(@Param("od") LocalDate od, @Param("do") LocalDate doVcetne);
+
+    // Měsíční trend nových pojistek
+    @Query(value = """
+        SELECT DATE_FORMAT(r.den, '%Y-%m') AS period,
+               SUM(r.zacatky) AS count
+        FROM rollup_pojistka_den r
+        GROUP BY DATE_FORMAT(r.den, '%Y-%m')
+        HAVING count > 0
         ORDER BY period
         """, nativeQuery = true)
-    List<MonthCountRow> mesicniNove();
+    Stream<MonthCountRow> mesicniNove();
 
     // Škody dle stavu
     @Query(value = """
-        SELECT u.stav AS stav,
-               COUNT(*) AS pocet,
-               COALESCE(SUM(u.skoda),0) AS suma,
-               COALESCE(AVG(u.skoda),0) AS prumer
-        FROM pojistna_udalost u
-        GROUP BY u.stav
+        SELECT r.stav AS stav,
+               SUM(r.pocet) AS pocet,
+               SUM(r.suma) AS suma,
+               SUM(r.suma) / SUM(r.pocet) AS prumer
+        FROM rollup_udalost_den r
+        GROUP BY r.stav
+        HAVING SUM(r.pocet) > 0
         ORDER BY pocet DESC
         """, nativeQuery = true)
-    List<StavStatsRow> skodyDleStavu();
+    Stream<StavStatsRow> skodyDleStavu();
 
     // Top města
     @Query(value = """
@@ -94,13 +152,26 @@ public interface ReportRepo extends JpaRepository<Pojisteny, Integer> {
         ORDER BY pocet DESC
         LIMIT :limit
         """, nativeQuery = true)
-    List<MestoCountRow> topMesta(@Param("limit") int limit);
+    Stream<MestoCountRow> topMesta(@Param("limit") int limit);
 
-    // (volitelné) Události po rocích
+    // Škody podle města pojištěného
     @Query(value = """
-        SELECT YEAR(u.datum) AS label, COUNT(*) AS value
+        SELECT p.mesto AS mesto, COUNT(*) AS pocet, COALESCE(SUM(u.skoda),0) AS suma
         FROM pojistna_udalost u
-        GROUP BY YEAR(u.datum)
+        JOIN pojisteny p ON p.id = u.pojisteny_id
+        WHERE p.mesto IS NOT NULL AND p.mesto <> ''
+        GROUP BY p.mesto
+        ORDER BY pocet DESC
+        LIMIT :limit
+        """, nativeQuery = true)
+    Stream<MestoSkodyRow> skodyDleMest(@Param("limit") int limit);
+
+    // (volitelné) Události po rocích
+    @Query(value = """
+        SELECT YEAR(r.den) AS label, SUM(r.pocet) AS value
+        FROM rollup_udalost_den r
+        GROUP BY YEAR(r.den)
+        HAVING value > 0
         ORDER BY label
         """, nativeQuery = true)
     List<LabelValue> claimsByYear();
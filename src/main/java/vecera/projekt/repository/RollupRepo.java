@@ -0,0 +1,156 @@
+package vecera.projekt.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import vecera.projekt.entity.Pojisteny;
+
+import java.time.LocalDate;
+
+/**
+ * Údržba souhrnných tabulek pro reporty ({@code rollup_udalost_den}, {@code rollup_pojistka_den}).
+
+ * Účel:
+ * - přičtení / odečtení příspěvku vybraných řádků ({@code :z} = +1 / -1) jedním množinovým dotazem
+ *   ({@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE}),
+ * - přestavění souhrnů ze zdrojových tabulek po rozsazích dnů (noční kontrola / první start).
+
+ * Pozn.:
+ * - volat ve stejné transakci jako zápis, který souhrn mění – odečíst před změnou, přičíst po flushi,
+ * - pojistka přispívá dvěma řádky: {@code zacatky} v den {@code platnost_od}
+ *   a {@code konce} den po {@code platnost_do} (od toho dne už aktivní není).
+ */
+
+public interface RollupRepo extends Repository<Pojisteny, Integer> {
+
+    // ===== události =====
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_udalost_den (den, stav, pocet, suma)
+        SELECT u.datum, u.stav, :z * COUNT(*), :z * COALESCE(SUM(u.skoda),0)
+        FROM pojistna_udalost u
+        WHERE u.id = :id
+        GROUP BY u.datum, u.stav
+        ON DUPLICATE KEY UPDATE pocet = pocet + VALUES(pocet), suma = suma + VALUES(suma)
+        """, nativeQuery = true)
+    void udalost(@Param("z") int z, @Param("id") int id);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_udalost_den (den, stav, pocet, suma)
+        SELECT u.datum, u.stav, :z * COUNT(*), :z * COALESCE(SUM(u.skoda),0)
+        FROM pojistna_udalost u
+        WHERE u.pojisteny_id = :pojistenyId
+        GROUP BY u.datum, u.stav
+        ON DUPLICATE KEY UPDATE pocet = pocet + VALUES(pocet), suma = suma + VALUES(suma)
+        """, nativeQuery = true)
+    void udalostiPojisteneho(@Param("z") int z, @Param("pojistenyId") int pojistenyId);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_udalost_den (den, stav, pocet, suma)
+        SELECT u.datum, u.stav, :z * COUNT(*), :z * COALESCE(SUM(u.skoda),0)
+        FROM pojistna_udalost u
+        WHERE u.typ_pojisteni_id = :pojistkaId
+        GROUP BY u.datum, u.stav
+        ON DUPLICATE KEY UPDATE pocet = pocet + VALUES(pocet), suma = suma + VALUES(suma)
+        """, nativeQuery = true)
+    void udalostiPojistky(@Param("z") int z, @Param("pojistkaId") int pojistkaId);
+
+    // ===== pojistky =====
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_pojistka_den (den, nazev, zacatky, konce)
+        SELECT x.den, x.nazev, :z * SUM(x.zacatek), :z * SUM(x.konec)
+        FROM (SELECT t.platnost_od AS den, t.nazev, 1 AS zacatek, 0 AS konec
+                FROM typ_pojisteni t WHERE t.id = :id
+              UNION ALL
+              SELECT DATE_ADD(t.platnost_do, INTERVAL 1 DAY), t.nazev, 0, 1
+                FROM typ_pojisteni t WHERE t.id = :id) x
+        GROUP BY x.den, x.nazev
+        ON DUPLICATE KEY UPDATE zacatky = zacatky + VALUES(zacatky), konce = konce + VALUES(konce)
+        """, nativeQuery = true)
+    void pojistka(@Param("z") int z, @Param("id") int id);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_pojistka_den (den, nazev, zacatky, konce)
+        SELECT x.den, x.nazev, :z * SUM(x.zacatek), :z * SUM(x.konec)
+        FROM (SELECT t.platnost_od AS den, t.nazev, 1 AS zacatek, 0 AS konec
+                FROM typ_pojisteni t WHERE t.pojisteny_id = :pojistenyId
+              UNION ALL
+              SELECT DATE_ADD(t.platnost_do, INTERVAL 1 DAY), t.nazev, 0, 1
+                FROM typ_pojisteni t WHERE t.pojisteny_id = :pojistenyId) x
+        GROUP BY x.den, x.nazev
+        ON DUPLICATE KEY UPDATE zacatky = zacatky + VALUES(zacatky), konce = konce + VALUES(konce)
+        """, nativeQuery = true)
+    void pojistkyPojisteneho(@Param("z") int z, @Param("pojistenyId") int pojistenyId);
+
+    // ===== přestavění (po rozsazích dnů, viz RollupReportu#prebuduj) =====
+
+    @Query("select min(u.datum) from PojistnaUdalost u")
+    LocalDate prvniDenUdalosti();
+
+    @Query("select max(u.datum) from PojistnaUdalost u")
+    LocalDate posledniDenUdalosti();
+
+    @Query("select min(t.platnostOd) from TypPojisteni t")
+    LocalDate prvniDenPojistek();
+
+    /** Den po nejpozdějším konci platnosti – poslední den, kdy má souhrn pojistek řádek. */
+    @Query("select max(t.platnostDo) from TypPojisteni t")
+    LocalDate posledniKonecPojistek();
+
+    @Modifying
+    @Query(value = "DELETE FROM rollup_udalost_den", nativeQuery = true)
+    void smazUdalosti();
+
+    @Modifying
+    @Query(value = "DELETE FROM rollup_udalost_den WHERE den >= :od AND den < :doVyjma", nativeQuery = true)
+    void smazUdalosti(@Param("od") LocalDate od, @Param("doVyjma") LocalDate doVyjma);
+
+    /** Řádky mimo rozsah dat (např. po smazání nejstarších událostí mimo aplikaci). */
+    @Modifying
+    @Query(value = "DELETE FROM rollup_udalost_den WHERE den < :od OR den >= :doVyjma", nativeQuery = true)
+    void smazUdalostiMimo(@Param("od") LocalDate od, @Param("doVyjma") LocalDate doVyjma);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_udalost_den (den, stav, pocet, suma)
+        SELECT u.datum, u.stav, COUNT(*), COALESCE(SUM(u.skoda),0)
+        FROM pojistna_udalost u
+        WHERE u.datum >= :od AND u.datum < :doVyjma
+        GROUP BY u.datum, u.stav
+        """, nativeQuery = true)
+    void naplnUdalosti(@Param("od") LocalDate od, @Param("doVyjma") LocalDate doVyjma);
+
+    @Modifying
+    @Query(value = "DELETE FROM rollup_pojistka_den", nativeQuery = true)
+    void smazPojistky();
+
+    @Modifying
+    @Query(value = "DELETE FROM rollup_pojistka_den WHERE den >= :od AND den < :doVyjma", nativeQuery = true)
+    void smazPojistky(@Param("od") LocalDate od, @Param("doVyjma") LocalDate doVyjma);
+
+    @Modifying
+    @Query(value = "DELETE FROM rollup_pojistka_den WHERE den < :od OR den >= :doVyjma", nativeQuery = true)
+    void smazPojistkyMimo(@Param("od") LocalDate od, @Param("doVyjma") LocalDate doVyjma);
+
+    /** Řádky souhrnu s {@code den} v rozsahu – začátky podle {@code platnost_od}, konce podle {@code platnost_do + 1}. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO rollup_pojistka_den (den, nazev, zacatky, konce)
+        SELECT x.den, x.nazev, SUM(x.zacatek), SUM(x.konec)
+        FROM (SELECT t.platnost_od AS den, t.nazev, 1 AS zacatek, 0 AS konec FROM typ_pojisteni t
+                WHERE t.platnost_od >= :od AND t.platnost_od < :doVyjma
+              UNION ALL
+              SELECT DATE_ADD(t.platnost_do, INTERVAL 1 DAY), t.nazev, 0, 1 FROM typ_pojisteni t
+                WHERE t.platnost_do >= DATE_SUB(:od, INTERVAL 1 DAY)
+                  AND t.platnost_do < DATE_SUB(:doVyjma, INTERVAL 1 DAY)) x
+        GROUP BY x.den, x.nazev
+        """, nativeQuery = true)
+    void naplnPojistky(@Param("od") LocalDate od, @Param("doVyjma") LocalDate doVyjma);
+}
@@ -3,13 +3,15 @@ package vecera.projekt.repository;
 import vecera.projekt.entity.Uzivatel;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 /**
  * Spring Data JPA repozitář pro entitu {@link Uzivatel}.
 
  * Účel:
- * - vyhledání uživatele pro autentizaci (username, case-insensitive),
+ * - vyhledání uživatele pro autentizaci přes normalizované jméno ({@code username_norm},
+ *   unikátní index) – role se načtou v tomtéž dotazu (entity graph),
  * - práce s vazbou na profil pojištěného (pojistenyId).
  */
 
@@ -20,8 +22,20 @@ public interface UzivatelRepo extends JpaRepository<Uzivatel, Integer> {
     // volitelné: pro case-insensitive login (pozor na DB kolace)
     Optional<Uzivatel> findByUsernameIgnoreCase(String username);
 
+    /** Přihlášení: {@code norm} = {@link Uzivatel#normalizuj(String)}; role JOINem, bez druhého dotazu. */
+    @EntityGraph(attributePaths = "roleNames")
+    Optional<Uzivatel> findByUsernameNorm(String norm);
+
+    boolean existsByUsernameNorm(String norm);
+
     boolean existsByUsernameIgnoreCase(String username);
 
+    /** Nový hash hesla (přehashování při přihlášení). */
+    @Modifying
+    @Transactional
+    @Query("update Uzivatel u set u.passwordHash = :hash where u.usernameNorm = :norm")
+    int updatePasswordHash(@Param("norm") String norm, @Param("hash") String hash);
+
     @Modifying
     @Query("update Uzivatel u set u.pojistenyId = :pid where u.username = :uname")
     int linkPojistenyByUsername(@Param("pid") Integer pojistenyId,
@@ -0,0 +1,127 @@
+package vecera.projekt.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.entity.Uzivatel;
+import vecera.projekt.event.UzivatelZmenen;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Omezená LRU cache načtených uživatelů ({@link PrihlasenyUzivatel}) pro přihlášení formulářem i remember-me.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Klíč = normalizované jméno ({@link Uzivatel#normalizuj(String)}); nejvýše
+ *       {@code app.cache.uzivatele.max} záznamů, nad limitem se vyhazují nejdéle nepoužité.</li>
+ *   <li>Záznam platí nejvýše {@code app.cache.uzivatele.ttl} – strop zastaralosti pro změny
+ *       provedené mimo aplikaci (přímo v DB).</li>
+ *   <li>Zneplatnění po commitu změny účtu (událost {@link UzivatelZmenen} – registrace, reset hesla,
+ *       propojení s pojištěným).</li>
+ *   <li>Volajícímu vrací vždy {@link PrihlasenyUzivatel#kopie()} – Spring Security v ní po přihlášení
+ *       vymaže hash hesla, uložená instance ho musí mít dál.</li>
+ *   <li>Počítadla zásahů / minutí / vyhození pro {@code /sprava/uzivatele}.</li>
+ * </ul>
+ * Pozn.: Neexistující jména se neukládají – cache tak nejde zahltit zkoušením náhodných jmen.
+ * Stejně jako u {@code CacheHledani} se záznam načtený souběžně se změnou uloží pod generaci
+ * platnou před načtením a po zneplatnění se už nepoužije.
+ */
+@Component
+public class CacheUzivatelu {
+
+    /** Snímek počítadel pro admin endpoint. */
+    public record Statistika(long zasahy, long minuti, long vyhozeno, long zneplatneni,
+                             int zaznamu, int max, long ttlSekund) { }
+
+    private record Zaznam(PrihlasenyUzivatel uzivatel, long generace, long platiDoNanos) { }
+
+    private final int max;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, Zaznam> zaznamy = new LinkedHashMap<>(64, 0.75f, true); // access-order = LRU
+    private final Map<String, Long> generace = new HashMap<>();
+    private long citacZneplatneni;
+    private long zakladniGenerace;
+
+    private final AtomicLong zasahy = new AtomicLong();
+    private final AtomicLong minuti = new AtomicLong();
+    private final AtomicLong vyhozeno = new AtomicLong();
+    private final AtomicLong zneplatneni = new AtomicLong();
+
+    public CacheUzivatelu(@Value("${app.cache.uzivatele.max:1000}") int max,
+                          @Value("${app.cache.uzivatele.ttl:5m}") Duration ttl) {
+        this.max = max;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /** Vrátí uživatele z cache, nebo ho načte přes {@code nacti} (výjimka = nenalezen, neukládá se). */
+    public PrihlasenyUzivatel nacti(String norm, Function<String, PrihlasenyUzivatel> nacti) {
+        if (max <= 0 || ttlNanos <= 0) return nacti.apply(norm);
+
+        long gen;
+        synchronized (this) {
+            Zaznam z = zaznamy.get(norm);
+            if (z != null && z.platiDoNanos() - System.nanoTime() > 0 && z.generace() == generace(norm)) {
+                zasahy.incrementAndGet();
+                return z.uzivatel().kopie();
+            }
+            gen = generace(norm);
+        }
+        minuti.incrementAndGet();
+
+        PrihlasenyUzivatel u = nacti.apply(norm); // mimo zámek – dotaz do DB neblokuje ostatní přihlášení
+
+        synchronized (this) {
+            if (gen == generace(norm)) {
+                zaznamy.put(norm, new Zaznam(u, gen, System.nanoTime() + ttlNanos));
+                Iterator<Zaznam> it = zaznamy.values().iterator();
+                while (zaznamy.size() > max && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                    vyhozeno.incrementAndGet();
+                }
+            }
+        }
+        return u.kopie();
+    }
+
+    /** Zneplatní jednoho uživatele (libovolný tvar jména). */
+    public synchronized void zneplatni(String username) {
+        String norm = Uzivatel.normalizuj(username);
+        if (norm == null) return;
+        zaznamy.remove(norm);
+        generace.put(norm, ++citacZneplatneni);
+        // mapa generací nesmí růst bez omezení – při přetečení se zneplatní vše najednou
+        if (generace.size() > Math.max(max, 1) * 2) {
+            zakladniGenerace = citacZneplatneni;
+            generace.clear();
+            zaznamy.clear();
+        }
+        zneplatneni.incrementAndGet();
+    }
+
+    public synchronized Statistika statistika() {
+        return new Statistika(zasahy.get(), minuti.get(), vyhozeno.get(), zneplatneni.get(),
+                zaznamy.size(), max, Duration.ofNanos(ttlNanos).toSeconds());
+    }
+
+    // ===== zneplatnění po commitu ============================================
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(UzivatelZmenen e) {
+        zneplatni(e.username());
+    }
+
+    // ===== helpers ===========================================================
+
+    private long generace(String norm) {
+        return generace.getOrDefault(norm, zakladniGenerace);
+    }
+}
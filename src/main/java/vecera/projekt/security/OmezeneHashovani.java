@@ -0,0 +1,157 @@
+package vecera.projekt.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PasswordEncoder} s omezeným počtem souběžných hashů (login, registrace, reset hesla).
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>{@code encode} / {@code matches} běží na vlastním poolu ({@code app.hesla.vlaken} vláken)
+ *       s omezenou frontou ({@code app.hesla.fronta}); vlákno požadavku jen čeká na výsledek.
+ *       Nával přihlášení tak vytíží nejvýše tolik jader, kolik má pool, a ostatní stránky běží dál.</li>
+ *   <li>Plná fronta = okamžité odmítnutí výjimkou {@link Pretizeni} (→ HTTP 503 s {@code Retry-After}).</li>
+ *   <li>Počítadla: doba hashování a čekání ve frontě (průměr, maximum), odmítnutí – {@code /sprava/hesla}.</li>
+ * </ul>
+ * Pozn.: {@code upgradeEncoding} jen deleguje (porovnává prefix/cost, nic nehashuje) – na něm stojí
+ * přehashování při přihlášení ({@code UzivatelDetailsService.updatePassword}).
+ */
+public class OmezeneHashovani implements PasswordEncoder, AutoCloseable {
+
+    /** Hashovací pool je přetížený – požadavek se má zopakovat za {@link #getRetryAfter()}. */
+    public static class Pretizeni extends AuthenticationServiceException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Duration retryAfter;
+
+        public Pretizeni(Duration retryAfter) {
+            super("Přihlašování je přetížené, zkuste to znovu za " + retryAfter.toSeconds() + " s.");
+            this.retryAfter = retryAfter;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+    }
+
+    /** Snímek počítadel pro admin endpoint. */
+    public record Statistika(int vlaken, int fronta, int veFronte, int bezi,
+                             long hotovo, long odmitnuto,
+                             double prumerHashMs, double maxHashMs,
+                             double prumerCekaniMs, double maxCekaniMs) { }
+
+    private final PasswordEncoder delegat;
+    private final ThreadPoolExecutor pool;
+    private final int fronta;
+    private final Duration retryAfter;
+
+    private final LongAdder hotovo = new LongAdder();
+    private final LongAdder odmitnuto = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder cekaniNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final AtomicLong maxCekaniNanos = new AtomicLong();
+
+    public OmezeneHashovani(PasswordEncoder delegat, int vlaken, int fronta, Duration retryAfter) {
+        this.delegat = delegat;
+        this.fronta = Math.max(1, fronta);
+        this.retryAfter = retryAfter;
+        AtomicInteger cislo = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(Math.max(1, vlaken), Math.max(1, vlaken), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.fronta), r -> {
+                    Thread t = new Thread(r, "hesla-" + cislo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return spust(() -> delegat.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return spust(() -> delegat.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegat.upgradeEncoding(encodedPassword);
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public Statistika statistika() {
+        long n = Math.max(1, hotovo.sum());
+        return new Statistika(pool.getMaximumPoolSize(), fronta, pool.getQueue().size(), pool.getActiveCount(),
+                hotovo.sum(), odmitnuto.sum(),
+                ms(hashNanos.sum() / n), ms(maxHashNanos.get()),
+                ms(cekaniNanos.sum() / n), ms(maxCekaniNanos.get()));
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    // ===== helpers ===========================================================
+
+    private <T> T spust(Callable<T> prace) {
+        long zadano = System.nanoTime();
+        Future<T> f;
+        try {
+            f = pool.submit(() -> {
+                long start = System.nanoTime();
+                zaznamenej(cekaniNanos, maxCekaniNanos, start - zadano);
+                try {
+                    return prace.call();
+                } finally {
+                    zaznamenej(hashNanos, maxHashNanos, System.nanoTime() - start);
+                    hotovo.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            odmitnuto.increment();
+            throw new Pretizeni(retryAfter);
+        }
+
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Přerušeno při ověřování hesla", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re; // např. IllegalArgumentException z delegáta
+            throw new AuthenticationServiceException("Chyba při hashování hesla", e.getCause());
+        }
+    }
+
+    private static void zaznamenej(LongAdder suma, AtomicLong max, long nanos) {
+        suma.add(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -1,11 +1,15 @@
 package vecera.projekt.security;
 
 import vecera.projekt.entity.Uzivatel;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.Serial;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -14,20 +18,59 @@ import java.util.stream.Collectors;
  * Účel:
  * - poskytuje Spring Security potřebné údaje pro autentizaci/autorizaci,
  * - mapuje názvy rolí z DB na {@link GrantedAuthority} (doplní prefix {@code ROLE_}, pokud chybí),
- * - zpřístupňuje id navázaného pojištěného pro pohodlné ověřování práv v aplikaci.
+ * - zpřístupňuje id navázaného pojištěného pro pohodlné ověřování práv v aplikaci,
+ * - po přihlášení zahodí hash hesla ({@link CredentialsContainer}) – do session se tak neukládá.
+
+ * Pozn.:
+ * - drží kopii potřebných údajů, ne entitu – serializuje se do sdílené session (SPRING_SESSION),
+ *   nesmí tedy záviset na JPA kontextu,
+ * - cache přihlášení ({@link CacheUzivatelu}) vydává pokaždé novou {@link #kopie()}; mazání hesla
+ *   tak nikdy nezasáhne instanci uloženou v cache.
  */
 
-public class PrihlasenyUzivatel implements UserDetails {
-    private final Uzivatel u;
+public class PrihlasenyUzivatel implements UserDetails, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String username;
+    private String passwordHash;
+    private final boolean enabled;
+    private final Integer pojistenyId;
+    @SuppressWarnings("serial") // vždy Set.copyOf / Set.of – neměnná a serializovatelná
+    private final Set<String> roleNames;
 
     public PrihlasenyUzivatel(Uzivatel u) {
-        this.u = u;
+        this.username = u.getUsername();
+        this.passwordHash = u.getPasswordHash();
+        this.enabled = u.isEnabled();
+        this.pojistenyId = u.getPojistenyId();
+        this.roleNames = u.getRoleNames() == null ? Set.of() : Set.copyOf(u.getRoleNames());
+    }
+
+    private PrihlasenyUzivatel(PrihlasenyUzivatel o) {
+        this.username = o.username;
+        this.passwordHash = o.passwordHash;
+        this.enabled = o.enabled;
+        this.pojistenyId = o.pojistenyId;
+        this.roleNames = o.roleNames;
+    }
+
+    /** Samostatná kopie – pro jedno přihlášení (Spring Security v ní po ověření vymaže heslo). */
+    public PrihlasenyUzivatel kopie() {
+        return new PrihlasenyUzivatel(this);
+    }
+
+    /** Volá {@code ProviderManager} po úspěšném přihlášení – hash se pak do session nedostane. */
+    @Override
+    public void eraseCredentials() {
+        this.passwordHash = null;
     }
 
     /** ID profilu pojištěného navázaného na přihlášeného uživatele (může být {@code null}). */
 
     public Integer getPojistenyId() {
-        return u.getPojistenyId();
+        return pojistenyId;
     }
 
     /**
@@ -36,25 +79,24 @@ public class PrihlasenyUzivatel implements UserDetails {
      */
 
     public boolean hasRole(String fullRole) {
-        return u.getRoleNames() != null && u.getRoleNames().stream().anyMatch(fullRole::equals);
+        return roleNames.contains(fullRole);
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        var roles = u.getRoleNames();
-        if (roles == null || roles.isEmpty()) return java.util.List.of();
+        if (roleNames.isEmpty()) return List.of();
 
         // doplní "ROLE_" pokud by v DB bylo jen "ADMIN"/"USER"
-        return roles.stream()
+        return roleNames.stream()
                 .map(r -> r != null && r.startsWith("ROLE_") ? r : "ROLE_" + r)
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
 
-    @Override public String getPassword() { return u.getPasswordHash(); }
-    @Override public String getUsername() { return u.getUsername(); }
+    @Override public String getPassword() { return passwordHash; }
+    @Override public String getUsername() { return username; }
     @Override public boolean isAccountNonExpired() { return true; }
     @Override public boolean isAccountNonLocked() { return true; }
     @Override public boolean isCredentialsNonExpired() { return true; }
-    @Override public boolean isEnabled() { return u.isEnabled(); }
+    @Override public boolean isEnabled() { return enabled; }
 }
@@ -1,5 +1,6 @@
 package vecera.projekt.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,9 +10,18 @@ import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Konfigurace Spring Security pro aplikaci PojištěníApp.
@@ -19,12 +29,16 @@ import org.springframework.security.web.SecurityFilterChain;
  * Hlavní zodpovědnosti:
  * <ul>
  *   <li>Definuje autentizaci přes {@link UserDetailsService} a zvolený {@link PasswordEncoder}
- *       (delegující encoder podporuje formáty jako {@code {bcrypt}}, {@code {noop}}, ...).</li>
+ *       (delegující encoder podporuje formáty jako {@code {bcrypt}}, {@code {noop}}, ...).
+ *       Hashuje se na omezeném poolu ({@link OmezeneHashovani}); při přetížení vrací login 503.</li>
+ *   <li>Při úspěšném přihlášení přehashuje heslo, pokud je uložené slabším cost / jiným formátem
+ *       ({@link UserDetailsPasswordService}) – změna {@code app.hesla.bcrypt-cost} nevyžaduje reset hesel.</li>
  *   <li>Nastavuje autorizaci HTTP požadavků – veřejné cesty, role pro chráněné sekce
  *       (ROLE_USER/ROLE_ADMIN), a jemnější pravidla pro detailové stránky.</li>
  *   <li>Zapíná metodu @PreAuthorize (viz {@link EnableMethodSecurity}) – lze volat např.
  *       {@code @PreAuthorize("hasRole('ADMIN')")} nebo s vlastním beanem {@code @sec}.</li>
- *   <li>Konfiguruje přihlášení (custom /login), odhlášení, chování při 401/403 a správu session.</li>
+ *   <li>Konfiguruje přihlášení (custom /login), odhlášení, chování při 401/403 a správu session
+ *       (session jsou sdílené v DB přes Spring Session JDBC – viz {@code spring.session.*}).</li>
  *   <li>Volitelně aktivuje „remember-me“ (pamatování přihlášení) – stačí mít checkbox
  *       s name="remember-me" ve formuláři.</li>
  * </ul>
@@ -38,10 +52,22 @@ public class SecurityConfig {
 
     /**
      * DelegatingPasswordEncoder: umí {noop}, {bcrypt}, … — hodí se při migraci hesel.
+     * Nová hesla jako {@code {bcrypt}} s cost {@code app.hesla.bcrypt-cost}; obalený omezeným poolem.
+     * Ostatní formáty ověřuje výchozí encoder Spring Security ({@link PasswordEncoderFactories}) –
+     * mapa se tak nepíše ručně a s novou verzí Security přibudou i nové formáty.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return org.springframework.security.crypto.factory.PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public OmezeneHashovani passwordEncoder(@Value("${app.hesla.bcrypt-cost:10}") int bcryptCost,
+                                            @Value("${app.hesla.vlaken:0}") int vlaken,
+                                            @Value("${app.hesla.fronta:64}") int fronta,
+                                            @Value("${app.hesla.retry-after:5s}") Duration retryAfter) {
+        DelegatingPasswordEncoder delegujici = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptCost)));
+        // jiné {id} než bcrypt → výchozí delegující encoder (dostane celý hash i s prefixem)
+        delegujici.setDefaultPasswordEncoderForMatches(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+
+        int n = vlaken > 0 ? vlaken : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new OmezeneHashovani(delegujici, n, fronta, retryAfter);
     }
 
     /**
@@ -50,16 +76,20 @@ public class SecurityConfig {
     @Bean
     public AuthenticationManager authenticationManager(
             UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService,
             PasswordEncoder passwordEncoder
     ) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService); // přehashování při loginu
         provider.setPasswordEncoder(passwordEncoder);
         return new ProviderManager(provider);
     }
 
     @Bean
-    SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain filterChain(HttpSecurity http,
+                                    @Value("${app.remember-me.klic:pojisteni-remember-me-key}") String rememberMeKlic) throws Exception {
+        var spatnePrihlaseni = new SimpleUrlAuthenticationFailureHandler("/login?error");
         http
                 .authorizeHttpRequests(auth -> auth
                         // statická aktiva (lepší matcher než ruční /css/** apod.)
@@ -76,6 +106,9 @@ public class SecurityConfig {
                         // ADMIN sekce – vše ostatní pod /pojistenci/** + /pojistky/**
                         .requestMatchers("/pojistenci/**", "/pojistky/**").hasRole("ADMIN")
 
+                        // provozní endpointy (cache, metriky)
+                        .requestMatchers("/sprava/**").hasRole("ADMIN")
+
                         // Události – pro oba (detailní kontrola přes @PreAuthorize)
                         .requestMatchers("/udalosti/**").hasAnyRole("USER","ADMIN")
 
@@ -86,7 +119,17 @@ public class SecurityConfig {
                 .formLogin(form -> form
                         .loginPage("/login").permitAll()
                         .loginProcessingUrl("/login")     // POST /login zpracuje Spring Security
-                        .failureUrl("/login?error")       // špatné přihlášení → zůstaň na loginu s ?error
+                        // špatné přihlášení → zůstaň na loginu s ?error; přetížené hashování → 503 + Retry-After
+                        .failureHandler((req, res, e) -> {
+                            if (e instanceof OmezeneHashovani.Pretizeni p) {
+                                res.setStatus(503);
+                                res.setHeader("Retry-After", String.valueOf(Math.max(1, p.getRetryAfter().toSeconds())));
+                                res.setContentType("text/plain;charset=UTF-8");
+                                res.getOutputStream().write(p.getMessage().getBytes(StandardCharsets.UTF_8));
+                            } else {
+                                spatnePrihlaseni.onAuthenticationFailure(req, res, e);
+                            }
+                        })
                         .defaultSuccessUrl("/", true)
                 )
 
@@ -109,7 +152,7 @@ public class SecurityConfig {
 
                 // volitelné „zapamatuj si mě“ (přidej checkbox <input name="remember-me"> do loginu)
                 .rememberMe(rm -> rm
-                        .key("pojisteni-remember-me-key") // libovolný stabilní klíč
+                        .key(rememberMeKlic) // stabilní klíč, stejný na všech uzlech
                         .tokenValiditySeconds(14 * 24 * 60 * 60)
                 )
         ;
@@ -2,6 +2,7 @@ package vecera.projekt.security;
 
 import vecera.projekt.entity.PojistnaUdalost;
 import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.index.ClenstviPojistek;
 import vecera.projekt.repository.PojistkaOsobaRepo;
 import vecera.projekt.repository.PojistnaUdalostRepo;
 import vecera.projekt.service.SpravcePojistenych;
@@ -21,6 +22,9 @@ import java.util.Objects;
  * - běžný USER může pracovat jen se „svými“ daty (podle navázaného {@code pojistenyId}),
  * - u pojistky stačí být členem v libovolné roli (POJISTNIK/POJISTENY),
  * - u události se kontroluje vlastnictví pojištěného.
+ *
+ * Členství v pojistce a vlastníka události odpovídá in-memory {@link ClenstviPojistek} (bez SQL);
+ * než se po startu postaví, jde dotaz do DB.
  */
 
 @Component("sec") // bean jména "sec" pro @PreAuthorize("... @sec.method(...) ...")
@@ -29,13 +33,16 @@ public class SecurityService {
     private final SpravcePojistenych spravce;
     private final PojistnaUdalostRepo udalostRepo;
     private final PojistkaOsobaRepo pojistkaOsobaRepo;
+    private final ClenstviPojistek clenstvi;
 
     public SecurityService(SpravcePojistenych spravce,
                            PojistnaUdalostRepo udalostRepo,
-                           PojistkaOsobaRepo pojistkaOsobaRepo) {
+                           PojistkaOsobaRepo pojistkaOsobaRepo,
+                           ClenstviPojistek clenstvi) {
         this.spravce = spravce;
         this.udalostRepo = udalostRepo;
         this.pojistkaOsobaRepo = pojistkaOsobaRepo;
+        this.clenstvi = clenstvi;
     }
 
     /* ---------- interní pomocné metody ---------- */
@@ -86,7 +93,10 @@ public class SecurityService {
     public boolean canSeePojisteni(Authentication a, int pojistkaId) {
         if (isAdmin(a)) return true;
         Integer mine = myPojId(a);
-        return mine != null && pojistkaOsobaRepo.existsMember(pojistkaId, mine);
+        if (mine == null) return false;
+        return clenstvi.isPripraven()
+                ? clenstvi.jeClenem(pojistkaId, mine)
+                : pojistkaOsobaRepo.existsMember(pojistkaId, mine);
     }
 
     /** Zda smí uživatel editovat pojistku (zde povoleno ADMIN, případně vlastník). */
@@ -102,14 +112,10 @@ public class SecurityService {
         Integer mine = myPojId(a);
         if (mine == null) return false;
 
-        return udalostRepo.findById(udalostId)
-                .map(u -> {
-                    Pojisteny p = u.getPojisteny();
-                    Integer ownerId = (p != null ? p.getId() : null);
-                    if (ownerId == null) ownerId = u.getPojistenyId(); // fallback, pokud není načtená vazba
-                    return Objects.equals(mine, ownerId);
-                })
-                .orElse(false);
+        Integer ownerId = clenstvi.isPripraven()
+                ? clenstvi.vlastnikUdalosti(udalostId)
+                : udalostRepo.findPojistenyIdById(udalostId).orElse(null);
+        return Objects.equals(mine, ownerId);
     }
 
     /** Zda smí uživatel editovat událost (stejné jako vidět). */
@@ -8,24 +8,37 @@ import org.springframework.stereotype.Service;
 /**
  * Načítá uživatele pro autentizaci podle uživatelského jména.
 
- * - Login je case-insensitive (používá {@code findByUsernameIgnoreCase}).
+ * - Login je case-insensitive: jméno se normalizuje ({@link Uzivatel#normalizuj(String)}) a hledá
+ *   přesnou shodou ve sloupci {@code username_norm} (unikátní index), role v tomtéž dotazu.
+ * - Výsledek drží {@link CacheUzivatelu} – opakované přihlášení / remember-me nejde do DB.
  * - Vrací {@link PrihlasenyUzivatel}, který adaptuje entitu {@link Uzivatel}.
+ * - {@link UserDetailsPasswordService}: po úspěšném přihlášení uloží heslo přehashované aktuálním
+ *   encoderem, pokud to {@code PasswordEncoder.upgradeEncoding} žádá (nižší bcrypt cost, {@code {noop}}, …).
  */
 
 @Service
-public class UzivatelDetailsService implements UserDetailsService {
+public class UzivatelDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UzivatelRepo uzivatelRepo;
+    private final CacheUzivatelu cache;
 
-    public UzivatelDetailsService(UzivatelRepo uzivatelRepo) {
+    public UzivatelDetailsService(UzivatelRepo uzivatelRepo, CacheUzivatelu cache) {
         this.uzivatelRepo = uzivatelRepo;
+        this.cache = cache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        String u = username == null ? "" : username.trim();
-        Uzivatel ent = uzivatelRepo.findByUsernameIgnoreCase(u)
-                .orElseThrow(() -> new UsernameNotFoundException("Uživatel neexistuje: " + u));
-        return new PrihlasenyUzivatel(ent);
+        String norm = Uzivatel.normalizuj(username == null ? "" : username);
+        return cache.nacti(norm, n -> uzivatelRepo.findByUsernameNorm(n)
+                .map(PrihlasenyUzivatel::new)
+                .orElseThrow(() -> new UsernameNotFoundException("Uživatel neexistuje: " + n)));
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        uzivatelRepo.updatePasswordHash(Uzivatel.normalizuj(user.getUsername()), newPassword);
+        cache.zneplatni(user.getUsername());
+        return loadUserByUsername(user.getUsername());
     }
 }
@@ -2,7 +2,9 @@ package vecera.projekt.service;
 
 import vecera.projekt.entity.Pojisteny;
 import vecera.projekt.entity.Uzivatel;
+import vecera.projekt.event.UzivatelZmenen;
 import vecera.projekt.repository.UzivatelRepo;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,16 +26,21 @@ import java.util.Optional;
  *   <li>Repozitáře se z controlleru nevolají přímo – orchestrace probíhá přes tuto službu.</li>
  * </ul>
  * Pozn.: Metody pro čtení jsou označeny {@code readOnly}, zápisy běží v běžné transakci.
+ * Propojení účtu s novým profilem publikuje {@link UzivatelZmenen} – přihlášený uživatel nese
+ * {@code pojistenyId}, cache přihlášení ho proto musí zapomenout.
  */
 @Service
 public class AccountService {
 
     private final UzivatelRepo uzivatelRepo;
     private final PojistenyService pojistenyService;
+    private final ApplicationEventPublisher events;
 
-    public AccountService(UzivatelRepo uzivatelRepo, PojistenyService pojistenyService) {
+    public AccountService(UzivatelRepo uzivatelRepo, PojistenyService pojistenyService,
+                          ApplicationEventPublisher events) {
         this.uzivatelRepo = uzivatelRepo;
         this.pojistenyService = pojistenyService;
+        this.events = events;
     }
 
     /** Výsledek uložení profilu – vytvořen nový vs. aktualizován stávající. */
@@ -75,6 +82,7 @@ public class AccountService {
         if (pojistenyId == null) {
             Pojisteny saved = pojistenyService.save(form);
             uzivatelRepo.linkPojistenyByUsername(saved.getId(), username);
+            events.publishEvent(new UzivatelZmenen(username));
             return SaveResult.CREATED;
         } else {
             form.setId(pojistenyId);
@@ -0,0 +1,215 @@
+package vecera.projekt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.event.PojistkaZmenena;
+import vecera.projekt.event.UdalostZmenena;
+import vecera.projekt.security.PrihlasenyUzivatel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Omezená LRU cache výsledků hledání ({@code /pojistenci?q=}, {@code /pojistky?q=}, {@code /udalosti?q=}).
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Klíč = oblast + generace oblasti + normalizovaný dotaz (trim, jedna mezera, lower-case)
+ *       + stránka (kurzor / velikost, beze změny – kurzory jsou base64url a rozlišují velikost písmen)
+ *       + rozsah viditelnosti přihlášeného uživatele ({@code ADMIN} / {@code USER:<pojistenyId>}).</li>
+ *   <li>Velikost se neměří počtem dotazů, ale „váhou“ = počet řádků výsledku; nad limitem
+ *       {@code app.cache.hledani.max-vaha} se vyhazují nejdéle nepoužité záznamy.</li>
+ *   <li>Zneplatnění po commitu zápisu (události {@link PojistenyZmenen}, {@link PojistkaZmenena},
+ *       {@link UdalostZmenena}) – zvýší se generace dotčené oblasti, nebo jen dotčených rozsahů
+ *       (změna událostí osoby X zneplatní u událostí jen {@code ADMIN} a {@code USER:X}, ostatní
+ *       uživatelé je nevidí). Staré záznamy už nikdo nepřečte a vytlačí je LRU.</li>
+ *   <li>Počítadla zásahů / minutí / vyhození pro {@code /sprava/cache}.</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Výsledek načtený souběžně se zápisem se uloží pod generaci platnou <b>před</b> načtením,
+ *       takže po zneplatnění nemůže „přežít“ zastaralý výsledek.</li>
+ *   <li>Posluchače běží až po indexech, ze kterých hledání čte ({@code @Order(PORADI)}) – jinak by
+ *       čtenář s novou generací mohl uložit výsledek z ještě neaktualizovaného indexu.</li>
+ * </ul>
+ */
+@Component
+public class CacheHledani {
+
+    /** Pořadí posluchačů – až po indexech hledání (ty mají {@code Ordered.HIGHEST_PRECEDENCE}). */
+    public static final int PORADI = Ordered.LOWEST_PRECEDENCE;
+
+    /** Oblasti cache – jedna na vyhledávací vstupní bod. */
+    public enum Oblast { POJISTENCI, POJISTKY, UDALOSTI }
+
+    /** Snímek počítadel pro admin endpoint. */
+    public record Statistika(long zasahy, long minuti, long vyhozeno, long zneplatneni,
+                             int zaznamu, long vaha, long maxVaha) { }
+
+    private record Klic(Oblast oblast, long generace, long generaceRozsahu,
+                        String dotaz, String strana, String rozsah) { }
+
+    private record Zaznam(Object hodnota, int vaha) { }
+
+    private final long maxVaha;
+
+    private final Map<Oblast, Long> generace = new EnumMap<>(Oblast.class);
+    private final Map<Oblast, Map<String, Long>> generaceRozsahu = new EnumMap<>(Oblast.class);
+    private long citacZneplatneni;
+    private final LinkedHashMap<Klic, Zaznam> zaznamy = new LinkedHashMap<>(256, 0.75f, true); // access-order = LRU
+    private long vaha;
+
+    private final AtomicLong zasahy = new AtomicLong();
+    private final AtomicLong minuti = new AtomicLong();
+    private final AtomicLong vyhozeno = new AtomicLong();
+    private final AtomicLong zneplatneni = new AtomicLong();
+
+    public CacheHledani(@Value("${app.cache.hledani.max-vaha:20000}") long maxVaha) {
+        this.maxVaha = maxVaha;
+        for (Oblast o : Oblast.values()) {
+            generace.put(o, 0L);
+            generaceRozsahu.put(o, new HashMap<>());
+        }
+    }
+
+    /** {@link #nacti(Oblast, String, String, Supplier, ToIntFunction)} pro nestránkované hledání. */
+    public <T> T nacti(Oblast oblast, String dotaz, Supplier<T> nacti, ToIntFunction<T> vahaFn) {
+        return nacti(oblast, dotaz, "", nacti, vahaFn);
+    }
+
+    /**
+     * Vrátí výsledek z cache, nebo ho načte přes {@code nacti} a uloží.
+     *
+     * @param dotaz  text hledání (normalizuje se)
+     * @param strana kurzor / velikost stránky (bere se doslova)
+     * @param vahaFn počet řádků výsledku (váha záznamu)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T nacti(Oblast oblast, String dotaz, String strana, Supplier<T> nacti, ToIntFunction<T> vahaFn) {
+        if (maxVaha <= 0) return nacti.get();
+
+        String rozsah = rozsah();
+        Klic k;
+        synchronized (this) {
+            k = new Klic(oblast, generace.get(oblast), generaceRozsahu.get(oblast).getOrDefault(rozsah, 0L),
+                    normalizuj(dotaz), strana, rozsah);
+            Zaznam z = zaznamy.get(k);
+            if (z != null) {
+                zasahy.incrementAndGet();
+                return (T) z.hodnota();
+            }
+        }
+        minuti.incrementAndGet();
+
+        T hodnota = nacti.get(); // mimo zámek – dotaz do DB neblokuje ostatní
+        int w = Math.max(1, vahaFn.applyAsInt(hodnota) + 1);
+        if (w > maxVaha) return hodnota; // obří výsledek by vytlačil všechno ostatní
+
+        synchronized (this) {
+            Zaznam puvodni = zaznamy.put(k, new Zaznam(hodnota, w));
+            if (puvodni != null) vaha -= puvodni.vaha();
+            vaha += w;
+            Iterator<Zaznam> it = zaznamy.values().iterator();
+            while (vaha > maxVaha && it.hasNext()) {
+                vaha -= it.next().vaha();
+                it.remove();
+                vyhozeno.incrementAndGet();
+            }
+        }
+        return hodnota;
+    }
+
+    /** Zneplatní oblasti (nová generace; staré záznamy odejdou přes LRU). */
+    public synchronized void zneplatni(Oblast... oblasti) {
+        for (Oblast o : oblasti) {
+            generace.put(o, ++citacZneplatneni);
+            generaceRozsahu.get(o).clear(); // klíče se starou generací oblasti už nikdo nepřečte
+        }
+        zneplatneni.incrementAndGet();
+    }
+
+    /** Zneplatní v oblasti jen dané rozsahy viditelnosti (např. {@code ADMIN}, {@code USER:42}). */
+    public synchronized void zneplatni(Oblast oblast, Collection<String> rozsahy) {
+        Map<String, Long> g = generaceRozsahu.get(oblast);
+        for (String r : rozsahy) g.put(r, ++citacZneplatneni);
+        zneplatneni.incrementAndGet();
+    }
+
+    public synchronized Statistika statistika() {
+        return new Statistika(zasahy.get(), minuti.get(), vyhozeno.get(), zneplatneni.get(),
+                zaznamy.size(), vaha, maxVaha);
+    }
+
+    // ===== zneplatnění po commitu ============================================
+
+    /**
+     * Osoba: mění seznam osob a jména u pojistek (ty vidí i ostatní členové). Úprava osoby mění
+     * u událostí jen její vlastní řádky; smazání ale kaskádou maže i její pojistky, a tím
+     * odpojí i cizí události.
+     */
+    @Order(PORADI)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistenyZmenen e) {
+        if (e.smazano()) {
+            zneplatni(Oblast.POJISTENCI, Oblast.POJISTKY, Oblast.UDALOSTI);
+        } else {
+            zneplatni(Oblast.POJISTENCI, Oblast.POJISTKY);
+            zneplatni(Oblast.UDALOSTI, rozsahyOsob(Set.of(e.id())));
+        }
+    }
+
+    /** Pojistka: seznam pojistek; u událostí se mění název pojistky a smazání maže i její události. */
+    @Order(PORADI)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(PojistkaZmenena e) {
+        zneplatni(Oblast.POJISTKY, Oblast.UDALOSTI);
+    }
+
+    /** Událost vidí jen admin a její vlastník (před zápisem i po něm). */
+    @Order(PORADI)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void naZmenu(UdalostZmenena e) {
+        zneplatni(Oblast.UDALOSTI, rozsahyOsob(e.pojistenci()));
+    }
+
+    // ===== helpers ===========================================================
+
+    private static String normalizuj(String dotaz) {
+        return dotaz == null ? "" : dotaz.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** Rozsahy, ve kterých se mohou objevit data daných osob: admin, jejich uživatelé a {@code ANON}. */
+    private static List<String> rozsahyOsob(Set<Integer> pojistenci) {
+        List<String> out = new ArrayList<>(pojistenci.size() + 2);
+        out.add("ADMIN");
+        out.add("ANON");
+        for (Integer id : pojistenci) out.add("USER:" + id);
+        return out;
+    }
+
+    /** Rozsah viditelnosti: admin vidí vše, uživatel jen své (podle navázaného pojištěného). */
+    private static String rozsah() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) return "ANON";
+        boolean admin = auth.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (admin) return "ADMIN";
+        return (auth.getPrincipal() instanceof PrihlasenyUzivatel up) ? "USER:" + up.getPojistenyId() : "ANON";
+    }
+}
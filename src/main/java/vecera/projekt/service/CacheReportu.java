@@ -0,0 +1,186 @@
+package vecera.projekt.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache výsledků reportů ({@link ReportService}) s TTL a obnovou na pozadí (stale-while-revalidate).
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Do stáří {@code app.cache.reporty.ttl} vrací uloženou hodnotu bez dotazu do DB.</li>
+ *   <li>Do stáří {@code app.cache.reporty.max-stari} vrací starou hodnotu hned a přepočet spustí
+ *       na pozadí (virtuální vlákno) – dashboard nečeká na dotaz.</li>
+ *   <li>Single-flight: na jeden klíč běží nejvýše jeden přepočet; souběžní žadatelé bez hodnoty
+ *       čekají na jeho výsledek (50 souběžných načtení dashboardu = 1 dotaz).</li>
+ *   <li>{@link #zneplatni()} zahodí vše (admin endpoint {@code /sprava/reporty/obnov}); počítadla
+ *       pro {@code GET /sprava/reporty}.</li>
+ * </ul>
+ * Pozn.: Chyba přepočtu se předá čekajícím; stará hodnota zůstává a další žádost to zkusí znovu.
+ * {@code ttl=0} cache vypíná.
+ */
+@Component
+public class CacheReportu {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheReportu.class);
+
+    /** Snímek počítadel pro admin endpoint. */
+    public record Statistika(long zasahy, long zastarale, long minuti, long sdilene, long chyby,
+                             int zaznamu, Duration ttl, Duration maxStari) { }
+
+    /** Jeden klíč: poslední hodnota + právě běžící přepočet (vše pod zámkem položky). */
+    private static final class Polozka {
+        Object hodnota;
+        long nactenoNanos;
+        boolean maHodnotu;
+        long generace;
+        CompletableFuture<Object> bezi;
+        long beziGenerace;
+    }
+
+    private final Duration ttl;
+    private final Duration maxStari;
+    private final long ttlNanos;
+    private final long maxStariNanos;
+
+    private final Map<String, Polozka> polozky = new ConcurrentHashMap<>();
+    private final AtomicLong generace = new AtomicLong();
+    private final ExecutorService vlakna = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong zasahy = new AtomicLong();
+    private final AtomicLong zastarale = new AtomicLong();
+    private final AtomicLong minuti = new AtomicLong();
+    private final AtomicLong sdilene = new AtomicLong();
+    private final AtomicLong chyby = new AtomicLong();
+
+    public CacheReportu(@Value("${app.cache.reporty.ttl:60s}") Duration ttl,
+                        @Value("${app.cache.reporty.max-stari:10m}") Duration maxStari) {
+        this.ttl = ttl;
+        this.maxStari = maxStari.compareTo(ttl) < 0 ? ttl : maxStari;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStariNanos = this.maxStari.toNanos();
+    }
+
+    /**
+     * Vrátí hodnotu pro {@code klic} – z cache, starou s obnovou na pozadí, nebo načtenou přes {@code nacti}.
+     *
+     * @param klic název reportu včetně parametrů (např. {@code "topMesta:10"})
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T nacti(String klic, Supplier<T> nacti) {
+        if (ttlNanos <= 0) return nacti.get();
+
+        Polozka p = polozky.computeIfAbsent(klic, k -> new Polozka());
+        CompletableFuture<Object> cekej;
+        boolean nacitam = false;
+        synchronized (p) {
+            if (p.maHodnotu && p.generace == generace.get()) {
+                long stari = System.nanoTime() - p.nactenoNanos;
+                if (stari < ttlNanos) {
+                    zasahy.incrementAndGet();
+                    return (T) p.hodnota;
+                }
+                if (stari < maxStariNanos) {
+                    zastarale.incrementAndGet();
+                    if (p.bezi == null) {
+                        CompletableFuture<Object> f = zacni(p);
+                        vlakna.execute(() -> obnovNaPozadi(klic, p, f, nacti));
+                    }
+                    return (T) p.hodnota;
+                }
+            }
+            if (p.bezi != null && p.beziGenerace == generace.get()) {
+                sdilene.incrementAndGet();
+                cekej = p.bezi;
+            } else {
+                // přepočet spuštěný před zneplatněním nesdílíme – doběhne, ale jeho výsledek se nepoužije
+                minuti.incrementAndGet();
+                cekej = zacni(p);
+                nacitam = true;
+            }
+        }
+        // dotaz i čekání mimo zámek položky (virtuální vlákna by v synchronized blokovala nosné vlákno)
+        if (nacitam) return (T) obnov(p, cekej, nacti);
+        try {
+            return (T) cekej.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    /** Zahodí všechny uložené hodnoty – další žádost pro každý klíč znovu načte data. */
+    public void zneplatni() {
+        generace.incrementAndGet();
+    }
+
+    public Statistika statistika() {
+        return new Statistika(zasahy.get(), zastarale.get(), minuti.get(), sdilene.get(), chyby.get(),
+                polozky.size(), ttl, maxStari);
+    }
+
+    // ===== přepočet ==========================================================
+
+    private void obnovNaPozadi(String klic, Polozka p, CompletableFuture<Object> f, Supplier<?> nacti) {
+        try {
+            obnov(p, f, nacti);
+        } catch (RuntimeException e) {
+            log.warn("Obnova reportu '{}' na pozadí selhala – zůstává stará hodnota", klic, e);
+        }
+    }
+
+    /**
+     * Spustí {@code nacti}, uloží výsledek a dokončí {@code f} (na který čekají ostatní žadatelé).
+     * Uloží se jen výsledek posledního spuštěného přepočtu položky (starší, např. z doby před
+     * {@link #zneplatni()}, se jen předá svým čekajícím).
+     */
+    private Object obnov(Polozka p, CompletableFuture<Object> f, Supplier<?> nacti) {
+        Object hodnota;
+        try {
+            hodnota = nacti.get();
+        } catch (RuntimeException e) {
+            chyby.incrementAndGet();
+            synchronized (p) {
+                if (p.bezi == f) p.bezi = null;
+            }
+            f.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (p) {
+            if (p.bezi == f) {
+                p.hodnota = hodnota;
+                p.nactenoNanos = System.nanoTime();
+                p.maHodnotu = true;
+                p.generace = p.beziGenerace;
+                p.bezi = null;
+            }
+        }
+        f.complete(hodnota);
+        return hodnota;
+    }
+
+    /** Zaregistruje nový přepočet položky (volat pod zámkem položky). */
+    private CompletableFuture<Object> zacni(Polozka p) {
+        p.bezi = new CompletableFuture<>();
+        p.beziGenerace = generace.get();
+        return p.bezi;
+    }
+
+    @PreDestroy
+    void zavri() {
+        vlakna.shutdown();
+    }
+}
@@ -0,0 +1,91 @@
+package vecera.projekt.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import vecera.projekt.records.DashboardDto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Načtení dat dashboardu {@code /reporty} – všechny agregace souběžně.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Každý dotaz ({@link ReportService}) běží na vlastním virtuálním vlákně; vlákno nemá navázanou
+ *       transakci, takže {@code @Transactional(readOnly = true)} si otevře vlastní read-only spojení.</li>
+ *   <li>Latence stránky ≈ nejpomalejší dotaz místo součtu všech (snapshot navíc jedním SQL,
+ *       viz {@code app.reporty.snapshot}).</li>
+ *   <li>{@code app.reporty.paralelne=false} vrací původní sekvenční načítání (např. při malém poolu spojení).</li>
+ *   <li>Každá agregace jde přes {@link CacheReportu} – v rámci TTL se do DB vůbec nesahá.</li>
+ * </ul>
+ * Pozn.:
+ * <ul>
+ *   <li>Souběžně běží 5 dotazů na jedno zobrazení – pool spojení (Hikari, výchozí 10) je na to potřeba dimenzovat.</li>
+ *   <li>Konzistence je jen v rámci jednoho dotazu (každý má vlastní transakci a tedy vlastní snapshot).
+ *       Zápis commitnutý mezi dotazy se tak může projevit jen v některých agregacích – např. nová
+ *       událost už ve {@code skodyDleStavu}, ale ještě ne ve {@code snapshot}. Stejně se chová
+ *       i sekvenční režim a hlavně {@link CacheReportu}, kde má každá agregace vlastní TTL.
+ *       Pro přehledový dashboard to stačí; čísla, která musí sedět mezi sebou, patří do jednoho
+ *       dotazu (viz {@code app.reporty.snapshot=jeden-dotaz}).</li>
+ * </ul>
+ */
+@Service
+public class DashboardLoader {
+
+    /** Kolik měst ukazuje dashboard. */
+    static final int TOP_MEST = 10;
+
+    private final ReportService reports;
+    private final CacheReportu cache;
+    private final boolean paralelne;
+    private final ExecutorService vlakna = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardLoader(ReportService reports, CacheReportu cache,
+                           @Value("${app.reporty.paralelne:true}") boolean paralelne) {
+        this.reports = reports;
+        this.cache = cache;
+        this.paralelne = paralelne;
+    }
+
+    public DashboardDto nacti() {
+        if (!paralelne) {
+            return new DashboardDto(
+                    cache.nacti("snapshot", reports::snapshot),
+                    cache.nacti("aktivniTypy", reports::aktivniTypy),
+                    cache.nacti("mesicniNove", reports::mesicniNove),
+                    cache.nacti("skodyDleStavu", reports::skodyDleStavu),
+                    cache.nacti("topMesta:" + TOP_MEST, () -> reports.topMesta(TOP_MEST)),
+                    cache.nacti("rozdeleniSkod", reports::rozdeleniSkod));
+        }
+
+        var snap = spust("snapshot", reports::snapshot);
+        var typy = spust("aktivniTypy", reports::aktivniTypy);
+        var mesicni = spust("mesicniNove", reports::mesicniNove);
+        var skody = spust("skodyDleStavu", reports::skodyDleStavu);
+        var mesta = spust("topMesta:" + TOP_MEST, () -> reports.topMesta(TOP_MEST));
+        var rozdeleni = cache.nacti("rozdeleniSkod", reports::rozdeleniSkod); // jen kopie sketchů, bez DB
+
+        try {
+            CompletableFuture.allOf(snap, typy, mesicni, skody, mesta).join();
+            return new DashboardDto(snap.join(), typy.join(), mesicni.join(), skody.join(), mesta.join(), rozdeleni);
+        } catch (CompletionException e) {
+            // původní výjimku z dotazu (DataAccessException apod.) předat dál beze změny
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> spust(String klic, Supplier<T> dotaz) {
+        return CompletableFuture.supplyAsync(() -> cache.nacti(klic, dotaz), vlakna);
+    }
+
+    @PreDestroy
+    void zavri() {
+        vlakna.shutdown();
+    }
+}
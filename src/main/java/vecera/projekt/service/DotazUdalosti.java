@@ -0,0 +1,192 @@
+package vecera.projekt.service;
+
+import vecera.projekt.entity.StavUdalosti;
+import vecera.projekt.index.CeskeRazeni;
+import vecera.projekt.records.FiltrUdalosti;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser dotazovacího jazyka pro pojistné události.
+ * <p>
+ * Gramatika (tokeny oddělené mezerou, hodnoty s mezerou v uvozovkách):
+ * <ul>
+ *   <li>{@code stav:NOVA} nebo {@code stav:NOVA,RESENA} – stav(y) události,</li>
+ *   <li>{@code skoda>50000}, {@code skoda>=…}, {@code skoda<…}, {@code skoda<=…}, {@code skoda=…} – výše škody
+ *       (desetinná čárka i tečka),</li>
+ *   <li>{@code od:2024-01} / {@code do:2024-06} – den nebo měsíc ve stejných formátech jako dřív
+ *       (D.M.Y, ISO, M/Y, Y-M …); {@code do:} je včetně celého dne/měsíce,</li>
+ *   <li>{@code text:"vytopeni"} nebo volná slova – hledání v popisu.</li>
+ * </ul>
+ * Dotaz, který je celý jen den nebo měsíc (např. {@code 1. 2. 2024}, {@code 3/2024}), se chová jako dřív
+ * – interval toho dne/měsíce. Neznámý klíč se bere jako text.
+ * <p>
+ * Pozn.: Regexy a formátery jsou předkompilované (statické, immutable → thread-safe).
+ */
+public final class DotazUdalosti {
+
+    /** D-M-Y (1–2 cifry dne/měsíce) po sjednocení oddělovačů na '-'. */
+    private static final DateTimeFormatter DMY = new DateTimeFormatterBuilder()
+            .parseLenient()
+            .appendPattern("d-M-uuuu")
+            .toFormatter(CeskeRazeni.CS);
+
+    /** Y-M-D (ISO-like, 1–2 cifry dne/měsíce). */
+    private static final DateTimeFormatter YMD = new DateTimeFormatterBuilder()
+            .parseLenient()
+            .appendPattern("uuuu-M-d")
+            .toFormatter();
+
+    private static final DateTimeFormatter YM = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final Pattern ODDELOVACE_DNE = Pattern.compile("[.\\s/]+");
+    private static final Pattern MESIC_ROK = Pattern.compile("^(\\d{1,2})[.\\-/ ](\\d{4})$");
+    private static final Pattern ROK_MESIC = Pattern.compile("^(\\d{4})[.\\-/ ](\\d{1,2})$");
+    private static final Pattern CARKA_MEZERA = Pattern.compile("[,\\s]+");
+
+    /** Token: {@code klic<op>hodnota} (hodnota případně v uvozovkách), nebo text v uvozovkách, nebo slovo. */
+    private static final Pattern TOKEN = Pattern.compile(
+            "(\\p{L}+)(>=|<=|:|>|<|=)(?:\"([^\"]*)\"|(\\S+))|\"([^\"]*)\"|(\\S+)");
+
+    private static final BigDecimal HALER = new BigDecimal("0.01");
+
+    private DotazUdalosti() { }
+
+    /**
+     * Rozloží dotaz na {@link FiltrUdalosti}.
+     *
+     * @throws IllegalArgumentException pokud hodnota u známého klíče není platná (stav, částka, datum)
+     */
+    public static FiltrUdalosti parse(String q) {
+        String s = q == null ? "" : q.trim();
+
+        // zpětná kompatibilita: celý dotaz = jeden den / měsíc
+        LocalDate den = den(s);
+        if (den != null) return new FiltrUdalosti(null, Set.of(), null, null, den, den.plusDays(1), null);
+        YearMonth mesic = mesic(s);
+        if (mesic != null) return new FiltrUdalosti(null, Set.of(), null, null, mesic.atDay(1), mesic.plusMonths(1).atDay(1), null);
+
+        Set<StavUdalosti> stavy = EnumSet.noneOf(StavUdalosti.class);
+        BigDecimal min = null, max = null;
+        LocalDate od = null, doVyjma = null;
+        List<String> text = new ArrayList<>();
+
+        Matcher m = TOKEN.matcher(s);
+        while (m.find()) {
+            if (m.group(1) == null) {
+                text.add(m.group(5) != null ? m.group(5) : m.group(6));
+                continue;
+            }
+            String klic = m.group(1).toLowerCase(Locale.ROOT);
+            String op = m.group(2);
+            String hodnota = m.group(3) != null ? m.group(3) : m.group(4);
+
+            switch (klic) {
+                case "stav" -> {
+                    for (String st : CARKA_MEZERA.split(hodnota)) {
+                        if (!st.isEmpty()) stavy.add(stav(st));
+                    }
+                }
+                case "skoda" -> {
+                    // škoda má 2 desetinná místa → hranice zaokrouhlené na haléře, ostré nerovnosti ± haléř
+                    BigDecimal c = castka(hodnota);
+                    BigDecimal dolu = c.setScale(2, RoundingMode.FLOOR);
+                    BigDecimal nahoru = c.setScale(2, RoundingMode.CEILING);
+                    switch (op) {
+                        case ">"  -> min = dolu.add(HALER);
+                        case ">=" -> min = nahoru;
+                        case "<"  -> max = nahoru.subtract(HALER);
+                        case "<=" -> max = dolu;
+                        default   -> { min = nahoru; max = dolu; } // víc než 2 desetinná místa → nic
+                    }
+                }
+                case "od" -> od = zacatek(hodnota);
+                case "do" -> doVyjma = konecVyjma(hodnota);
+                case "text" -> text.add(hodnota);
+                default -> text.add(m.group());
+            }
+        }
+        String t = String.join(" ", text).trim();
+        return new FiltrUdalosti(null, stavy, min, max, od, doVyjma, t.isEmpty() ? null : t);
+    }
+
+    // ===== datumy (sémantika původních tryParseDay / tryParseMonth) ==========
+
+    /** Den z více formátů: D.M.Y / D-M-Y / D/M/Y / D M Y i ISO Y-M-D; jinak {@code null}. */
+    static LocalDate den(String s) {
+        if (s == null) return null;
+        String in = s.trim();
+        String norm = ODDELOVACE_DNE.matcher(in).replaceAll("-");
+
+        try { return LocalDate.parse(norm, DMY); } catch (DateTimeParseException ignore) { }
+        try { return LocalDate.parse(norm, YMD); } catch (DateTimeParseException ignore) { }
+        try { return LocalDate.parse(in, DateTimeFormatter.ISO_LOCAL_DATE); } catch (DateTimeParseException ignore) { }
+        return null;
+    }
+
+    /** Měsíc: M/Y, M.Y, M-Y, M Y i Y-M, Y.M, Y M, případně ISO "yyyy-MM"; jinak {@code null}. */
+    static YearMonth mesic(String s) {
+        if (s == null) return null;
+        String in = s.trim();
+
+        Matcher m1 = MESIC_ROK.matcher(in);
+        if (m1.matches()) return mesic(Integer.parseInt(m1.group(2)), Integer.parseInt(m1.group(1)));
+
+        Matcher m2 = ROK_MESIC.matcher(in);
+        if (m2.matches()) return mesic(Integer.parseInt(m2.group(1)), Integer.parseInt(m2.group(2)));
+
+        try { return YearMonth.parse(in, YM); } catch (DateTimeParseException ignore) { }
+        return null;
+    }
+
+    private static YearMonth mesic(int rok, int mesic) {
+        return (mesic >= 1 && mesic <= 12) ? YearMonth.of(rok, mesic) : null;
+    }
+
+    // ===== hodnoty klíčů =====================================================
+
+    private static LocalDate zacatek(String s) {
+        LocalDate d = den(s);
+        if (d != null) return d;
+        YearMonth m = mesic(s);
+        if (m != null) return m.atDay(1);
+        throw new IllegalArgumentException("Neplatné datum: " + s);
+    }
+
+    private static LocalDate konecVyjma(String s) {
+        LocalDate d = den(s);
+        if (d != null) return d.plusDays(1);
+        YearMonth m = mesic(s);
+        if (m != null) return m.plusMonths(1).atDay(1);
+        throw new IllegalArgumentException("Neplatné datum: " + s);
+    }
+
+    private static StavUdalosti stav(String s) {
+        try {
+            return StavUdalosti.valueOf(s.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Neznámý stav: " + s);
+        }
+    }
+
+    private static BigDecimal castka(String s) {
+        try {
+            return new BigDecimal(s.replace(" ", "").replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Neplatná částka: " + s);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package vecera.projekt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Volba režimu textového hledání v DB a příprava dotazu pro MariaDB {@code MATCH ... AGAINST}.
+ * <p>
+ * Režim se nastavuje vlastností {@code app.hledani.rezim}:
+ * <ul>
+ *   <li>{@code like} (výchozí) – původní {@code LIKE '%q%'} (full scan, ale bez nároků na schéma),</li>
+ *   <li>{@code fulltext} – FULLTEXT indexy z {@code db/init.sql}, boolean mode s prefixy a řazením dle relevance.</li>
+ * </ul>
+ * Pozn.: InnoDB ve výchozím stavu neindexuje slova kratší než 3 znaky
+ * ({@code innodb_ft_min_token_size}) – takový dotaz jde vždy přes LIKE.
+ */
+@Component
+public class FulltextHledani {
+
+    /** Výchozí {@code innodb_ft_min_token_size}. */
+    static final int MIN_DELKA_SLOVA = 3;
+
+    private final boolean zapnuto;
+
+    public FulltextHledani(@Value("${app.hledani.rezim:like}") String rezim) {
+        this.zapnuto = "fulltext".equalsIgnoreCase(rezim.trim());
+    }
+
+    public boolean isZapnuto() {
+        return zapnuto;
+    }
+
+    /**
+     * Převede uživatelský dotaz na boolean-mode výraz ({@code +slovo* +slovo*}).
+     *
+     * @return výraz pro {@code AGAINST(... IN BOOLEAN MODE)}, nebo {@code null},
+     *         pokud je režim vypnutý / dotaz obsahuje krátké slovo → použij LIKE
+     */
+    public String dotaz(String q) {
+        if (!zapnuto || q == null) return null;
+
+        List<String> slova = new ArrayList<>();
+        for (String s : q.trim().split("[^\\p{L}\\p{N}]+")) {
+            if (s.isEmpty()) continue;
+            if (s.length() < MIN_DELKA_SLOVA) return null;
+            slova.add("+" + s + "*");
+        }
+        return slova.isEmpty() ? null : String.join(" ", slova);
+    }
+}
@@ -1,9 +1,11 @@
 package vecera.projekt.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vecera.projekt.event.UzivatelZmenen;
 import vecera.projekt.repository.UzivatelRepo;
 
 /**
@@ -16,6 +18,7 @@ import vecera.projekt.repository.UzivatelRepo;
  *   <li>Neprozrazuje UI, zda uživatel existuje – vrací pouze boolean (vhodné pro neutrální flash zprávy).</li>
  * </ul>
  * Pozn.: Spoléhá na JPA „dirty checking“ – není nutné explicitně volat {@code save()} po změně entity.
+ * Po změně hesla publikuje {@link UzivatelZmenen} (zneplatní cache přihlášení).
  */
 @Service
 @RequiredArgsConstructor
@@ -23,6 +26,7 @@ public class PasswordResetService {
 
     private final UzivatelRepo uzivatelRepo;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher events;
 
     @Transactional
     public boolean resetByUsername(String username, String newRawPassword) {
@@ -30,6 +34,7 @@ public class PasswordResetService {
                 .map(u -> {
                     u.setPasswordHash(passwordEncoder.encode(newRawPassword));
                     // JPA dirty checking → save() netřeba
+                    events.publishEvent(new UzivatelZmenen(u.getUsername()));
                     return true;
                 })
                 .orElse(false);
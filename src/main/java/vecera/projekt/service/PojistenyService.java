@@ -1,8 +1,10 @@
 package vecera.projekt.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.event.PojistenyZmenen;
 import vecera.projekt.repository.PojistenyRepo;
 
 import java.util.List;
@@ -14,6 +16,7 @@ import java.util.List;
  * <ul>
  *   <li>Jednoduché CRUD operace nad pojištěnými přes {@link PojistenyRepo}.</li>
  *   <li>Vyhození srozumitelné výjimky při nenalezení záznamu v metodě {@code getById}.</li>
+ *   <li>Ohlášení zápisů událostí {@link PojistenyZmenen} (synchronizace in-memory indexů).</li>
  * </ul>
  */
 
@@ -22,9 +25,13 @@ import java.util.List;
 public class PojistenyService {
 
     private final PojistenyRepo repo;
+    private final ApplicationEventPublisher events;
+    private final RollupReportu rollup;
 
-    public PojistenyService(PojistenyRepo repo) {
+    public PojistenyService(PojistenyRepo repo, ApplicationEventPublisher events, RollupReportu rollup) {
         this.repo = repo;
+        this.events = events;
+        this.rollup = rollup;
     }
 
     public List<Pojisteny> findAll() {
@@ -37,10 +44,14 @@ public class PojistenyService {
     }
 
     public Pojisteny save(Pojisteny p) {
-        return repo.save(p);
+        Pojisteny saved = repo.save(p);
+        events.publishEvent(PojistenyZmenen.ulozen(saved));
+        return saved;
     }
 
     public void delete(Integer id) {
+        rollup.odectiPojisteneho(id); // události i pojistky zmizí kaskádou
         repo.deleteById(id);
+        events.publishEvent(PojistenyZmenen.smazan(id));
     }
 }
@@ -1,8 +1,10 @@
 package vecera.projekt.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.RoleVPojistce;
+import vecera.projekt.event.PojistkaZmenena;
 import vecera.projekt.repository.PojistkaOsobaRepo;
 
 import java.util.List;
@@ -17,15 +19,18 @@ import java.util.List;
  *   <li>Přidávání/odebírání osob v pojistce s konkrétní rolí.</li>
  * </ul>
  * Pozn.: Repo je postavené na nativních SQL dotazech nad join tabulkou; entita joinu se nemapuje.
+ * Přidání/odebrání osoby publikuje {@link PojistkaZmenena} (index členství pro kontroly práv).
  */
 @Service
 @Transactional
 public class PojistkaOsobaService {
 
     private final PojistkaOsobaRepo repo;
+    private final ApplicationEventPublisher events;
 
-    public PojistkaOsobaService(PojistkaOsobaRepo repo) {
+    public PojistkaOsobaService(PojistkaOsobaRepo repo, ApplicationEventPublisher events) {
         this.repo = repo;
+        this.events = events;
     }
 
     public java.util.List<vecera.projekt.projection.OsobaRoleView> findOsobyVPojistce(int pojistkaId) {
@@ -38,9 +43,11 @@ public class PojistkaOsobaService {
 
     public void add(int pojistkaId, int osobaId, RoleVPojistce role) {
         repo.addOsobaToPojistka(pojistkaId, osobaId, role.name());
+        events.publishEvent(new PojistkaZmenena(pojistkaId));
     }
 
     public void remove(int pojistkaId, int osobaId, RoleVPojistce role) {
         repo.removeOsobaFromPojistka(pojistkaId, osobaId, role.name());
+        events.publishEvent(new PojistkaZmenena(pojistkaId));
     }
 }
@@ -1,15 +1,18 @@
 package vecera.projekt.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.PojistnaUdalost;
 import vecera.projekt.entity.TypPojisteni;
+import vecera.projekt.event.PojistkaZmenena;
 import vecera.projekt.repository.PojistkaOsobaRepo;
 import vecera.projekt.repository.PojistnaUdalostRepo;
 import vecera.projekt.repository.PojistenyRepo;
 import vecera.projekt.repository.TypPojisteniRepo;
 import vecera.projekt.projection.OsobaRoleView;
+import vecera.projekt.service.CacheHledani.Oblast;
 
 import java.util.List;
 
@@ -24,6 +27,8 @@ import java.util.List;
  *   <li>Mazání pojistky včetně kaskády pomocí repozitářů (vazby a události před smazáním typu).</li>
  * </ul>
  * Pozn.: Třída je transakční; čtecí operace jsou read-only, zápisy používají RW transakce.
+ * Hledání jde přes {@link CacheHledani}; každý zápis publikuje {@link PojistkaZmenena}, který ji po commitu zneplatní.
+ * Změny pojistek a událostí se promítají do souhrnů reportů ({@link RollupReportu}).
  */
 
 @Service
@@ -34,6 +39,9 @@ public class PojistkaService {
     private final PojistenyRepo pojistenyRepo;
     private final PojistkaOsobaRepo pojistkaOsobaRepo;
     private final PojistnaUdalostRepo pojistnaUdalostRepo;
+    private final CacheHledani cache;
+    private final ApplicationEventPublisher events;
+    private final RollupReportu rollup;
 
     /* ===== ČTENÍ ===== */
 
@@ -42,7 +50,7 @@ public class PojistkaService {
         if (q == null || q.isBlank()) {
             return typPojisteniRepo.findAllWithPojisteny();
         }
-        return typPojisteniRepo.searchWithPojisteny(q.trim());
+        return cache.nacti(Oblast.POJISTKY, q, () -> typPojisteniRepo.searchWithPojisteny(q.trim()), List::size);
     }
 
     /** Kompozit pro detail/edit obrazovku. */
@@ -68,7 +76,11 @@ public class PojistkaService {
         var p = pojistenyRepo.findById(pojistenyId)
                 .orElseThrow(() -> new IllegalArgumentException("Pojištěný " + pojistenyId + " nenalezen"));
         t.setPojisteny(p);
-        return typPojisteniRepo.save(t);
+        t.overPlatnost();
+        TypPojisteni saved = typPojisteniRepo.saveAndFlush(t);
+        rollup.prictiPojistku(saved.getId());
+        events.publishEvent(new PojistkaZmenena(saved.getId()));
+        return saved;
     }
 
     /**
@@ -84,7 +96,10 @@ public class PojistkaService {
                     .orElseThrow(() -> new IllegalArgumentException("Pojistka nenalezena: " + pojistkaId));
             t.setPojisteny(exist.getPojisteny());
         }
-        typPojisteniRepo.save(t);
+        t.overPlatnost();
+        rollup.odectiPojistku(pojistkaId);
+        typPojisteniRepo.saveAndFlush(t);
+        rollup.prictiPojistku(pojistkaId);
 
         if (pojistnikId != null) {
             var current = pojistkaOsobaRepo.findOsobaIdsByPojistkaIdAndRole(pojistkaId, "POJISTNIK");
@@ -93,22 +108,27 @@ public class PojistkaService {
             }
             pojistkaOsobaRepo.addOsobaToPojistka(pojistkaId, pojistnikId, "POJISTNIK");
         }
+        events.publishEvent(new PojistkaZmenena(pojistkaId));
     }
 
     @Transactional
     public void addOsoba(int pojistkaId, int osobaId, String role) {
         pojistkaOsobaRepo.addOsobaToPojistka(pojistkaId, osobaId, role);
+        events.publishEvent(new PojistkaZmenena(pojistkaId));
     }
 
     @Transactional
     public void removeOsoba(int pojistkaId, int osobaId, String role) {
         pojistkaOsobaRepo.removeOsobaFromPojistka(pojistkaId, osobaId, role);
+        events.publishEvent(new PojistkaZmenena(pojistkaId));
     }
 
     @Transactional
     public void deletePojistka(int pojistkaId) {
+        rollup.odectiPojistkuSUdalostmi(pojistkaId);
         pojistkaOsobaRepo.deleteByPojistkaId(pojistkaId);
         pojistnaUdalostRepo.deleteByTypPojisteniId(pojistkaId);
         typPojisteniRepo.deleteById(pojistkaId);
+        events.publishEvent(new PojistkaZmenena(pojistkaId));
     }
 }
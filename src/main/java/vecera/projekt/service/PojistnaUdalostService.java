@@ -1,18 +1,23 @@
 package vecera.projekt.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.PojistnaUdalost;
 import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.event.UdalostZmenena;
+import vecera.projekt.records.FiltrUdalosti;
+import vecera.projekt.records.Strana;
+import vecera.projekt.records.UdalostRadekDto;
 import vecera.projekt.repository.PojistnaUdalostRepo;
 import vecera.projekt.repository.PojistenyRepo;
+import vecera.projekt.service.CacheHledani.Oblast;
 
 import java.time.LocalDate;
-import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Aplikační logika pro pojistné události.
@@ -20,14 +25,18 @@ import java.util.Optional;
  * Zodpovědnosti:
  * <ul>
  *   <li>Čtení, ukládání a mazání událostí (orchestrace nad {@code PojistnaUdalostRepo}).</li>
- *   <li>Chytré vyhledávání podle data – umí rozlišit:
+ *   <li>Seznam / hledání po stránkách – keyset podle {@code (datum, id)}, viz
+ *       {@link #strana(String, Integer, String, String, Integer)}.</li>
+ *   <li>Chytré vyhledávání – dotazovací jazyk {@link DotazUdalosti}:
  *       <ul>
- *          <li>konkrétní den (D.M.Y / D-M-Y / D/M/Y / D M Y i ISO yyyy-MM-dd),</li>
- *          <li>měsíc (M/Y, M.Y, M-Y, M Y i Y-M, Y.M, Y M, ISO yyyy-MM),</li>
- *          <li>text v popisu (fallback).</li>
+ *          <li>stav ({@code stav:NOVA}), výše škody ({@code skoda>50000}),</li>
+ *          <li>období ({@code od:}/{@code do:}, den i měsíc; samotný den/měsíc jako dřív),</li>
+ *          <li>text v popisu – LIKE, nebo FULLTEXT dle {@link FulltextHledani}.</li>
  *       </ul>
  *   </li>
  *   <li>Dosazení navázané entity {@code Pojisteny}, pokud přijde jen {@code pojistenyId} z formuláře.</li>
+ *   <li>Výsledky hledání drží {@link CacheHledani}; uložení/smazání publikuje {@link UdalostZmenena}.</li>
+ *   <li>Uložení/smazání zároveň upraví souhrny reportů ({@link RollupReportu}) ve stejné transakci.</li>
  * </ul>
  * Pozn.: Třída je transakční; read-only pro čtecí metody, zápisové metody běží v RW transakci.
  */
@@ -35,58 +44,88 @@ import java.util.Optional;
 @Transactional
 public class PojistnaUdalostService {
 
+    /** Výchozí a maximální velikost stránky seznamu událostí. */
+    public static final int VYCHOZI_VELIKOST = 50;
+    public static final int MAX_VELIKOST = 200;
+
     private final PojistnaUdalostRepo repo;
     private final PojistenyRepo pojistenyRepo;
+    private final FulltextHledani fulltext;
+    private final CacheHledani cache;
+    private final ApplicationEventPublisher events;
+    private final RollupReportu rollup;
 
-    public PojistnaUdalostService(PojistnaUdalostRepo repo, PojistenyRepo pojistenyRepo) {
+    public PojistnaUdalostService(PojistnaUdalostRepo repo, PojistenyRepo pojistenyRepo, FulltextHledani fulltext,
+                                  CacheHledani cache, ApplicationEventPublisher events, RollupReportu rollup) {
         this.repo = repo;
         this.pojistenyRepo = pojistenyRepo;
+        this.fulltext = fulltext;
+        this.cache = cache;
+        this.events = events;
+        this.rollup = rollup;
     }
 
     @Transactional(readOnly = true)
     public Optional<PojistnaUdalost> getById(Integer id) {
-        return repo.findById(id);
-    }
-
-    @Transactional(readOnly = true)
-    public List<PojistnaUdalost> findAll() {
-        return repo.findAllByOrderByDatumDescIdDesc();
+        return repo.findWithVazbyById(id);
     }
 
+    /** Události jednoho pojištěného (detail osoby – typicky jednotky až desítky). */
     @Transactional(readOnly = true)
     public List<PojistnaUdalost> findByPojisteny(Integer pojistenyId) {
         return repo.findByPojisteny_IdOrderByDatumDescIdDesc(pojistenyId);
     }
 
     /**
-     * Hledání událostí: den → měsíc → text v popisu (case-insensitive).
-     * Podporované formáty:
+     * Stránka událostí (novější první) – keyset podle {@code (datum DESC, id DESC)}; paměť na požadavek
+     * je omezená velikostí stránky bez ohledu na počet událostí v DB.
+     * <p>
+     * Dotaz {@code q} je dotazovací jazyk ({@link DotazUdalosti}), např.
+     * {@code stav:NOVA skoda>50000 od:2024-01 do:2024-06 text:"vytopeni"}.
+     * Samotný den / měsíc / text funguje jako dřív:
      *  - den: D.M.Y / D-M-Y / D/M/Y / D M Y i ISO "yyyy-MM-dd"
      *  - měsíc: M/Y, M.Y, M-Y, M Y i Y-M, Y.M, Y M, případně ISO "yyyy-MM"
+     * Celý filtr jde do DB jako jeden dotaz. S FULLTEXTem vrací jen jednu stránku nejrelevantnějších.
+     * Položky jsou projekce {@link UdalostRadekDto} (i se jménem pojištěného a názvem pojistky).
+     *
+     * @param pojistenyId {@code null} = všechny (ADMIN), jinak jen události tohoto pojištěného
+     * @param po          kurzor z {@link Strana#dalsi()} – starší položky
+     * @param pred        kurzor z {@link Strana#predchozi()} – novější položky
+     * @param velikost    velikost stránky (výchozí {@value #VYCHOZI_VELIKOST}, max. {@value #MAX_VELIKOST})
      */
     @Transactional(readOnly = true)
-    public List<PojistnaUdalost> search(String q) {
+    public Strana<UdalostRadekDto> strana(String q, Integer pojistenyId, String po, String pred, Integer velikost) {
+        int n = (velikost == null || velikost < 1) ? VYCHOZI_VELIKOST : Math.min(velikost, MAX_VELIKOST);
         if (q == null || q.isBlank()) {
-            return repo.findAllByOrderByDatumDescIdDesc();
+            return nactiStranu(FiltrUdalosti.VSE.sPojistenym(pojistenyId), null, po, pred, n);
         }
-        String s = q.trim();
+        return cache.nacti(Oblast.UDALOSTI, q, pojistenyId + "|" + po + "|" + pred + "|" + n,
+                () -> hledej(q.trim(), pojistenyId, po, pred, n), st -> st.polozky().size());
+    }
 
-        // 1) přesný den
-        LocalDate day = tryParseDay(s);
-        if (day != null) {
-            return repo.findByDay(day);
+    private Strana<UdalostRadekDto> hledej(String s, Integer pojistenyId, String po, String pred, int n) {
+        FiltrUdalosti filtr;
+        try {
+            filtr = DotazUdalosti.parse(s);
+        } catch (IllegalArgumentException e) {
+            // neplatná hodnota u klíče (např. stav:XYZ) → celý dotaz jako text v popisu
+            filtr = new FiltrUdalosti(null, null, null, null, null, null, s);
         }
+        // text v popisu – FULLTEXT (pokud je zapnutý a slova nejsou krátká), jinak LIKE
+        String ft = (filtr.text() != null) ? fulltext.dotaz(filtr.text()) : null;
+        return nactiStranu(filtr.sPojistenym(pojistenyId), ft, po, pred, n);
+    }
 
-        // 2) měsíc
-        YearMonth month = tryParseMonth(s);
-        if (month != null) {
-            LocalDate from = month.atDay(1);
-            LocalDate to   = month.plusMonths(1).atDay(1); // <from, to)
-            return repo.findByDateRange(from, to);
+    private Strana<UdalostRadekDto> nactiStranu(FiltrUdalosti filtr, String ft, String po, String pred, int n) {
+        if (ft != null) {
+            // relevance se keysetem stránkovat nedá → jedna stránka nejrelevantnějších
+            return new Strana<>(repo.hledej(filtr, ft, null, 0, true, n), null, null);
         }
-
-        // 3) text v popisu
-        return repo.searchByText(s);
+        KurzorUdalosti k = KurzorUdalosti.dekoduj(pred != null ? pred : po);
+        boolean dopredu = k == null || pred == null;
+        List<UdalostRadekDto> nacteno = repo.hledej(filtr, null,
+                k == null ? null : k.datum(), k == null ? 0 : k.id(), dopredu, n + 1);
+        return Strana.z(nacteno, n, dopredu, k != null, KurzorUdalosti::zakoduj);
     }
 
     public PojistnaUdalost save(PojistnaUdalost u) {
@@ -96,75 +135,42 @@ public class PojistnaUdalostService {
                     .orElseThrow(() -> new IllegalArgumentException("Pojištěný " + u.getPojistenyId() + " nenalezen"));
             u.setPojisteny(p);
         }
-        return repo.save(u);
+        Set<Integer> pojistenci = new HashSet<>();
+        if (u.getId() != null) {
+            repo.findPojistenyIdById(u.getId()).ifPresent(pojistenci::add); // dřívější vlastník
+            rollup.odectiUdalost(u.getId());
+        }
+        PojistnaUdalost saved = repo.saveAndFlush(u);
+        rollup.prictiUdalost(saved.getId());
+        if (saved.getPojisteny() != null) pojistenci.add(saved.getPojisteny().getId());
+        events.publishEvent(new UdalostZmenena(saved.getId(), pojistenci));
+        return saved;
     }
 
     public void deleteById(Integer id) {
+        Set<Integer> pojistenci = repo.findPojistenyIdById(id).map(Set::of).orElseGet(Set::of);
+        rollup.odectiUdalost(id);
         repo.deleteById(id);
+        events.publishEvent(new UdalostZmenena(id, pojistenci));
     }
 
-    /* ---------- helpers ---------- */
-
-    /** Pokusí se naparsovat den z více formátů: D.M.Y / D-M-Y / D/M/Y / D M Y i ISO Y-M-D. */
-    private static LocalDate tryParseDay(String s) {
-        if (s == null) return null;
-        String in = s.trim();
+    /** Kurzor keyset stránkování: datum + ID, v URL jako {@code yyyy-MM-dd.id}. */
+    private record KurzorUdalosti(LocalDate datum, int id) {
 
-        // sjednotit oddělovače (., /, mezery) na '-'
-        String norm = in.replaceAll("[.\\s/]+", "-");
-
-        // D-M-Y (povolí 1–2 cifry dne/měsíce)
-        var dmy = new java.time.format.DateTimeFormatterBuilder()
-                .parseLenient()
-                .appendPattern("d-M-uuuu")
-                .toFormatter(new Locale("cs","CZ"));
-        try { return LocalDate.parse(norm, dmy); } catch (Exception ignore) {}
-
-        // Y-M-D (ISO-like, povolí 1–2 cifry dne/měsíce)
-        var ymd = new java.time.format.DateTimeFormatterBuilder()
-                .parseLenient()
-                .appendPattern("uuuu-M-d")
-                .toFormatter();
-        try { return LocalDate.parse(norm, ymd); } catch (Exception ignore) {}
-
-        // poslední pokus: čisté ISO bez normalizace
-        try { return LocalDate.parse(in, DateTimeFormatter.ISO_LOCAL_DATE); } catch (Exception ignore) {}
-
-        return null;
-    }
-
-    /** Pokusí se naparsovat měsíc: M/Y, M.Y, M-Y, M Y i Y-M, Y.M, Y M, případně ISO "yyyy-MM". */
-    private static YearMonth tryParseMonth(String s) {
-        if (s == null) return null;
-        String in = s.trim();
-
-        // 1) M-YYYY (oddělovač ., /, -, nebo mezera)
-        java.util.regex.Matcher m1 = java.util.regex.Pattern
-                .compile("^(\\d{1,2})[.\\-/ ](\\d{4})$")
-                .matcher(in);
-        if (m1.matches()) {
-            int month = Integer.parseInt(m1.group(1));
-            int year  = Integer.parseInt(m1.group(2));
-            if (month >= 1 && month <= 12) return YearMonth.of(year, month);
-            return null;
+        static String zakoduj(UdalostRadekDto u) {
+            return u.datum() + "." + u.id();
         }
 
-        // 2) YYYY-M (oddělovač ., /, -, nebo mezera)
-        java.util.regex.Matcher m2 = java.util.regex.Pattern
-                .compile("^(\\d{4})[.\\-/ ](\\d{1,2})$")
-                .matcher(in);
-        if (m2.matches()) {
-            int year  = Integer.parseInt(m2.group(1));
-            int month = Integer.parseInt(m2.group(2));
-            if (month >= 1 && month <= 12) return YearMonth.of(year, month);
-            return null;
+        /** Neplatný / chybějící kurzor → {@code null} (= první stránka). */
+        static KurzorUdalosti dekoduj(String s) {
+            if (s == null || s.isBlank()) return null;
+            int tecka = s.lastIndexOf('.');
+            if (tecka < 0) return null;
+            try {
+                return new KurzorUdalosti(LocalDate.parse(s.substring(0, tecka)), Integer.parseInt(s.substring(tecka + 1)));
+            } catch (RuntimeException e) {
+                return null;
+            }
         }
-
-        // 3) fallback ISO "yyyy-MM"
-        try {
-            return YearMonth.parse(in, DateTimeFormatter.ofPattern("yyyy-MM"));
-        } catch (Exception ignore) { }
-
-        return null;
     }
 }
@@ -1,8 +1,10 @@
 package vecera.projekt.service;
 
 import vecera.projekt.entity.Uzivatel;
+import vecera.projekt.event.UzivatelZmenen;
 import vecera.projekt.repository.UzivatelRepo;
 import vecera.projekt.dto.RegisterForm;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,8 @@ import org.springframework.transaction.annotation.Transactional;
  *   <li>Validace vstupu (username, heslo, opakování hesla) a kontrola duplicity uživatelského jména.</li>
  *   <li>Hashování hesla přes {@link PasswordEncoder} a uložení uživatele s rolí {@code ROLE_USER}.</li>
  *   <li>Převod databázových konfliktů (unique username) na srozumitelnou výjimku pro UI.</li>
+ *   <li>Duplicita se hledá přes normalizované jméno ({@code username_norm}, unikátní index).</li>
+ *   <li>Po uložení publikuje {@link UzivatelZmenen} (zneplatní případný záznam v cache přihlášení).</li>
  * </ul>
  * Pozn.: V entitě můžeš mít pole pro e-mail; zde stačí případně doplnit {@code u.setEmail(...)}.
  */
@@ -24,16 +28,18 @@ public class RegistrationService {
 
     private final UzivatelRepo uzivatelRepo;
     private final PasswordEncoder encoder;
+    private final ApplicationEventPublisher events;
 
-    public RegistrationService(UzivatelRepo uzivatelRepo, PasswordEncoder encoder) {
+    public RegistrationService(UzivatelRepo uzivatelRepo, PasswordEncoder encoder, ApplicationEventPublisher events) {
         this.uzivatelRepo = uzivatelRepo;
         this.encoder = encoder;
+        this.events = events;
     }
 
     /** Case-insensitive kontrola existence uživatele. */
     public boolean usernameExists(String username) {
         if (username == null) return false;
-        return uzivatelRepo.existsByUsernameIgnoreCase(username.trim());
+        return uzivatelRepo.existsByUsernameNorm(Uzivatel.normalizuj(username));
     }
 
     /**
@@ -57,7 +63,7 @@ public class RegistrationService {
         if (!password.equals(passwordAgain)) {
             throw new IllegalArgumentException("Hesla se neshodují.");
         }
-        if (uzivatelRepo.existsByUsernameIgnoreCase(username)) {
+        if (uzivatelRepo.existsByUsernameNorm(Uzivatel.normalizuj(username))) {
             throw new IllegalArgumentException("Uživatelské jméno je už obsazené.");
         }
 
@@ -74,6 +80,7 @@ public class RegistrationService {
             // fallback na případ, kdy DB má unique index na username
             throw new IllegalArgumentException("Uživatelské jméno je obsazené.", ex);
         }
+        events.publishEvent(new UzivatelZmenen(username));
     }
 
     private static String safeTrim(String s) {
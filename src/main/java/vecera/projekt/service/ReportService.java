@@ -1,77 +1,281 @@
 // ReportService.java
 package vecera.projekt.service;
 
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vecera.projekt.entity.Penize;
+import vecera.projekt.entity.StavUdalosti;
+import vecera.projekt.index.PlatnostPojistek;
+import vecera.projekt.index.SloupcoveUdalosti;
+import vecera.projekt.index.TopMesta;
 import vecera.projekt.repository.ReportRepo;
 import vecera.projekt.records.CityCountDto;
 import vecera.projekt.records.ClaimAggDto;
 import vecera.projekt.records.LabelValueDto;
+import vecera.projekt.records.MestoSkodyDto;
+import vecera.projekt.records.PlatnostKDatuDto;
+import vecera.projekt.records.RozdeleniSkodDto;
 import vecera.projekt.records.SeriesPoint;
 import vecera.projekt.records.SnapshotDto;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Reporty a agregace pro dashboard a exporty.
  * <p>
  * Zodpovědnosti:
  * <ul>
- *   <li>Načtení přehledového snapshotu (počty, sumy) – {@link #snapshot()}.</li>
+ *   <li>Načtení přehledového snapshotu (počty, sumy) – {@link #snapshot()}; dle {@code app.reporty.snapshot}
+ *       jedním SQL ({@code jeden-dotaz}, výchozí) nebo čtyřmi samostatnými dotazy ({@code oddelene}).</li>
  *   <li>Agregace aktivních typů pojistění do dvojic "label → value" – {@link #aktivniTypy()}.</li>
+ *   <li>Platnost pojistek k libovolnému datu (aktivní, expirované, po názvech, expirující v intervalu)
+ *       – {@link #platnostKDatu(LocalDate, LocalDate, LocalDate)}.</li>
  *   <li>Časová řada nových položek po měsících – {@link #mesicniNove()}.</li>
  *   <li>Souhrny škod podle stavu (počet, suma, průměr) – {@link #skodyDleStavu()}.</li>
- *   <li>Top města podle počtu – {@link #topMesta(int)}.</li>
+ *   <li>Top města podle počtu – {@link #topMesta(int)}; při {@code app.reporty.top-mesta=odhad} z přibližné
+ *       struktury {@link TopMesta} (Count-Min), přesný SQL výsledek vždy přes {@link #topMestaPresne(int, Consumer)}.</li>
+ *   <li>Události po rocích a škody po městech – {@link #udalostiPoRocich()}, {@link #skodyDleMest(int)}.</li>
+ *   <li>Rozložení škod (p50/p90/p99 + histogram) celkem, po stavech a typech pojistek – {@link #rozdeleniSkod()};
+ *       jen ze sloupcového skladu (průběžně udržované sketche), bez něj prázdné.</li>
  * </ul>
  * Pozn.:
  * <ul>
  *   <li>Třída je primárně read-only nad {@link ReportRepo} a mapuje výsledky do vlastních immutable
  *       {@code record} DTO (viz balíček {@code vecera.projekt.records}).</li>
  *   <li>Logika je tenká; těžiště dotazů je v repository (nativní/JPQL).</li>
+ *   <li>Řádkové reporty mají i variantu s {@link Consumer} – pro streamovaný export bez mezisouboru v paměti.</li>
+ *   <li>Agregace nad událostmi (stavy, roky, města, škody YTD) počítá při {@code app.reporty.udalosti=pamet}
+ *       sloupcový sklad {@link SloupcoveUdalosti}; dokud není načtený (nebo při {@code db}), jdou do DB.
+ *       Částky se sčítají v haléřích ({@link Penize}), na {@link BigDecimal} se převádí až výsledek v DTO.</li>
+ *   <li>Počty aktivních / expirovaných pojistek (i po názvech) bere při {@code app.reporty.platnost=pamet}
+ *       z intervalového indexu {@link PlatnostPojistek}; jinak (a než se postaví) ze souhrnů {@code rollup_pojistka_den}.</li>
  * </ul>
  */
 @Service
-@RequiredArgsConstructor
 public class ReportService {
 
     private final ReportRepo repo;
+    private final SloupcoveUdalosti sklad;
+    private final TopMesta odhadMest;
+    private final PlatnostPojistek platnost;
+    private final boolean snapshotJednimDotazem;
+    private final boolean udalostiVPameti;
+    private final boolean mestaOdhadem;
+    private final boolean platnostVPameti;
+
+    public ReportService(ReportRepo repo, SloupcoveUdalosti sklad, TopMesta odhadMest, PlatnostPojistek platnost,
+                         @Value("${app.reporty.snapshot:jeden-dotaz}") String snapshotRezim,
+                         @Value("${app.reporty.udalosti:pamet}") String udalostiRezim,
+                         @Value("${app.reporty.top-mesta:presne}") String mestaRezim,
+                         @Value("${app.reporty.platnost:pamet}") String platnostRezim) {
+        this.repo = repo;
+        this.sklad = sklad;
+        this.odhadMest = odhadMest;
+        this.platnost = platnost;
+        this.snapshotJednimDotazem = !"oddelene".equalsIgnoreCase(snapshotRezim.trim());
+        this.udalostiVPameti = !"db".equalsIgnoreCase(udalostiRezim.trim());
+        this.mestaOdhadem = "odhad".equalsIgnoreCase(mestaRezim.trim());
+        this.platnostVPameti = !"db".equalsIgnoreCase(platnostRezim.trim());
+    }
 
     @Transactional(readOnly = true)
     public SnapshotDto snapshot() {
+        if (snapshotJednimDotazem) {
+            var r = repo.snapshotJednimDotazem();
+            BigDecimal ytd = zeSkladu() ? sumaSkodYtdZeSkladu() : r.getSumaYtd();
+            if (zIndexu()) {
+                LocalDate dnes = LocalDate.now();
+                return new SnapshotDto(r.getPocetPojistenych(), platnost.aktivni(dnes), platnost.expirovane(dnes), ytd);
+            }
+            return new SnapshotDto(r.getPocetPojistenych(), r.getAktivni(), r.getExpirovane(), ytd);
+        }
+        LocalDate dnes = LocalDate.now();
         return new SnapshotDto(
                 repo.countPojistenych(),
-                repo.countPojisteniAktivni(),
-                repo.countPojisteniExpirovane(),
-                repo.sumaSkodYTD()
+                zIndexu() ? platnost.aktivni(dnes) : repo.countPojisteniAktivni(),
+                zIndexu() ? platnost.expirovane(dnes) : repo.countPojisteniExpirovane(),
+                zeSkladu() ? sumaSkodYtdZeSkladu() : repo.sumaSkodYTD()
         );
     }
 
     @Transactional(readOnly = true)
     public List<LabelValueDto> aktivniTypy() {
-        return repo.aktivniTypy().stream()
-                .map(r -> new LabelValueDto(r.getLabel(), r.getValue()))
-                .toList();
+        if (zIndexu()) return platnost.aktivniPodleNazvu(LocalDate.now());
+        try (var rows = repo.aktivniTypy()) {
+            return rows.map(ReportService::labelValue).toList();
+        }
+    }
+
+    /** Streamovaná varianta pro export – řádky jdou do {@code radek} tak, jak přicházejí z DB. */
+    @Transactional(readOnly = true)
+    public void aktivniTypy(Consumer<LabelValueDto> radek) {
+        if (zIndexu()) {
+            platnost.aktivniPodleNazvu(LocalDate.now()).forEach(radek);
+            return;
+        }
+        try (var rows = repo.aktivniTypy()) {
+            rows.map(ReportService::labelValue).forEach(radek);
+        }
+    }
+
+    /**
+     * Platnost pojistek k datu {@code datum} a pojistky expirující v {@code [expirujiOd, expirujiDo]}.
+     * Z indexu v paměti (binární hledání), jinak ze souhrnů v DB.
+     */
+    @Transactional(readOnly = true)
+    public PlatnostKDatuDto platnostKDatu(LocalDate datum, LocalDate expirujiOd, LocalDate expirujiDo) {
+        if (zIndexu()) {
+            return new PlatnostKDatuDto(datum, platnost.aktivni(datum), platnost.expirovane(datum),
+                    platnost.aktivniPodleNazvu(datum), expirujiOd, expirujiDo,
+                    platnost.expirujici(expirujiOd, expirujiDo));
+        }
+        return new PlatnostKDatuDto(datum, repo.countPojisteniAktivniK(datum), repo.countPojisteniExpirovaneK(datum),
+                repo.aktivniTypyK(datum).stream().map(ReportService::labelValue).toList(), expirujiOd, expirujiDo,
+                repo.expirujiciPojistky(expirujiOd, expirujiDo));
     }
 
     @Transactional(readOnly = true)
     public List<SeriesPoint> mesicniNove() {
-        return repo.mesicniNove().stream()
-                .map(r -> new SeriesPoint(r.getPeriod(), r.getCount()))
-                .toList();
+        try (var rows = repo.mesicniNove()) {
+            return rows.map(ReportService::seriesPoint).toList();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void mesicniNove(Consumer<SeriesPoint> radek) {
+        try (var rows = repo.mesicniNove()) {
+            rows.map(ReportService::seriesPoint).forEach(radek);
+        }
     }
 
     @Transactional(readOnly = true)
     public List<ClaimAggDto> skodyDleStavu() {
-        return repo.skodyDleStavu().stream()
-                .map(r -> new ClaimAggDto(r.getStav(), r.getPocet(), r.getSuma(), r.getPrumer()))
-                .toList();
+        if (zeSkladu()) return skodyDleStavuZeSkladu();
+        try (var rows = repo.skodyDleStavu()) {
+            return rows.map(ReportService::claimAgg).toList();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void skodyDleStavu(Consumer<ClaimAggDto> radek) {
+        if (zeSkladu()) {
+            skodyDleStavuZeSkladu().forEach(radek);
+            return;
+        }
+        try (var rows = repo.skodyDleStavu()) {
+            rows.map(ReportService::claimAgg).forEach(radek);
+        }
+    }
+
+    /** Počet událostí po rocích (label = rok). */
+    @Transactional(readOnly = true)
+    public List<LabelValueDto> udalostiPoRocich() {
+        if (zeSkladu()) {
+            return sklad.poRocich().stream().map(s -> new LabelValueDto(s.klic(), s.pocet())).toList();
+        }
+        return repo.claimsByYear().stream().map(ReportService::labelValue).toList();
+    }
+
+    /** Počet a součet škod podle města pojištěného (nejvíc událostí první). */
+    @Transactional(readOnly = true)
+    public List<MestoSkodyDto> skodyDleMest(int limit) {
+        if (zeSkladu()) {
+            return sklad.poMestech(limit).stream().map(s -> new MestoSkodyDto(s.klic(), s.pocet(), s.suma().toBigDecimal())).toList();
+        }
+        try (var rows = repo.skodyDleMest(limit)) {
+            return rows.map(r -> new MestoSkodyDto(r.getMesto(), r.getPocet(), r.getSuma())).toList();
+        }
     }
 
     @Transactional(readOnly = true)
     public List<CityCountDto> topMesta(int limit) {
-        return repo.topMesta(limit).stream()
-                .map(r -> new CityCountDto(r.getMesto(), r.getPocet()))
-                .toList();
+        if (mestaOdhadem && odhadMest.isPripraven()) return odhadMest.top(limit);
+        try (var rows = repo.topMesta(limit)) {
+            return rows.map(ReportService::cityCount).toList();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void topMesta(int limit, Consumer<CityCountDto> radek) {
+        if (mestaOdhadem && odhadMest.isPripraven()) {
+            odhadMest.top(limit).forEach(radek);
+            return;
+        }
+        topMestaPresne(limit, radek);
+    }
+
+    /** Přesné pořadí měst dotazem do DB bez ohledu na režim (audit). */
+    @Transactional(readOnly = true)
+    public void topMestaPresne(int limit, Consumer<CityCountDto> radek) {
+        try (var rows = repo.topMesta(limit)) {
+            rows.map(ReportService::cityCount).forEach(radek);
+        }
+    }
+
+    /** Rozložení škod; prázdný seznam, dokud sklad není načtený (nebo při {@code app.reporty.udalosti=db}). */
+    public List<RozdeleniSkodDto> rozdeleniSkod() {
+        if (!zeSkladu()) return List.of();
+        return sklad.rozdeleni().stream().map(r -> {
+            var h = r.histogram();
+            return new RozdeleniSkodDto(r.skupina(), r.klic(), h.getPocet(),
+                    h.kvantil(0.5).toBigDecimal(), h.kvantil(0.9).toBigDecimal(), h.kvantil(0.99).toBigDecimal(),
+                    Arrays.stream(h.pasma()).boxed().toList());
+        }).toList();
+    }
+
+    /* ---------- index platnosti pojistek ---------- */
+
+    private boolean zIndexu() {
+        return platnostVPameti && platnost.isPripraven();
+    }
+
+    /* ---------- sloupcový sklad událostí ---------- */
+
+    private boolean zeSkladu() {
+        return udalostiVPameti && sklad.isPripraven();
+    }
+
+    private BigDecimal sumaSkodYtdZeSkladu() {
+        LocalDate zacatekRoku = LocalDate.now().withDayOfYear(1);
+        return sklad.sumaZaObdobi(zacatekRoku, zacatekRoku.plusYears(1)).toBigDecimal();
+    }
+
+    /** Stejný tvar jako {@code ReportRepo.skodyDleStavu} – jen stavy s událostmi, nejčastější první. */
+    private List<ClaimAggDto> skodyDleStavuZeSkladu() {
+        var v = sklad.poStavech();
+        List<ClaimAggDto> out = new ArrayList<>();
+        for (StavUdalosti s : StavUdalosti.values()) {
+            long pocet = v.pocet()[s.ordinal()];
+            if (pocet == 0) continue;
+            Penize suma = v.suma()[s.ordinal()];
+            out.add(new ClaimAggDto(s.name(), pocet, suma.toBigDecimal(), suma.deleno(pocet).toBigDecimal()));
+        }
+        out.sort(Comparator.comparingLong(ClaimAggDto::pocet).reversed());
+        return out;
+    }
+
+    /* ---------- mapování řádků ---------- */
+
+    private static LabelValueDto labelValue(ReportRepo.LabelValue r) {
+        return new LabelValueDto(r.getLabel(), r.getValue());
+    }
+
+    private static SeriesPoint seriesPoint(ReportRepo.MonthCountRow r) {
+        return new SeriesPoint(r.getPeriod(), r.getCount());
+    }
+
+    private static ClaimAggDto claimAgg(ReportRepo.StavStatsRow r) {
+        return new ClaimAggDto(r.getStav(), r.getPocet(), r.getSuma(), r.getPrumer());
+    }
+
+    private static CityCountDto cityCount(ReportRepo.MestoCountRow r) {
+        return new CityCountDto(r.getMesto(), r.getPocet());
     }
 }
@@ -0,0 +1,28 @@
+package vecera.projekt.service;
+
+import java.util.Optional;
+
+/**
+ * Úložiště jednorázových tokenů pro obnovu hesla.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Vydání tokenu pro uživatelské jméno s platností {@code app.reset.ttl}; na jedno (normalizované)
+ *       jméno nejvýše {@code app.reset.max-na-uzivatele} platných tokenů – nejstarší se zahodí.</li>
+ *   <li>Ověření tokenu (formulář) a jeho atomické spotřebování (uložení hesla) – token projde jen jednou.</li>
+ *   <li>Prošlé tokeny úložiště samo odstraňuje, paměť / tabulka neroste bez omezení.</li>
+ * </ul>
+ * Implementace dle {@code app.reset.uloziste}: {@code pamet} ({@link ResetTokenyVPameti}, výchozí)
+ * nebo {@code db} ({@link ResetTokenyJdbc} – přežije restart a sdílí se mezi uzly).
+ */
+public interface ResetTokeny {
+
+    /** Vydá nový token pro {@code username} (jméno se neověřuje – neprozrazujeme existenci účtu). */
+    String vydej(String username);
+
+    /** Uživatelské jméno platného tokenu; prošlý / neznámý → prázdné. */
+    Optional<String> overUzivatele(String token);
+
+    /** Jako {@link #overUzivatele(String)}, ale token zároveň zneplatní (souběžně uspěje jen jedno volání). */
+    Optional<String> spotrebuj(String token);
+}
@@ -0,0 +1,104 @@
+package vecera.projekt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import vecera.projekt.entity.Uzivatel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Tokeny pro obnovu hesla v tabulce {@code reset_token} – přežijí restart a fungují na více uzlech.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Ukládá jen SHA-256 tokenu (únik tabulky neprozradí použitelné odkazy) a jméno uživatele.</li>
+ *   <li>Platnost počítá hodinami DB ({@code NOW(3)}) – uzly se nemusí shodnout na čase.</li>
+ *   <li>Po vydání smaže nejstarší tokeny jména nad {@code app.reset.max-na-uzivatele}.</li>
+ *   <li>Spotřebování = {@code DELETE} platného tokenu; uspěje jen ten, komu smazání vrátí 1 řádek.</li>
+ *   <li>Prošlé tokeny maže po dávkách podle {@code app.reset.uklid-cron} (index na {@code plati_do}).</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "app.reset.uloziste", havingValue = "db")
+public class ResetTokenyJdbc implements ResetTokeny {
+
+    private static final int DAVKA_UKLIDU = 1000;
+
+    private final JdbcTemplate jdbc;
+    private final long ttlMikro;
+    private final int maxNaUzivatele;
+
+    public ResetTokenyJdbc(JdbcTemplate jdbc,
+                           @Value("${app.reset.ttl:30m}") Duration ttl,
+                           @Value("${app.reset.max-na-uzivatele:3}") int maxNaUzivatele) {
+        this.jdbc = jdbc;
+        this.ttlMikro = ttl.toNanos() / 1000;
+        this.maxNaUzivatele = Math.max(1, maxNaUzivatele);
+    }
+
+    @Override
+    @Transactional
+    public String vydej(String username) {
+        String token = UUID.randomUUID().toString();
+        String norm = Uzivatel.normalizuj(username);
+        jdbc.update("""
+                INSERT INTO reset_token (token_hash, username, username_norm, vytvoren, plati_do)
+                VALUES (?, ?, ?, NOW(3), NOW(3) + INTERVAL ? MICROSECOND)
+                """, hash(token), username, norm, ttlMikro);
+
+        List<String> nadLimit = jdbc.queryForList("""
+                SELECT token_hash FROM reset_token
+                WHERE username_norm = ?
+                ORDER BY vytvoren DESC, token_hash
+                LIMIT 1000 OFFSET ?
+                """, String.class, norm, maxNaUzivatele);
+        for (String h : nadLimit) jdbc.update("DELETE FROM reset_token WHERE token_hash = ?", h);
+        return token;
+    }
+
+    @Override
+    public Optional<String> overUzivatele(String token) {
+        if (token == null) return Optional.empty();
+        return jdbc.queryForList("SELECT username FROM reset_token WHERE token_hash = ? AND plati_do > NOW(3)",
+                String.class, hash(token)).stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public Optional<String> spotrebuj(String token) {
+        Optional<String> username = overUzivatele(token);
+        if (username.isEmpty()) return username;
+        int smazano = jdbc.update("DELETE FROM reset_token WHERE token_hash = ? AND plati_do > NOW(3)", hash(token));
+        return smazano == 1 ? username : Optional.empty();
+    }
+
+    @Scheduled(cron = "${app.reset.uklid-cron:0 */5 * * * *}")
+    public void uklid() {
+        int smazano;
+        do {
+            smazano = jdbc.update("DELETE FROM reset_token WHERE plati_do <= NOW(3) LIMIT " + DAVKA_UKLIDU);
+        } while (smazano == DAVKA_UKLIDU);
+    }
+
+    // ===== helpers ===========================================================
+
+    private static String hash(String token) {
+        try {
+            byte[] h = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(h);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 není k dispozici", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package vecera.projekt.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vecera.projekt.entity.Uzivatel;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Tokeny pro obnovu hesla v paměti – s vyřazováním prošlých přes hashované časové kolo (timing wheel).
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Kolo má {@code ⌈ttl / tik⌉ + 1} přihrádek po jedné minutě; token padne do přihrádky podle tiku,
+ *       kdy vyprší. Posun kola o tik vyřadí celou přihrádku – každý token O(1), bez procházení ostatních.</li>
+ *   <li>Kolo se posouvá plánovačem každou minutu a navíc při každé operaci (po nečinnosti se dožene).</li>
+ *   <li>Na jedno normalizované jméno nejvýše {@code app.reset.max-na-uzivatele} tokenů (fronta v pořadí
+ *       vydání, nejstarší se zahodí) – opakované {@code /forgot-password} paměť nenafoukne.</li>
+ *   <li>Celkem nejvýše {@code app.reset.max-celkem} tokenů – strop i proti zkoušení mnoha různých
+ *       jmen. Nad ním se zahodí nejstarší vydaný token (mapa v pořadí vydání; při stejném TTL je to
+ *       i ten, který vyprší nejdřív), O(1).</li>
+ * </ul>
+ * Pozn.: Platnost se při čtení kontroluje přesně; kolo jen uvolňuje paměť (nejpozději tik po vypršení).
+ * Tokeny nepřežijí restart a nesdílí se mezi uzly – k tomu je {@link ResetTokenyJdbc}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reset.uloziste", havingValue = "pamet", matchIfMissing = true)
+public class ResetTokenyVPameti implements ResetTokeny {
+
+    private static final long TIK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private record Zaznam(String username, String norm, long platiDoNanos, long tikVyprseni) { }
+
+    private final long ttlNanos;
+    private final int maxNaUzivatele;
+    private final int maxCelkem;
+    private final LongSupplier hodiny;
+    private final long pocatek;
+
+    private final List<Set<String>> prihradky;
+    private final Map<String, Zaznam> tokeny = new LinkedHashMap<>(); // pořadí vydání
+    private final Map<String, ArrayDeque<String>> podleUzivatele = new HashMap<>();
+    private long aktualniTik;
+
+    @Autowired
+    public ResetTokenyVPameti(@Value("${app.reset.ttl:30m}") Duration ttl,
+                              @Value("${app.reset.max-na-uzivatele:3}") int maxNaUzivatele,
+                              @Value("${app.reset.max-celkem:10000}") int maxCelkem) {
+        this(ttl, maxNaUzivatele, maxCelkem, System::nanoTime);
+    }
+
+    /** S vlastním zdrojem času (nanosekundy) – pro testy. */
+    ResetTokenyVPameti(Duration ttl, int maxNaUzivatele, int maxCelkem, LongSupplier hodiny) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxNaUzivatele = Math.max(1, maxNaUzivatele);
+        this.maxCelkem = Math.max(1, maxCelkem);
+        this.hodiny = hodiny;
+        this.pocatek = hodiny.getAsLong();
+        int n = (int) ((ttlNanos + TIK_NANOS - 1) / TIK_NANOS) + 1;
+        this.prihradky = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) prihradky.add(new HashSet<>());
+    }
+
+    @Override
+    public synchronized String vydej(String username) {
+        long ted = hodiny.getAsLong();
+        posun(ted);
+
+        String token = UUID.randomUUID().toString();
+        String norm = Uzivatel.normalizuj(username);
+        long platiDo = ted + ttlNanos;
+        long tik = (platiDo - pocatek + TIK_NANOS - 1) / TIK_NANOS;
+        tokeny.put(token, new Zaznam(username, norm, platiDo, tik));
+        prihradka(tik).add(token);
+
+        ArrayDeque<String> fronta = podleUzivatele.computeIfAbsent(norm, k -> new ArrayDeque<>());
+        fronta.addLast(token);
+        while (fronta.size() > maxNaUzivatele) odeber(fronta.peekFirst());
+        while (tokeny.size() > maxCelkem) odeber(tokeny.keySet().iterator().next());
+        return token;
+    }
+
+    @Override
+    public synchronized Optional<String> overUzivatele(String token) {
+        long ted = hodiny.getAsLong();
+        posun(ted);
+        Zaznam z = token == null ? null : tokeny.get(token);
+        return z != null && z.platiDoNanos() - ted > 0 ? Optional.of(z.username()) : Optional.empty();
+    }
+
+    @Override
+    public synchronized Optional<String> spotrebuj(String token) {
+        Optional<String> username = overUzivatele(token);
+        username.ifPresent(u -> odeber(token));
+        return username;
+    }
+
+    /** Pravidelný posun kola – uvolní tokeny, na které se už nikdo nezeptá. */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public synchronized void uklid() {
+        posun(hodiny.getAsLong());
+    }
+
+    /** Počet držených tokenů a uživatelů s tokenem (pro testy). */
+    synchronized int[] velikost() {
+        return new int[]{tokeny.size(), podleUzivatele.size()};
+    }
+
+    // ===== interní údržba (volat pod zámkem) =================================
+
+    /** Posune kolo na aktuální tik a vyřadí tokeny z projitých přihrádek. */
+    private void posun(long ted) {
+        long cil = (ted - pocatek) / TIK_NANOS;
+        // po dlouhé nečinnosti stačí projít kolo jednou dokola
+        if (cil - aktualniTik > prihradky.size()) aktualniTik = cil - prihradky.size();
+        while (aktualniTik < cil) {
+            aktualniTik++;
+            Set<String> prihradka = prihradka(aktualniTik);
+            prihradka.removeIf(token -> {
+                Zaznam z = tokeny.get(token);
+                if (z == null) return true;
+                if (z.tikVyprseni() > aktualniTik) return false; // patří do další otáčky
+                odeberZFronty(z.norm(), token);
+                tokeny.remove(token);
+                return true;
+            });
+        }
+    }
+
+    private Set<String> prihradka(long tik) {
+        return prihradky.get((int) (tik % prihradky.size()));
+    }
+
+    private void odeber(String token) {
+        Zaznam z = tokeny.remove(token);
+        if (z == null) return;
+        prihradka(z.tikVyprseni()).remove(token);
+        odeberZFronty(z.norm(), token);
+    }
+
+    private void odeberZFronty(String norm, String token) {
+        ArrayDeque<String> fronta = podleUzivatele.get(norm);
+        if (fronta == null) return;
+        fronta.remove(token); // fronta má nejvýše maxNaUzivatele prvků
+        if (fronta.isEmpty()) podleUzivatele.remove(norm);
+    }
+}
@@ -0,0 +1,132 @@
+package vecera.projekt.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import vecera.projekt.repository.RollupRepo;
+
+import java.time.LocalDate;
+import java.util.function.BiConsumer;
+
+/**
+ * Průběžně udržované souhrny pro reporty – dashboard tak nečte celé {@code pojistna_udalost} / {@code typ_pojisteni}.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>{@code rollup_udalost_den} – počet a součet škod po (den, stav).</li>
+ *   <li>{@code rollup_pojistka_den} – začátky a konce platnosti pojistek po (den, typ); aktivní k datu
+ *       = Σ začátků − Σ konců do toho dne, měsíční trend = začátky seskupené po měsících.</li>
+ *   <li>Zápisové služby volají {@code odecti…} před změnou a {@code pricti…} po ní (po flushi) – ve stejné
+ *       transakci, takže souhrn a data se commitují (nebo vrací) spolu.</li>
+ *   <li>{@link #prebuduj()} souhrny přepočítá ze zdrojových tabulek – po startu a každou noc
+ *       ({@code app.rollup.prebudovani-cron}); opraví i změny provedené mimo aplikaci.</li>
+ *   <li>Přestavění jde po měsících, každý měsíc ve vlastní krátké transakci (smazat řádky měsíce +
+ *       {@code INSERT ... SELECT} zdrojových řádků téhož měsíce). Zámky tak drží jen jeden měsíc
+ *       a jen krátce. Zápis, který měsíc mění souběžně, buď commitne dřív (a přestavění ho
+ *       započítá), nebo počká na zámek a svůj příspěvek přičte až k přestavěným řádkům.</li>
+ * </ul>
+ * Pozn.: Mazání osoby kaskádově maže její události i pojistky v DB – volající musí jejich příspěvek
+ * odečíst dřív ({@link #odectiPojisteneho(int)}).
+ */
+@Service
+@Transactional
+public class RollupReportu {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupReportu.class);
+
+    private final RollupRepo repo;
+    private final TransactionTemplate tx;
+
+    public RollupReportu(RollupRepo repo, PlatformTransactionManager tm) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(tm);
+    }
+
+    // ===== události =====
+
+    public void odectiUdalost(int id) {
+        repo.udalost(-1, id);
+    }
+
+    public void prictiUdalost(int id) {
+        repo.udalost(1, id);
+    }
+
+    // ===== pojistky =====
+
+    public void odectiPojistku(int id) {
+        repo.pojistka(-1, id);
+    }
+
+    /** Před smazáním pojistky i s jejími událostmi. */
+    public void odectiPojistkuSUdalostmi(int id) {
+        repo.udalostiPojistky(-1, id);
+        repo.pojistka(-1, id);
+    }
+
+    public void prictiPojistku(int id) {
+        repo.pojistka(1, id);
+    }
+
+    /** Před smazáním osoby – odečte všechny její události a pojistky (DB je smaže kaskádou). */
+    public void odectiPojisteneho(int pojistenyId) {
+        repo.udalostiPojisteneho(-1, pojistenyId);
+        repo.pojistkyPojisteneho(-1, pojistenyId);
+    }
+
+    // ===== přestavění =====
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.rollup.prebudovani-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void prebuduj() {
+        long start = System.nanoTime();
+        int mesicu = 0;
+
+        LocalDate od = repo.prvniDenUdalosti();
+        if (od == null) {
+            tx.executeWithoutResult(s -> repo.smazUdalosti());
+        } else {
+            LocalDate doVyjma = repo.posledniDenUdalosti().plusDays(1);
+            mesicu += poMesicich(od, doVyjma, (a, b) -> {
+                repo.smazUdalosti(a, b);
+                repo.naplnUdalosti(a, b);
+            });
+            tx.executeWithoutResult(s -> repo.smazUdalostiMimo(od, doVyjma));
+        }
+
+        LocalDate odP = repo.prvniDenPojistek();
+        if (odP == null) {
+            tx.executeWithoutResult(s -> repo.smazPojistky());
+        } else {
+            LocalDate doVyjmaP = repo.posledniKonecPojistek().plusDays(2); // konec = platnost_do + 1
+            mesicu += poMesicich(odP, doVyjmaP, (a, b) -> {
+                repo.smazPojistky(a, b);
+                repo.naplnPojistky(a, b);
+            });
+            tx.executeWithoutResult(s -> repo.smazPojistkyMimo(odP, doVyjmaP));
+        }
+        log.info("Souhrny reportů přestavěny za {} ms ({} měsíčních dávek)",
+                (System.nanoTime() - start) / 1_000_000, mesicu);
+    }
+
+    /** Projde [od, doVyjma) po kalendářních měsících, každý měsíc ve vlastní transakci; vrací počet dávek. */
+    private int poMesicich(LocalDate od, LocalDate doVyjma, BiConsumer<LocalDate, LocalDate> davka) {
+        int n = 0;
+        for (LocalDate a = od; a.isBefore(doVyjma); n++) {
+            LocalDate dalsi = a.withDayOfMonth(1).plusMonths(1);
+            LocalDate b = dalsi.isBefore(doVyjma) ? dalsi : doVyjma;
+            LocalDate zacatek = a;
+            tx.executeWithoutResult(s -> davka.accept(zacatek, b));
+            a = b;
+        }
+        return n;
+    }
+}
@@ -1,19 +1,34 @@
 package vecera.projekt.service;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.Pojisteny;
 import vecera.projekt.entity.PojistenyDetail;
 import vecera.projekt.entity.TypPojisteni;
 import vecera.projekt.entity.RoleVPojistce;
+import vecera.projekt.event.PojistenyZmenen;
+import vecera.projekt.event.PojistkaZmenena;
+import vecera.projekt.index.CeskeRazeni;
+import vecera.projekt.index.PojistenyFuzzyIndex;
+import vecera.projekt.index.PojistenyNgramIndex;
+import vecera.projekt.records.Strana;
 import vecera.projekt.repository.PojistenyRepo;
 import vecera.projekt.repository.TypPojisteniRepo;
 import vecera.projekt.repository.PojistkaOsobaRepo;
+import vecera.projekt.service.CacheHledani.Oblast;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Orchestrátor nad pojištěnými a jejich pojistkami.
@@ -21,46 +36,98 @@ import java.util.Optional;
  * Zodpovědnosti:
  * <ul>
  *   <li>CRUD nad {@link Pojisteny} včetně pomocných aliasů pro controllery.</li>
- *   <li>Hledání pojištěných: nejprve přesné ID, jinak „fulltext“ v paměti
- *       (jméno/příjmení/telefon/město) s českým řazením.</li>
+ *   <li>Hledání pojištěných: nejprve přesné ID, jinak „fulltext“ přes rezidentní
+ *       {@link PojistenyNgramIndex} (jméno/příjmení/telefon/město) s českým řazením.</li>
+ *   <li>České řazení přes předpočítaný klíč {@code razeni_klic} ({@link CeskeRazeni}) – v SQL i v paměti
+ *       je to jen porovnání bajtů.</li>
+ *   <li>Seznam / hledání po stránkách – keyset (seek) podle {@code (razeni_klic, id)}
+ *       s kurzory další/předchozí, viz {@link #strana(String, String, String, Integer)}.
+ *       Bez indexu jde hledání do DB – LIKE, nebo FULLTEXT dle {@link FulltextHledani}.</li>
+ *   <li>Přibližné hledání příjmení (bez diakritiky, překlepy) přes BK-strom {@link PojistenyFuzzyIndex}.</li>
+ *   <li>Výsledky hledání drží {@link CacheHledani} (oblast {@code POJISTENCI}); zneplatní je zápisy po commitu.</li>
  *   <li>CRUD nad {@link TypPojisteni} (vypsání, přidání, smazání, napojení na pojištěného).</li>
  *   <li>Správa vazeb v tabulce {@code pojistka_osoba} (přidání rolí POJISTENY/POJISTNIK) – přes repo.</li>
  * </ul>
  * Pozn.:
  * <ul>
  *   <li>Třída historicky sdružuje starší API (bridge metody) i nové aliasy, aby byl controller čistý.</li>
- *   <li>„Fulltext“ je záměrně v paměti kvůli jednoduchosti – pro větší dataset by šel přes JPQL/FTS.</li>
+ *   <li>Zápisy pojištěných publikují {@link PojistenyZmenen}, zápisy pojistek {@link PojistkaZmenena},
+ *       aby indexy a cache zůstaly v souladu s DB.</li>
  * </ul>
  */
 @Service
 @Transactional
 public class SpravcePojistenych {
 
+    /** Výchozí a maximální velikost stránky seznamu pojištěných. */
+    public static final int VYCHOZI_VELIKOST = 50;
+    public static final int MAX_VELIKOST = 200;
+
+    /** Velikost dávky při dopočtu chybějících klíčů řazení. */
+    private static final int DAVKA_KLICU = 500;
+
     private final PojistenyRepo pojistenyRepo;
     private final TypPojisteniRepo typPojisteniRepo;
     private final PojistkaOsobaRepo pojistkaOsobaRepo;
+    private final PojistenyNgramIndex index;
+    private final PojistenyFuzzyIndex fuzzyIndex;
+    private final FulltextHledani fulltext;
+    private final CacheHledani cache;
+    private final ApplicationEventPublisher events;
+    private final RollupReportu rollup;
 
     public SpravcePojistenych(PojistenyRepo pojistenyRepo,
                               TypPojisteniRepo typPojisteniRepo,
-                              PojistkaOsobaRepo pojistkaOsobaRepo) {
+                              PojistkaOsobaRepo pojistkaOsobaRepo,
+                              PojistenyNgramIndex index,
+                              PojistenyFuzzyIndex fuzzyIndex,
+                              FulltextHledani fulltext,
+                              CacheHledani cache,
+                              ApplicationEventPublisher events,
+                              RollupReportu rollup) {
         this.pojistenyRepo = pojistenyRepo;
         this.typPojisteniRepo = typPojisteniRepo;
         this.pojistkaOsobaRepo = pojistkaOsobaRepo;
+        this.index = index;
+        this.fuzzyIndex = fuzzyIndex;
+        this.fulltext = fulltext;
+        this.cache = cache;
+        this.events = events;
+        this.rollup = rollup;
     }
 
     // ===== POJIŠTĚNÍ (osoby) =================================================
 
-    /** Seznam všech pojištěných. */
+    /** Seznam všech pojištěných (české pořadí). */
     public List<Pojisteny> vypisVsechny() {
-        return pojistenyRepo.findAll();
+        return pojistenyRepo.findAllByOrderByRazeniKlicAscIdAsc();
+    }
+
+    /**
+     * Po startu dopočítá klíče řazení řádkům, které je ještě nemají – jen DB se starším schématem,
+     * kde je {@code razeni_klic} NULL (aktuální dumpy mají klíče vyplněné a sloupec NOT NULL).
+     * Po dávkách {@value #DAVKA_KLICU} řádků, bez entit a bez jedné velké transakce.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void doplnRazeniKlice() {
+        List<PojistenyRepo.BezRazenihoKlice> davka;
+        while (!(davka = pojistenyRepo.findBezRazenihoKlice(DAVKA_KLICU)).isEmpty()) {
+            for (PojistenyRepo.BezRazenihoKlice p : davka) {
+                pojistenyRepo.updateRazeniKlic(p.getId(), CeskeRazeni.klic(p.getPrijmeni(), p.getJmeno()));
+            }
+        }
     }
 
     /** Uprav existující pojištění. */
     public void upravPojisteni(TypPojisteni t) {
-        typPojisteniRepo.save(t);
+        if (t.getId() != null) rollup.odectiPojistku(t.getId());
+        TypPojisteni saved = typPojisteniRepo.saveAndFlush(t);
+        rollup.prictiPojistku(saved.getId());
+        events.publishEvent(new PojistkaZmenena(saved.getId()));
     }
 
-    /** Hledání: ID (pokud je číslo) → jinak fulltext v paměti (jméno/příjmení/telefon/město). */
+    /** Hledání: ID (pokud je číslo) → jinak fulltext přes n-gram index (jméno/příjmení/telefon/město). */
     public List<Pojisteny> hledejPojisteneho(String q) {
         if (q == null || q.isBlank()) return vypisVsechny();
 
@@ -77,24 +144,137 @@ public class SpravcePojistenych {
 
         String needle = trimmed.toLowerCase();
 
-        // 2) fulltext v paměti (bez JPQL) – jméno, příjmení, telefon (bez mezer/+/-), město
-        return pojistenyRepo.findAll().stream()
-                .filter(p -> {
-                    String j = safeLower(p.getJmeno());
-                    String pr = safeLower(p.getPrijmeni());
-                    String m = safeLower(p.getMesto());
-                    String telDigits = onlyDigits(p.getTelefon());
-
-                    boolean matchName = j.contains(needle) || pr.contains(needle);
-                    boolean matchCity = m.contains(needle);
-                    boolean matchPhone = !normalizedDigits.isEmpty() && telDigits.contains(normalizedDigits);
-
-                    return matchName || matchCity || matchPhone;
-                })
-                .sorted(java.util.Comparator
-                        .comparing(Pojisteny::getPrijmeni, java.text.Collator.getInstance(new java.util.Locale("cs","CZ")))
-                        .thenComparing(Pojisteny::getJmeno,   java.text.Collator.getInstance(new java.util.Locale("cs","CZ")))
-                        .thenComparing(Pojisteny::getId))
+        // 2) fulltext – index v paměti; dokud se po startu nepostaví, filtrujeme jako dřív
+        if (!index.isPripraven()) {
+            return seradCesky(pojistenyRepo.findAll().stream()
+                    .filter(p -> {
+                        String j = safeLower(p.getJmeno());
+                        String pr = safeLower(p.getPrijmeni());
+                        String m = safeLower(p.getMesto());
+                        String telDigits = onlyDigits(p.getTelefon());
+
+                        boolean matchName = j.contains(needle) || pr.contains(needle);
+                        boolean matchCity = m.contains(needle);
+                        boolean matchPhone = !normalizedDigits.isEmpty() && telDigits.contains(normalizedDigits);
+
+                        return matchName || matchCity || matchPhone;
+                    })
+                    .toList());
+        }
+
+        // index vrací ID už v českém pořadí → jen načteme řádky a pořadí zachováme
+        return nactiVPoradi(index.hledej(needle, normalizedDigits));
+    }
+
+    /**
+     * Stránka pojištěných v českém pořadí – keyset (seek) podle {@code (razeni_klic, id)}.
+     * Bez dotazu vrací všechny, s dotazem hledá (ID → index → DB fallback jako {@link #hledejPojisteneho}).
+     * Cena stránky nezávisí na tom, jak hluboko v seznamu je.
+     *
+     * @param po       kurzor z {@link Strana#dalsi()} – položky za ním
+     * @param pred     kurzor z {@link Strana#predchozi()} – položky před ním
+     * @param velikost velikost stránky (výchozí {@value #VYCHOZI_VELIKOST}, max. {@value #MAX_VELIKOST})
+     */
+    @Transactional(readOnly = true)
+    public Strana<Pojisteny> strana(String q, String po, String pred, Integer velikost) {
+        int n = (velikost == null || velikost < 1) ? VYCHOZI_VELIKOST : Math.min(velikost, MAX_VELIKOST);
+        KurzorOsoby k = KurzorOsoby.dekoduj(pred != null ? pred : po);
+        boolean dopredu = k == null || pred == null;
+
+        if (q == null || q.isBlank()) {
+            List<Pojisteny> nacteno = (k == null) ? pojistenyRepo.prvniStrana(n + 1)
+                    : dopredu ? pojistenyRepo.stranaPo(k.klic(), k.id(), n + 1)
+                    : pojistenyRepo.stranaPred(k.klic(), k.id(), n + 1);
+            return Strana.z(nacteno, n, dopredu, k != null, KurzorOsoby::zakoduj);
+        }
+        return cache.nacti(Oblast.POJISTENCI, q, po + "|" + pred + "|" + n,
+                () -> hledejStranu(q.trim(), k, dopredu, n), st -> st.polozky().size());
+    }
+
+    /** Hledací větev {@link #strana}: přesné ID → index → FULLTEXT → LIKE keyset. */
+    private Strana<Pojisteny> hledejStranu(String trimmed, KurzorOsoby k, boolean dopredu, int n) {
+        String normalizedDigits = onlyDigits(trimmed);
+
+        // přesné ID → jediná stránka
+        if (!normalizedDigits.isEmpty() && normalizedDigits.equals(trimmed)) {
+            try {
+                int id = Integer.parseInt(normalizedDigits);
+                return new Strana<>(pojistenyRepo.findById(id).map(List::of).orElseGet(List::of), null, null);
+            } catch (NumberFormatException ignore) { /* spadni na fulltext */ }
+        }
+
+        List<Pojisteny> nacteno;
+        String ftDotaz;
+        if (index.isPripraven()) {
+            List<Integer> ids = index.hledej(trimmed.toLowerCase(), normalizedDigits,
+                    k == null ? null : k.klic(), k == null ? 0 : k.id(), dopredu, n + 1);
+            nacteno = nactiVPoradi(ids);
+        } else if ((ftDotaz = fulltext.dotaz(trimmed)) != null) {
+            // FULLTEXT: jedna stránka nejrelevantnějších výsledků (relevance se keysetem stránkovat nedá)
+            List<Pojisteny> top = pojistenyRepo.searchFulltext(ftDotaz, n);
+            return new Strana<>(top, null, null);
+        } else {
+            nacteno = (k == null) ? pojistenyRepo.searchPrvniStrana(trimmed, normalizedDigits, n + 1)
+                    : dopredu ? pojistenyRepo.searchStranaPo(trimmed, normalizedDigits, k.klic(), k.id(), n + 1)
+                    : pojistenyRepo.searchStranaPred(trimmed, normalizedDigits, k.klic(), k.id(), n + 1);
+        }
+        return Strana.z(nacteno, n, dopredu, k != null, KurzorOsoby::zakoduj);
+    }
+
+    /**
+     * Přibližné hledání podle příjmení: bez diakritiky a s tolerancí 1–2 překlepů.
+     * Řazení: vzdálenost → české pořadí → ID; nejvýše {@value #MAX_VELIKOST} výsledků.
+     * Dokud BK-strom není postavený, spadne na běžné hledání.
+     */
+    @Transactional(readOnly = true)
+    public List<Pojisteny> hledejPribliznie(String q) {
+        if (q == null || q.isBlank()) return List.of();
+        if (!fuzzyIndex.isPripraven()) return hledejPojisteneho(q);
+        return cache.nacti(Oblast.POJISTENCI, "~" + q, () -> {
+            List<Integer> ids = fuzzyIndex.hledej(q, null);
+            return nactiVPoradi(ids.size() > MAX_VELIKOST ? ids.subList(0, MAX_VELIKOST) : ids);
+        }, List::size);
+    }
+
+    /** Načte pojištěné podle ID a zachová pořadí ID. */
+    private List<Pojisteny> nactiVPoradi(List<Integer> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Integer, Pojisteny> podleId = pojistenyRepo.findAllById(ids).stream()
+                .collect(Collectors.toMap(Pojisteny::getId, Function.identity()));
+        return ids.stream().map(podleId::get).filter(java.util.Objects::nonNull).toList();
+    }
+
+    /** Kurzor keyset stránkování: klíč řazení + ID, v URL jako {@code base64url(klic).id}. */
+    private record KurzorOsoby(byte[] klic, int id) {
+
+        static String zakoduj(Pojisteny p) {
+            byte[] klic = p.getRazeniKlic() != null ? p.getRazeniKlic() : CeskeRazeni.klic(p.getPrijmeni(), p.getJmeno());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(klic) + "." + p.getId();
+        }
+
+        /** Neplatný / chybějící kurzor → {@code null} (= první stránka). */
+        static KurzorOsoby dekoduj(String s) {
+            if (s == null || s.isBlank()) return null;
+            int tecka = s.lastIndexOf('.');
+            if (tecka < 0) return null;
+            try {
+                return new KurzorOsoby(Base64.getUrlDecoder().decode(s.substring(0, tecka)),
+                        Integer.parseInt(s.substring(tecka + 1)));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /** České řazení: příjmení → jméno → ID (klíč se spočítá jednou na řádek, pak se porovnávají bajty). */
+    private static List<Pojisteny> seradCesky(List<Pojisteny> list) {
+        return list.stream()
+                .map(p -> Map.entry(p, p.getRazeniKlic() != null
+                        ? p.getRazeniKlic()
+                        : CeskeRazeni.klic(p.getPrijmeni(), p.getJmeno())))
+                .sorted(Map.Entry.<Pojisteny, byte[]>comparingByValue(CeskeRazeni.KLICE)
+                        .thenComparing(e -> e.getKey().getId()))
+                .map(Map.Entry::getKey)
                 .toList();
     }
 
@@ -115,12 +295,21 @@ public class SpravcePojistenych {
 
     /** Ulož (create/update) pojištěného. */
     public void uloz(Pojisteny p) {
-        pojistenyRepo.save(p);
+        ulozAOhlas(p);
     }
 
     /** Smaz pojištěného podle ID. */
     public void smazPojisteneho(int id) {
+        rollup.odectiPojisteneho(id); // události i pojistky zmizí kaskádou
         pojistenyRepo.deleteById(id);
+        events.publishEvent(PojistenyZmenen.smazan(id));
+    }
+
+    /** Uloží entitu a ohlásí změnu indexům (ty ji zpracují po commitu). */
+    private Pojisteny ulozAOhlas(Pojisteny p) {
+        Pojisteny saved = pojistenyRepo.save(p);
+        events.publishEvent(PojistenyZmenen.ulozen(saved));
+        return saved;
     }
 
     // --- BRIDGE (původní API volané starým kódem) ----------------------------
@@ -128,8 +317,7 @@ public class SpravcePojistenych {
     /** Původní API: založ pojištěného a vrať jeho ID. */
     public int pridatPojisteneho(String jmeno, String prijmeni, Integer vek, String telefon) {
         Pojisteny p = new Pojisteny(jmeno, prijmeni, vek, telefon);
-        pojistenyRepo.save(p);
-        return p.getId();
+        return ulozAOhlas(p).getId();
     }
 
     /** Původní API: detail pojištěného (entita + pojistky). */
@@ -142,14 +330,14 @@ public class SpravcePojistenych {
 
     /** Původní API: úprava pojištěného. */
     public void upravPojisteneho(Pojisteny p) {
-        pojistenyRepo.save(p);
+        ulozAOhlas(p);
     }
 
     // --- NOVÉ aliasy pro controller (save/findDetail/deleteById) -------------
 
     /** Alias pro controller: vrátí uloženou entitu (s ID). */
     public Pojisteny save(Pojisteny p) {
-        return pojistenyRepo.save(p);
+        return ulozAOhlas(p);
     }
 
     /** Alias pro controller: detail pojištěného. */
@@ -179,7 +367,9 @@ public class SpravcePojistenych {
     }
 
     public void smazPojisteni(int id) {
+        rollup.odectiPojistku(id); // události zůstávají (typ_pojisteni_id → NULL)
         typPojisteniRepo.deleteById(id);
+        events.publishEvent(new PojistkaZmenena(id));
     }
 
     public int pocetPojistek() {
@@ -201,13 +391,16 @@ public class SpravcePojistenych {
         t.setCastka(BigDecimal.valueOf(castka));
         t.setPlatnostOd(platnostOd);
         t.setPlatnostDo(platnostDo);
+        t.overPlatnost();
 
-        TypPojisteni saved = typPojisteniRepo.save(t);
+        TypPojisteni saved = typPojisteniRepo.saveAndFlush(t);
+        rollup.prictiPojistku(saved.getId());
 
         if (pojistkaOsobaRepo != null) {
             pojistkaOsobaRepo.addOsobaToPojistka(saved.getId(), pojistenyId, RoleVPojistce.POJISTENY.name());
             pojistkaOsobaRepo.addOsobaToPojistka(saved.getId(), pojistenyId, RoleVPojistce.POJISTNIK.name());
         }
+        events.publishEvent(new PojistkaZmenena(saved.getId()));
         return saved.getId();
     }
 
@@ -0,0 +1,101 @@
+package vecera.projekt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Export celých tabulek (surová data pro aktuáry) – události, pojistky, pojištění.
+ * <p>
+ * Zodpovědnosti:
+ * <ul>
+ *   <li>Čte přes čisté JDBC ({@link JdbcTemplate}) – žádné entity, žádný persistence context,
+ *       který by s počtem řádků rostl.</li>
+ *   <li>Result set je forward-only / read-only s {@code fetchSize} ({@code app.export.fetch-size}) –
+ *       MariaDB driver pak řádky streamuje po dávkách místo načtení celé tabulky do paměti.</li>
+ *   <li>Každý řádek předá hned volajícímu (controller ho zapíše do odpovědi) – paměť je konstantní.</li>
+ * </ul>
+ * Pozn.: Sloupce jsou pevně vyjmenované (bez interních, např. {@code razeni_klic}); tabulku nelze zvolit
+ * libovolně – jen přes {@link Tabulka}.
+ */
+@Service
+public class SurovyExport {
+
+    /** Exportovatelné tabulky: kód v URL → SQL. */
+    public enum Tabulka {
+        UDALOSTI("data-udalosti", """
+                SELECT id, pojisteny_id, typ_pojisteni_id, datum, popis, skoda, stav
+                FROM pojistna_udalost ORDER BY id"""),
+        POJISTKY("data-pojistky", """
+                SELECT id, pojisteny_id, nazev, castka, platnost_od, platnost_do
+                FROM typ_pojisteni ORDER BY id"""),
+        POJISTENCI("data-pojistenci", """
+                SELECT id, jmeno, prijmeni, telefon, vek, email, pohlavi, mesto, ulice, cislo_popisne, psc
+                FROM pojisteny ORDER BY id""");
+
+        private final String kod;
+        private final String sql;
+
+        Tabulka(String kod, String sql) {
+            this.kod = kod;
+            this.sql = sql;
+        }
+
+        public String getKod() {
+            return kod;
+        }
+
+        public static Optional<Tabulka> podleKodu(String kod) {
+            return Arrays.stream(values()).filter(t -> t.kod.equals(kod)).findFirst();
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final int fetchSize;
+
+    public SurovyExport(JdbcTemplate jdbc, @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Projde tabulku a každý řádek (první volání = názvy sloupců) předá do {@code radek}.
+     * Hodnoty jsou textové podoby z DB, {@code null} zůstává {@code null}.
+     *
+     * @return počet datových řádků
+     */
+    @Transactional(readOnly = true)
+    public long export(Tabulka tabulka, Consumer<List<String>> radek) {
+        Long pocet = jdbc.query(con -> {
+            var ps = con.prepareStatement(tabulka.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (ResultSetExtractor<Long>) rs -> {
+            ResultSetMetaData md = rs.getMetaData();
+            int sloupcu = md.getColumnCount();
+            List<String> hlavicka = new ArrayList<>(sloupcu);
+            for (int i = 1; i <= sloupcu; i++) hlavicka.add(md.getColumnLabel(i));
+            radek.accept(hlavicka);
+
+            long n = 0;
+            while (rs.next()) {
+                List<String> hodnoty = new ArrayList<>(sloupcu);
+                for (int i = 1; i <= sloupcu; i++) hodnoty.add(rs.getString(i));
+                radek.accept(hodnoty);
+                n++;
+            }
+            return n;
+        });
+        return pocet == null ? 0 : pocet;
+    }
+}
@@ -1,9 +1,11 @@
 package vecera.projekt.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vecera.projekt.entity.Pojisteny;
 import vecera.projekt.entity.TypPojisteni;
+import vecera.projekt.event.PojistkaZmenena;
 import vecera.projekt.repository.PojistenyRepo;
 import vecera.projekt.repository.TypPojisteniRepo;
 
@@ -17,6 +19,8 @@ import java.util.List;
  *   <li>CRUD nad entitou {@link TypPojisteni} a napojení na {@link Pojisteny} při vytváření.</li>
  *   <li>Jednoduché čtecí metody pro controller – včetně variant s eager vazbou na pojištěného
  *       (přes repo metody s {@code join fetch}).</li>
+ *   <li>Zápisy publikují {@link PojistkaZmenena} (zneplatnění cache hledání po commitu)
+ *       a upravují souhrny reportů ({@link RollupReportu}).</li>
  * </ul>
  */
 @Service
@@ -25,10 +29,15 @@ public class TypPojisteniService {
 
     private final TypPojisteniRepo repo;
     private final PojistenyRepo pojistenyRepo;
+    private final ApplicationEventPublisher events;
+    private final RollupReportu rollup;
 
-    public TypPojisteniService(TypPojisteniRepo repo, PojistenyRepo pojistenyRepo) {
+    public TypPojisteniService(TypPojisteniRepo repo, PojistenyRepo pojistenyRepo, ApplicationEventPublisher events,
+                               RollupReportu rollup) {
         this.repo = repo;
         this.pojistenyRepo = pojistenyRepo;
+        this.events = events;
+        this.rollup = rollup;
     }
 
     public List<TypPojisteni> findByPojisteny(Integer pojistenyId) {
@@ -44,15 +53,21 @@ public class TypPojisteniService {
         Pojisteny p = pojistenyRepo.findById(pojistenyId)
                 .orElseThrow(() -> new IllegalArgumentException("Pojištěný " + pojistenyId + " nenalezen"));
         pojistka.setPojisteny(p);
-        return repo.save(pojistka);
+        return save(pojistka);
     }
 
     public TypPojisteni save(TypPojisteni pojistka) {
-        return repo.save(pojistka);
+        if (pojistka.getId() != null) rollup.odectiPojistku(pojistka.getId());
+        TypPojisteni saved = repo.saveAndFlush(pojistka);
+        rollup.prictiPojistku(saved.getId());
+        events.publishEvent(new PojistkaZmenena(saved.getId()));
+        return saved;
     }
 
     public void delete(Integer id) {
+        rollup.odectiPojistku(id);
         repo.deleteById(id);
+        events.publishEvent(new PojistkaZmenena(id));
     }
 
     // nově:
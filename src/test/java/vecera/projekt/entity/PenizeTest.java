@@ -0,0 +1,106 @@
+package vecera.projekt.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link Penize} – shoda s {@link BigDecimal} (HALF_UP na haléře), přetečení a porovnání alokací
+ * při sčítání škod ve smyčce (jako agregace sloupcového skladu): BigDecimal vs. haléře v {@code long}.
+ */
+class PenizeTest {
+
+    private static final int RADKU = 1_000_000;
+
+    @Test
+    void prevodZBigDecimaluZaokrouhlujeHalfUp() {
+        assertThat(Penize.z(new BigDecimal("1234.5")).haleru()).isEqualTo(123450);
+        assertThat(Penize.z(new BigDecimal("0.005")).haleru()).isEqualTo(1);
+        assertThat(Penize.z(new BigDecimal("-0.005")).haleru()).isEqualTo(-1);
+        assertThat(Penize.z(null)).isNull();
+        assertThat(Penize.zHaleru(123450).toString()).isEqualTo("1234.50");
+    }
+
+    @Test
+    void prumerOdpovidaBigDecimalu() {
+        Random r = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long haleru = r.nextLong(-10_000_000_000L, 10_000_000_000L);
+            long pocet = 1 + r.nextInt(1000);
+            BigDecimal ocekavano = BigDecimal.valueOf(haleru, 2)
+                    .divide(BigDecimal.valueOf(pocet), 2, RoundingMode.HALF_UP);
+            assertThat(Penize.zHaleru(haleru).deleno(pocet).toBigDecimal()).isEqualByComparingTo(ocekavano);
+        }
+    }
+
+    @Test
+    void preteceniHlasiVyjimku() {
+        assertThatThrownBy(() -> Penize.zHaleru(Long.MAX_VALUE).plus(Penize.zHaleru(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Penize.zHaleru(1).deleno(0)).isInstanceOf(ArithmeticException.class);
+    }
+
+    /**
+     * Součet milionu škod: {@code BigDecimal.add} alokuje na každý řádek, součet haléřů v {@code long}
+     * (cesta sloupcového skladu) nealokuje nic. Čísla vypisuje pro porovnání mezi stroji / JDK.
+     */
+    @Test
+    void soucetVHalerichNealokuje() {
+        Random r = new Random(7);
+        long[] haleru = new long[RADKU];
+        BigDecimal[] castky = new BigDecimal[RADKU];
+        for (int i = 0; i < RADKU; i++) {
+            haleru[i] = r.nextLong(1, 100_000_000L);
+            castky[i] = BigDecimal.valueOf(haleru[i], 2);
+        }
+
+        LongSupplier bigDecimal = () -> {
+            BigDecimal s = BigDecimal.ZERO;
+            for (BigDecimal c : castky) s = s.add(c);
+            return s.unscaledValue().longValueExact();
+        };
+        LongSupplier penize = () -> {
+            Penize s = Penize.NULA;
+            for (long h : haleru) s = s.plus(Penize.zHaleru(h));
+            return s.haleru();
+        };
+        LongSupplier primo = () -> {
+            long s = 0;
+            for (long h : haleru) s = Math.addExact(s, h);
+            return s;
+        };
+
+        Mereni bd = zmer(bigDecimal);
+        Mereni pz = zmer(penize);
+        Mereni lg = zmer(primo);
+        assertThat(pz.vysledek()).isEqualTo(bd.vysledek()).isEqualTo(lg.vysledek());
+
+        System.out.printf("Součet %,d škod: BigDecimal %,d B / %,d µs | Penize.plus %,d B / %,d µs | long %,d B / %,d µs%n",
+                RADKU, bd.bajtu(), bd.mikrosekund(), pz.bajtu(), pz.mikrosekund(), lg.bajtu(), lg.mikrosekund());
+
+        assertThat(bd.bajtu()).isGreaterThan(16L * RADKU);   // aspoň jeden objekt na řádek
+        assertThat(pz.bajtu()).isLessThan(bd.bajtu());
+        assertThat(lg.bajtu()).isLessThan(bd.bajtu() / 100);
+    }
+
+    private record Mereni(long vysledek, long bajtu, long mikrosekund) { }
+
+    /** Zahřeje JIT a změří alokace aktuálního vlákna ({@code ThreadMXBean}) a čas jednoho běhu. */
+    private static Mereni zmer(LongSupplier beh) {
+        for (int i = 0; i < 5; i++) beh.getAsLong();
+        var mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long vlakno = Thread.currentThread().threadId();
+        long pred = mx.getThreadAllocatedBytes(vlakno);
+        long start = System.nanoTime();
+        long vysledek = beh.getAsLong();
+        long cas = (System.nanoTime() - start) / 1_000;
+        return new Mereni(vysledek, mx.getThreadAllocatedBytes(vlakno) - pred, cas);
+    }
+}
@@ -0,0 +1,102 @@
+package vecera.projekt.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import vecera.projekt.entity.PojistnaUdalost;
+import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.entity.StavUdalosti;
+import vecera.projekt.entity.TypPojisteni;
+import vecera.projekt.records.FiltrUdalosti;
+import vecera.projekt.records.UdalostRadekDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Výpis událostí ({@code /udalosti}) je jeden SELECT na stránku – počet příkazů podle Hibernate
+ * statistik nesmí růst s velikostí stránky (žádné N+1 přes pojištěného / pojistku).
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class PojistnaUdalostRepoTest {
+
+    @Autowired
+    private PojistnaUdalostRepo repo;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics statistiky;
+
+    @BeforeEach
+    void setUp() {
+        statistiky = emf.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < 60; i++) {
+            Pojisteny p = new Pojisteny("Jan" + i, "Novák" + i, 30, "777000" + i);
+            em.persist(p);
+            TypPojisteni t = new TypPojisteni();
+            t.setPojisteny(p);
+            t.setNazev("Pojištění " + i);
+            t.setCastka(new BigDecimal("100000"));
+            t.setPlatnostOd(LocalDate.of(2025, 1, 1));
+            t.setPlatnostDo(LocalDate.of(2025, 12, 31));
+            em.persist(t);
+
+            PojistnaUdalost u = new PojistnaUdalost();
+            u.setPojisteny(p);
+            u.setTypPojisteni(t);
+            u.setDatum(LocalDate.of(2025, 1, 1).plusDays(i));
+            u.setPopis("Škoda č. " + i);
+            u.setSkoda(new BigDecimal("1000.00"));
+            u.setStav(StavUdalosti.NOVA);
+            em.persist(u);
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void strankaJeJedenDotazBezOhleduNaVelikost() {
+        assertThat(prikazuNaStranku(5)).isEqualTo(1);
+        assertThat(prikazuNaStranku(50)).isEqualTo(1);
+    }
+
+    @Test
+    void stranaNeseJmenoINazevPojistky() {
+        List<UdalostRadekDto> strana = repo.hledej(FiltrUdalosti.VSE, null, null, 0, true, 3);
+
+        assertThat(strana).hasSize(3);
+        assertThat(strana.get(0).popis()).isEqualTo("Škoda č. 59");
+        assertThat(strana.get(0).prijmeni()).isEqualTo("Novák59");
+        assertThat(strana.get(0).pojistkaNazev()).isEqualTo("Pojištění 59");
+    }
+
+    /** Načte stránku, sáhne na všechna pole řádků (jako šablona) a vrátí počet SQL příkazů. */
+    private long prikazuNaStranku(int n) {
+        em.clear();
+        statistiky.clear();
+
+        List<UdalostRadekDto> strana = repo.hledej(FiltrUdalosti.VSE, null, null, 0, true, n);
+        assertThat(strana).hasSize(n);
+        strana.forEach(r -> assertThat(r.jmeno() + r.prijmeni() + r.pojistkaNazev()).isNotBlank());
+
+        return statistiky.getPrepareStatementCount();
+    }
+}
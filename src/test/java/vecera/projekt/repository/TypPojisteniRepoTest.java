@@ -0,0 +1,80 @@
+package vecera.projekt.repository;
+
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import vecera.projekt.entity.Pojisteny;
+import vecera.projekt.entity.TypPojisteni;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Obrácená platnost pojistky (od &gt; do) se nesmí dostat do DB – v souhrnech reportů
+ * by pojistka odečítala z počtu aktivních. Hlídá ji entita i CHECK v tabulce.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class TypPojisteniRepoTest {
+
+    private static final LocalDate OD = LocalDate.of(2025, 6, 1);
+
+    @Autowired
+    private TypPojisteniRepo repo;
+
+    @Autowired
+    private TestEntityManager em;
+
+    private Pojisteny osoba;
+
+    @BeforeEach
+    void setUp() {
+        osoba = em.persist(new Pojisteny("Jan", "Novák", 30, "777000111"));
+    }
+
+    @Test
+    void jednodenniPlatnostJePlatna() {
+        TypPojisteni t = repo.saveAndFlush(pojistka(OD, OD));
+        assertThat(t.getId()).isNotNull();
+    }
+
+    @Test
+    void obracenouPlatnostOdmitneEntita() {
+        TypPojisteni t = pojistka(OD, OD.minusDays(1));
+
+        assertThatThrownBy(t::overPlatnost).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> repo.saveAndFlush(t)).hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void obracenouPlatnostOdmitneDb() {
+        // mimo entitu (ruční SQL, import) – zastaví to až CHECK chk_typ_pojisteni_platnost
+        TypPojisteni t = repo.saveAndFlush(pojistka(OD, OD.plusYears(1)));
+
+        assertThatThrownBy(() -> em.getEntityManager()
+                .createNativeQuery("UPDATE typ_pojisteni SET platnost_do = :do WHERE id = :id")
+                .setParameter("do", OD.minusDays(1))
+                .setParameter("id", t.getId())
+                .executeUpdate())
+                .isInstanceOf(PersistenceException.class);
+    }
+
+    private TypPojisteni pojistka(LocalDate od, LocalDate dO) {
+        TypPojisteni t = new TypPojisteni();
+        t.setPojisteny(osoba);
+        t.setNazev("Dům");
+        t.setCastka(new BigDecimal("100000"));
+        t.setPlatnostOd(od);
+        t.setPlatnostDo(dO);
+        return t;
+    }
+}
@@ -0,0 +1,135 @@
+package vecera.projekt.security;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.FlushMode;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.SaveMode;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sdílené session ({@code spring-session-jdbc}, nastavení jako v application.properties) proti session
+ * v paměti: správnost sdílení mezi „uzly“ a propustnost typického požadavku (načíst session, změnit
+ * jeden atribut, uložit). Čísla vypisuje – jde o H2 v paměti, síťová latence MariaDB v nich není.
+ */
+class SdileneSessionTest {
+
+    private static final int SESSION = 200;
+    private static final int POZADAVKU = 20_000;
+    private static final int VLAKEN = 8;
+
+    private HikariDataSource ds;
+
+    @BeforeEach
+    void setUp() {
+        ds = new HikariDataSource();
+        ds.setJdbcUrl("jdbc:h2:mem:session-test;DB_CLOSE_DELAY=-1");
+        ds.setMaximumPoolSize(VLAKEN);
+        new ResourceDatabasePopulator(new ClassPathResource("org/springframework/session/jdbc/schema-h2.sql"))
+                .execute(ds);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(ds).execute("DROP ALL OBJECTS");
+        ds.close();
+    }
+
+    @Test
+    void sessionUlozenaJednimUzlemJeVidetNaDruhem() {
+        JdbcIndexedSessionRepository uzelA = jdbcRepo();
+        JdbcIndexedSessionRepository uzelB = jdbcRepo();
+
+        String id = uloz(uzelA, "jan");
+
+        Session naB = uzelB.findById(id);
+        assertThat(naB).isNotNull();
+        SecurityContext kontext = naB.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        assertThat(kontext.getAuthentication().getName()).isEqualTo("jan");
+    }
+
+    @Test
+    void propustnostJdbcVsPamet() throws Exception {
+        long pamet = pozadavkuZaSekundu(new MapSessionRepository(new ConcurrentHashMap<>()));
+        long jdbc = pozadavkuZaSekundu(jdbcRepo());
+
+        System.out.printf("Session (%d vláken, %,d požadavků): v paměti %,d req/s | JDBC (H2) %,d req/s%n",
+                VLAKEN, POZADAVKU, pamet, jdbc);
+        assertThat(jdbc).isPositive();
+        assertThat(pamet).isGreaterThan(jdbc);
+    }
+
+    /** Založí session přihlášeného uživatele – atribut stejný, jaký ukládá Spring Security. */
+    private static <S extends Session> String uloz(SessionRepository<S> repo, String jmeno) {
+        S s = repo.createSession();
+        s.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(jmeno, null,
+                        AuthorityUtils.createAuthorityList("ROLE_USER"))));
+        repo.save(s);
+        return s.getId();
+    }
+
+    private JdbcIndexedSessionRepository jdbcRepo() {
+        var repo = new JdbcIndexedSessionRepository(new JdbcTemplate(ds),
+                new TransactionTemplate(new DataSourceTransactionManager(ds)));
+        repo.setFlushMode(FlushMode.ON_SAVE);
+        repo.setSaveMode(SaveMode.ON_SET_ATTRIBUTE);
+        return repo;
+    }
+
+    /** Založí sessions, zahřeje a změří průchod požadavků (find → setAttribute → save) na více vláknech. */
+    private static <S extends Session> long pozadavkuZaSekundu(SessionRepository<S> repo) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < SESSION; i++) {
+            ids.add(uloz(repo, "uzivatel" + i));
+        }
+        spust(repo, ids, POZADAVKU / 4);
+        long start = System.nanoTime();
+        spust(repo, ids, POZADAVKU);
+        return POZADAVKU * 1_000_000_000L / (System.nanoTime() - start);
+    }
+
+    private static <S extends Session> void spust(SessionRepository<S> repo, List<String> ids, int pozadavku)
+            throws Exception {
+        ExecutorService vlakna = Executors.newFixedThreadPool(VLAKEN);
+        try {
+            List<Future<?>> hotovo = new ArrayList<>();
+            for (int v = 0; v < VLAKEN; v++) {
+                int vlakno = v;
+                hotovo.add(vlakna.submit(() -> {
+                    for (int i = vlakno; i < pozadavku; i += VLAKEN) {
+                        S s = repo.findById(ids.get(i % ids.size()));
+                        s.setAttribute("posledniPozadavek", i);
+                        repo.save(s);
+                    }
+                }));
+            }
+            for (Future<?> f : hotovo) f.get();
+        } finally {
+            vlakna.shutdown();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package vecera.projekt.security;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+import vecera.projekt.entity.Uzivatel;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Přihlašovací cesta {@link UzivatelDetailsService#loadUserByUsername}: načtení z DB (studená cache)
+ * vs. zásah v {@link CacheUzivatelu}. Zásah nesmí jít do DB; časy obou cest test vypíše.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({UzivatelDetailsService.class, CacheUzivatelu.class})
+class UzivatelDetailsServiceTest {
+
+    private static final int OPAKOVANI = 2_000;
+
+    @Autowired
+    private UzivatelDetailsService service;
+
+    @Autowired
+    private CacheUzivatelu cache;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Statistics statistiky;
+
+    @BeforeEach
+    void setUp() {
+        statistiky = emf.unwrap(SessionFactory.class).getStatistics();
+        Uzivatel u = new Uzivatel();
+        u.setUsername("Jan.Novak");
+        u.setPasswordHash("{noop}heslo");
+        u.setEnabled(true);
+        u.setRoleNames(Set.of("USER"));
+        em.persist(u);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void jmenoNezavisleNaVelikostiPismen() {
+        UserDetails d = service.loadUserByUsername("  JAN.novak ");
+        assertThat(d.getUsername()).isEqualTo("Jan.Novak");
+        assertThat(d.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        assertThatThrownBy(() -> service.loadUserByUsername("nikdo")).isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void zasahVCacheNejdeDoDb() {
+        service.loadUserByUsername("jan.novak"); // naplní cache
+        statistiky.clear();
+
+        for (int i = 0; i < 100; i++) service.loadUserByUsername("jan.novak");
+
+        assertThat(statistiky.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void latenceStudenaVsZCache() {
+        long studena = prumerNanos(() -> {
+            cache.zneplatni("jan.novak");
+            em.clear();
+            service.loadUserByUsername("jan.novak");
+        });
+        service.loadUserByUsername("jan.novak");
+        long zCache = prumerNanos(() -> service.loadUserByUsername("jan.novak"));
+
+        System.out.printf("loadUserByUsername (H2, průměr z %,d): z DB %,d ns | z cache %,d ns%n",
+                OPAKOVANI, studena, zCache);
+        assertThat(zCache).isLessThan(studena);
+    }
+
+    /** Zahřeje JIT a vrátí průměrnou dobu jednoho volání. */
+    private static long prumerNanos(Runnable volani) {
+        for (int i = 0; i < OPAKOVANI; i++) volani.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPAKOVANI; i++) volani.run();
+        return (System.nanoTime() - start) / OPAKOVANI;
+    }
+}
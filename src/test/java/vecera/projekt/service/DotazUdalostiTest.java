@@ -0,0 +1,93 @@
+package vecera.projekt.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import vecera.projekt.entity.StavUdalosti;
+import vecera.projekt.records.FiltrUdalosti;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Parser dotazovacího jazyka událostí – bez DB, jen výsledný {@link FiltrUdalosti}. */
+class DotazUdalostiTest {
+
+    @Test
+    void kombinovanyDotaz() {
+        FiltrUdalosti f = DotazUdalosti.parse("stav:nova,RESENA skoda>50000 od:2024-01 do:2024-06 text:\"vytopeni sklepa\"");
+
+        assertThat(f.stavy()).containsExactlyInAnyOrder(StavUdalosti.NOVA, StavUdalosti.RESENA);
+        assertThat(f.skodaMin()).isEqualByComparingTo("50000.01");
+        assertThat(f.skodaMax()).isNull();
+        assertThat(f.od()).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(f.doVyjma()).isEqualTo(LocalDate.of(2024, 7, 1));
+        assertThat(f.text()).isEqualTo("vytopeni sklepa");
+    }
+
+    @Test
+    void ostreNerovnostiSCastkouNaVicDesetinnychMist() {
+        assertThat(DotazUdalosti.parse("skoda>100.005").skodaMin()).isEqualByComparingTo("100.01");
+        assertThat(DotazUdalosti.parse("skoda>=100.005").skodaMin()).isEqualByComparingTo("100.01");
+        assertThat(DotazUdalosti.parse("skoda<100.005").skodaMax()).isEqualByComparingTo("100.00");
+        assertThat(DotazUdalosti.parse("skoda<=100.005").skodaMax()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void ostreNerovnostiNaHalere() {
+        assertThat(DotazUdalosti.parse("skoda>100").skodaMin()).isEqualByComparingTo("100.01");
+        assertThat(DotazUdalosti.parse("skoda<100").skodaMax()).isEqualByComparingTo("99.99");
+        assertThat(DotazUdalosti.parse("skoda>=1,5").skodaMin()).isEqualByComparingTo("1.50");
+    }
+
+    @Test
+    void rovnostSNehalerovouCastkouNicNenajde() {
+        FiltrUdalosti f = DotazUdalosti.parse("skoda=1.005");
+        assertThat(f.skodaMin()).isGreaterThan(f.skodaMax());
+
+        FiltrUdalosti presne = DotazUdalosti.parse("skoda=1.50");
+        assertThat(presne.skodaMin()).isEqualByComparingTo("1.5");
+        assertThat(presne.skodaMax()).isEqualByComparingTo("1.5");
+    }
+
+    @Test
+    void samotnyDenAMesicJakoDriv() {
+        FiltrUdalosti den = DotazUdalosti.parse("1. 2. 2024");
+        assertThat(den.od()).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(den.doVyjma()).isEqualTo(LocalDate.of(2024, 2, 2));
+
+        FiltrUdalosti mesic = DotazUdalosti.parse("3/2024");
+        assertThat(mesic.od()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(mesic.doVyjma()).isEqualTo(LocalDate.of(2024, 4, 1));
+    }
+
+    @Test
+    void neznamyKlicJeText() {
+        assertThat(DotazUdalosti.parse("mesto:Brno kroupy").text()).isEqualTo("mesto:Brno kroupy");
+    }
+
+    @Test
+    void neplatneHodnoty() {
+        assertThatThrownBy(() -> DotazUdalosti.parse("stav:XYZ")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DotazUdalosti.parse("skoda>abc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DotazUdalosti.parse("od:32.13.2024")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Hrubá pojistka výkonu parseru (předkompilované regexy a formátery): 20 000 dotazů pod limitem. */
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void rychlostParsovani() {
+        String[] dotazy = {
+                "stav:NOVA skoda>50000 od:2024-01 do:2024-06 text:\"vytopeni\"",
+                "1. 2. 2024",
+                "3/2024",
+                "skoda<=12500,50 kroupy",
+        };
+        int neprazdnych = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (!DotazUdalosti.parse(dotazy[i % dotazy.length]).prazdny()) neprazdnych++;
+        }
+        assertThat(neprazdnych).isEqualTo(20_000);
+    }
+}
@@ -0,0 +1,107 @@
+package vecera.projekt.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ResetTokenyVPameti} s ručně posouvaným časem – platnost, limit na uživatele, jednorázovost
+ * a dlouhý běh, ve kterém počet držených tokenů nesmí růst.
+ */
+class ResetTokenyVPametiTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final AtomicLong ted = new AtomicLong(1_000_000_000L);
+    private final ResetTokenyVPameti tokeny = new ResetTokenyVPameti(TTL, 3, 10_000, ted::get);
+
+    @Test
+    void tokenPlatiDoVyprseni() {
+        String t = tokeny.vydej("Jan");
+
+        posun(TTL.minusSeconds(1));
+        assertThat(tokeny.overUzivatele(t)).contains("Jan");
+
+        posun(Duration.ofSeconds(1));
+        assertThat(tokeny.overUzivatele(t)).isEmpty();
+    }
+
+    @Test
+    void spotrebovanyTokenUzNeplati() {
+        String t = tokeny.vydej("Jan");
+
+        assertThat(tokeny.spotrebuj(t)).contains("Jan");
+        assertThat(tokeny.spotrebuj(t)).isEmpty();
+        assertThat(tokeny.overUzivatele(t)).isEmpty();
+    }
+
+    @Test
+    void nadLimitemSeZahazujeNejstarsiBezOhleduNaVelikostPismen() {
+        List<String> vydane = new ArrayList<>();
+        for (String jmeno : List.of("jan", "Jan", "JAN ", "jAn", "JAN")) vydane.add(tokeny.vydej(jmeno));
+
+        assertThat(tokeny.overUzivatele(vydane.get(0))).isEmpty();
+        assertThat(tokeny.overUzivatele(vydane.get(1))).isEmpty();
+        assertThat(vydane.subList(2, 5)).allMatch(t -> tokeny.overUzivatele(t).isPresent());
+        assertThat(tokeny.velikost()).containsExactly(3, 1);
+    }
+
+    @Test
+    void nadCelkovymLimitemSeZahazujeNejstarsiToken() {
+        ResetTokenyVPameti male = new ResetTokenyVPameti(TTL, 3, 100, ted::get);
+        List<String> vydane = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            vydane.add(male.vydej("u" + i));
+            posun(Duration.ofSeconds(1));
+        }
+
+        assertThat(male.velikost()).containsExactly(100, 100);
+        assertThat(vydane.subList(0, 50)).allMatch(t -> male.overUzivatele(t).isEmpty());
+        assertThat(vydane.subList(50, 150)).allMatch(t -> male.overUzivatele(t).isPresent());
+
+        posun(TTL.plusMinutes(1));
+        male.uklid();
+        assertThat(male.velikost()).containsExactly(0, 0);
+    }
+
+    @Test
+    void prosleTokenyUvolniUklidBezCteni() {
+        for (int i = 0; i < 1_000; i++) tokeny.vydej("u" + i);
+        assertThat(tokeny.velikost()).containsExactly(1_000, 1_000);
+
+        posun(TTL.plusMinutes(1));
+        tokeny.uklid();
+        assertThat(tokeny.velikost()).containsExactly(0, 0);
+    }
+
+    /** Den provozu: každou sekundu jedna žádost, z toho stále dokola útok na jeden účet. */
+    @Test
+    void pametZustavaPriDlouhemBehuKonstantni() {
+        int kroku = (int) Duration.ofDays(1).toSeconds();
+        int nejviceZivych = (int) TTL.toSeconds() + 60 + 1; // ttl + jeden tik kola, po jedné za sekundu
+        int max = 0;
+
+        for (int i = 0; i < kroku; i++) {
+            tokeny.vydej(i % 2 == 0 ? "obet" : "u" + i);
+            posun(Duration.ofSeconds(1));
+            if (i % 60 == 0) tokeny.uklid();
+            max = Math.max(max, tokeny.velikost()[0]);
+        }
+
+        assertThat(max).isLessThanOrEqualTo(nejviceZivych);
+
+        posun(TTL.plusMinutes(1));
+        tokeny.uklid();
+        assertThat(tokeny.velikost()).containsExactly(0, 0);
+    }
+
+    private void posun(Duration d) {
+        ted.addAndGet(TimeUnit.SECONDS.toNanos(d.toSeconds()));
+    }
+}